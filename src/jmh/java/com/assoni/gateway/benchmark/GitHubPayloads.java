@@ -0,0 +1,63 @@
+package com.assoni.gateway.benchmark;
+
+import com.assoni.gateway.repositories.logic.api.GitHubRepositoryStreamDecoder;
+import com.assoni.gateway.repositories.logic.model.RepositoryModel;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Synthetic github search responses shaped like the real api, including the properties the gateway ignores.
+ * */
+final class GitHubPayloads {
+
+    private GitHubPayloads() {
+    }
+
+    static String searchResponse(final int repositories) {
+        final StringBuilder body = new StringBuilder("{\"total_count\":").append(repositories * 1000).append(",\"incomplete_results\":false,\"items\":[");
+
+        for(int i = 0; i < repositories; i++) {
+            if(i > 0) {
+                body.append(',');
+            }
+            body.append("{\"id\":").append(1000 + i)
+                .append(",\"node_id\":\"MDEwOlJlcG9zaXRvcnkxMDAw").append(i).append("\"")
+                .append(",\"name\":\"repository-").append(i).append("\"")
+                .append(",\"full_name\":\"owner-").append(i % 17).append("/repository-").append(i).append("\"")
+                .append(",\"private\":false")
+                .append(",\"owner\":{\"login\":\"owner-").append(i % 17).append("\",\"id\":").append(i % 17)
+                .append(",\"avatar_url\":\"https://avatars.githubusercontent.com/u/").append(i % 17).append("?v=4\"")
+                .append(",\"url\":\"https://api.github.com/users/owner-").append(i % 17).append("\",\"type\":\"Organization\",\"site_admin\":false}")
+                .append(",\"html_url\":\"https://github.com/owner-").append(i % 17).append("/repository-").append(i).append("\"")
+                .append(",\"description\":\"A repository used to measure how the gateway decodes the github search api, number ").append(i).append("\"")
+                .append(",\"fork\":false")
+                .append(",\"url\":\"https://api.github.com/repos/owner-").append(i % 17).append("/repository-").append(i).append("\"")
+                .append(",\"created_at\":\"2015-0").append(1 + i % 9).append("-1").append(i % 10).append("T10:15:30Z\"")
+                .append(",\"updated_at\":\"2022-06-01T10:15:30Z\",\"pushed_at\":\"2022-06-01T10:15:30Z\"")
+                .append(",\"homepage\":null,\"size\":").append(i * 31)
+                .append(",\"stargazers_count\":").append(100000 - i)
+                .append(",\"watchers_count\":").append(100000 - i)
+                .append(",\"language\":\"").append(i % 3 == 0 ? "Java" : i % 3 == 1 ? "Kotlin" : "Go").append("\"")
+                .append(",\"forks_count\":").append(i * 7)
+                .append(",\"license\":{\"key\":\"apache-2.0\",\"name\":\"Apache License 2.0\",\"spdx_id\":\"Apache-2.0\"}")
+                .append(",\"topics\":[\"framework\",\"gateway\",\"benchmark\"]")
+                .append(",\"visibility\":\"public\",\"default_branch\":\"main\",\"score\":1.0}");
+        }
+
+        return body.append("]}").toString();
+    }
+
+    /**
+     * @return the repositories of {@link #searchResponse(int)} as the gateway decodes them
+     * */
+    static List<RepositoryModel> repositories(final int repositories) {
+        final byte[] body = searchResponse(repositories).getBytes(StandardCharsets.UTF_8);
+        final GitHubRepositoryStreamDecoder decoder = new GitHubRepositoryStreamDecoder();
+
+        final List<RepositoryModel> decoded = new ArrayList<>(decoder.decode(body, 0, body.length));
+        decoded.addAll(decoder.complete());
+        return decoded;
+    }
+}
@@ -0,0 +1,52 @@
+package com.assoni.gateway.benchmark;
+
+import com.assoni.gateway.repositories.logic.api.GitHubClient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput and allocation of {@link GitHubClient#createFiltersForQuery(Optional, Optional)}, built for every search sent to github.
+ *
+ * ./gradlew jmh -Pjmh.includes=GitHubQueryBenchmark
+ * */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GitHubQueryBenchmark {
+
+    @Param({"none", "language", "createdOn", "both"})
+    public String filter;
+
+    private GitHubClient gitHubClient;
+    private Optional<LocalDate> createdOn;
+    private Optional<String> language;
+
+    @Setup
+    public void setUp() {
+        // the query is built without touching the web client
+        gitHubClient = new GitHubClient(null, null, null);
+        createdOn = filter.equals("createdOn") || filter.equals("both") ? Optional.of(LocalDate.of(2022, 1, 1)) : Optional.empty();
+        language = filter.equals("language") || filter.equals("both") ? Optional.of("java") : Optional.empty();
+    }
+
+    @Benchmark
+    public String createFiltersForQuery() {
+        return gitHubClient.createFiltersForQuery(createdOn, language).toString();
+    }
+}
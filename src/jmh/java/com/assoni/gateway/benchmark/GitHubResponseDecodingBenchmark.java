@@ -0,0 +1,79 @@
+package com.assoni.gateway.benchmark;
+
+import com.assoni.gateway.repositories.logic.api.GitHubRepositoryStreamDecoder;
+import com.assoni.gateway.repositories.logic.api.GitHubResponse;
+import com.assoni.gateway.repositories.logic.model.RepositoryModel;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Compares the aggregated decode of the github search response(whole body into {@link GitHubResponse} then copied into
+ * {@link RepositoryModel}) against the incremental decode of {@link GitHubRepositoryStreamDecoder} fed with netty sized chunks.
+ *
+ * Run with the gc profiler(enabled by default in build.gradle) and compare gc.alloc.rate.norm, the bytes allocated per decoded response.
+ *
+ * ./gradlew jmh -Pjmh.includes=GitHubResponseDecodingBenchmark
+ * */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GitHubResponseDecodingBenchmark {
+    private static final int CHUNK_SIZE = 8 * 1024;
+
+    @Param({"10", "100"})
+    public int repositories;
+
+    private ObjectMapper objectMapper;
+    private byte[] body;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper().findAndRegisterModules().disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        body = GitHubPayloads.searchResponse(repositories).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public List<RepositoryModel> aggregatedDecode() throws Exception {
+        final GitHubResponse response = objectMapper.readValue(body, GitHubResponse.class);
+
+        return response.getItems().stream().map(item -> RepositoryModel.builder()
+                                                                       .name(item.getName())
+                                                                       .description(item.getDescription())
+                                                                       .language(item.getLanguage())
+                                                                       .owner(item.getOwner().getLogin())
+                                                                       .stars(item.getStargazers_count())
+                                                                       .url(item.getUrl())
+                                                                       .createdAt(item.getCreated_at())
+                                                                       .build()).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public void streamingDecode(final Blackhole blackhole) {
+        final GitHubRepositoryStreamDecoder decoder = new GitHubRepositoryStreamDecoder();
+
+        for(int offset = 0; offset < body.length; offset += CHUNK_SIZE) {
+            decoder.decode(body, offset, Math.min(CHUNK_SIZE, body.length - offset)).forEach(blackhole::consume);
+        }
+        decoder.complete().forEach(blackhole::consume);
+    }
+}
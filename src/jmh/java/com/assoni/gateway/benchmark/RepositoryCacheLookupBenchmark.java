@@ -0,0 +1,106 @@
+package com.assoni.gateway.benchmark;
+
+import com.assoni.gateway.repositories.logic.GitHubRepositoryPager;
+import com.assoni.gateway.repositories.logic.GitHubRepositoryProvider;
+import com.assoni.gateway.repositories.logic.RepositorySearchIndex;
+import com.assoni.gateway.repositories.logic.api.GitHubClient;
+import com.assoni.gateway.repositories.logic.concurrency.AdaptiveConcurrencyLimiter;
+import com.assoni.gateway.repositories.logic.concurrency.RequestCoalescer;
+import com.assoni.gateway.repositories.logic.metrics.RepositoryLatencyMetrics;
+import com.assoni.gateway.repositories.logic.model.RepositoryModel;
+import com.assoni.gateway.repositories.logic.model.RepositorySearchResult;
+import com.assoni.gateway.repositories.logic.prewarm.RepositorySearchPopularity;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput and allocation of a cache hit in {@link GitHubRepositoryProvider}, github is never called after the set up.
+ *
+ *  sameSize        --> the cached prefix is returned as it is
+ *  smallerSize     --> the cached prefix is sliced
+ *  laterCreatedOn  --> not cached, answered by {@link RepositorySearchIndex} filtering the cached search of the language
+ *
+ * Every repository of the response is read, as the service does when mapping it to dtos.
+ *
+ * ./gradlew jmh -Pjmh.includes=RepositoryCacheLookupBenchmark
+ * */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RepositoryCacheLookupBenchmark {
+    private static final LocalDate CREATED_ON = LocalDate.of(2015, 1, 1);
+
+    @Param({"100"})
+    public int repositories;
+
+    private GitHubRepositoryProvider provider;
+    private final Optional<String> language = Optional.of("java");
+
+    @Setup
+    public void setUp() {
+        final List<RepositoryModel> models = GitHubPayloads.repositories(repositories);
+        final GitHubClient gitHubClient = new GitHubClient(null, null, null) {
+            @Override
+            public Flux<RepositoryModel> streamPublicRepositories(final Optional<LocalDate> createdOn, final Optional<String> language, final Optional<Integer> size) {
+                return Flux.fromIterable(models);
+            }
+        };
+
+        final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        final RepositoryLatencyMetrics latencyMetrics = new RepositoryLatencyMetrics(registry, List.of("java"));
+        final CaffeineCacheManager cacheManager = new CaffeineCacheManager(GitHubRepositoryProvider.REPOSITORIES_CACHE);
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+                                         .maximumWeight(64 * 1024 * 1024)
+                                         .weigher((Object key, Object value) -> ((RepositorySearchResult) value).estimatedBytes())
+                                         .expireAfterWrite(5, TimeUnit.MINUTES)
+                                         .recordStats());
+
+        provider = new GitHubRepositoryProvider(new GitHubRepositoryPager(gitHubClient, registry, 100, 1000, 4, "maximumSize=100"),
+                                                new RequestCoalescer(registry),
+                                                cacheManager,
+                                                new RepositorySearchIndex(registry, "maximumWeight=33554432,expireAfterWrite=5m"),
+                                                new RepositorySearchPopularity(20, 4096),
+                                                latencyMetrics,
+                                                new AdaptiveConcurrencyLimiter(registry, 20, 2, 100, 2000L, 0.9, 1000L));
+
+        provider.findAllPublicRepositories(Optional.empty(), language, Optional.of(repositories));
+        provider.findAllPublicRepositories(Optional.of(CREATED_ON), language, Optional.of(repositories));
+    }
+
+    @Benchmark
+    public void sameSize(final Blackhole blackhole) {
+        provider.findAllPublicRepositories(Optional.empty(), language, Optional.of(repositories)).forEach(blackhole::consume);
+    }
+
+    @Benchmark
+    public void smallerSize(final Blackhole blackhole) {
+        provider.findAllPublicRepositories(Optional.empty(), language, Optional.of(10)).forEach(blackhole::consume);
+    }
+
+    @Benchmark
+    public void laterCreatedOn(final Blackhole blackhole) {
+        provider.findAllPublicRepositories(Optional.of(CREATED_ON.plusMonths(2)), language, Optional.of(10)).forEach(blackhole::consume);
+    }
+}
@@ -0,0 +1,83 @@
+package com.assoni.gateway.benchmark;
+
+import com.assoni.gateway.repositories.dto.RepositoryDTO;
+import com.assoni.gateway.repositories.logic.api.GitHubResponse;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Throughput and allocation of the json handled on every request, configured as spring boot configures its object mapper.
+ *
+ *  readGitHubResponse      --> github search response into {@link GitHubResponse}
+ *  writeRepositories       --> response body of GET /v1/repositories
+ *  readRepositories        --> response body read back, as the last known good store does when loading
+ *
+ * ./gradlew jmh -Pjmh.includes=RepositoryJsonBenchmark
+ * */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RepositoryJsonBenchmark {
+    private static final TypeReference<List<RepositoryDTO>> REPOSITORIES = new TypeReference<>() {
+    };
+
+    @Param({"10", "100"})
+    public int repositories;
+
+    private ObjectMapper objectMapper;
+    private byte[] gitHubBody;
+    private List<RepositoryDTO> dtos;
+    private byte[] dtosBody;
+
+    @Setup
+    public void setUp() throws Exception {
+        objectMapper = Jackson2ObjectMapperBuilder.json().featuresToDisable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES).build();
+        gitHubBody = GitHubPayloads.searchResponse(repositories).getBytes(StandardCharsets.UTF_8);
+        dtos = GitHubPayloads.repositories(repositories).stream().map(model -> RepositoryDTO.builder()
+                                                                                             .name(model.getName())
+                                                                                             .description(model.getDescription())
+                                                                                             .language(model.getLanguage())
+                                                                                             .owner(model.getOwner())
+                                                                                             .stars(model.getStars())
+                                                                                             .url(model.getUrl())
+                                                                                             .createdAt(model.getCreatedAt())
+                                                                                             .build()).collect(Collectors.toList());
+        dtosBody = objectMapper.writeValueAsBytes(dtos);
+    }
+
+    @Benchmark
+    public GitHubResponse readGitHubResponse() throws Exception {
+        return objectMapper.readValue(gitHubBody, GitHubResponse.class);
+    }
+
+    @Benchmark
+    public byte[] writeRepositories() throws Exception {
+        return objectMapper.writeValueAsBytes(dtos);
+    }
+
+    @Benchmark
+    public List<RepositoryDTO> readRepositories() throws Exception {
+        return objectMapper.readValue(dtosBody, REPOSITORIES);
+    }
+}
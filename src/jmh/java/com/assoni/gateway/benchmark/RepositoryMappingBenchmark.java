@@ -0,0 +1,100 @@
+package com.assoni.gateway.benchmark;
+
+import com.assoni.gateway.repositories.dto.RepositoryDTO;
+import com.assoni.gateway.repositories.dto.RepositorySearchRequestDTO;
+import com.assoni.gateway.repositories.logic.RepositoryProvider;
+import com.assoni.gateway.repositories.logic.metrics.RepositoryLatencyMetrics;
+import com.assoni.gateway.repositories.logic.model.RepositoryModel;
+import com.assoni.gateway.repositories.service.LastKnownGoodRepositoryStore;
+import com.assoni.gateway.repositories.service.RepositorySearchIsolation;
+import com.assoni.gateway.repositories.service.RepositoryServiceImpl;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput and allocation of {@link RepositoryServiceImpl#findAllPublicRepositories(RepositorySearchRequestDTO)} when the provider
+ * answers from memory, which is the model to dto mapping of every response plus the last known good bookkeeping.
+ *
+ * The bulkhead and circuit breaker of the search are applied with their default configuration.
+ *
+ * ./gradlew jmh -Pjmh.includes=RepositoryMappingBenchmark
+ * */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RepositoryMappingBenchmark {
+
+    @Param({"10", "100"})
+    public int repositories;
+
+    private Path storePath;
+    private LastKnownGoodRepositoryStore lastKnownGoodRepositoryStore;
+    private RepositoryServiceImpl repositoryService;
+    private RepositorySearchRequestDTO request;
+
+    @Setup
+    public void setUp() throws Exception {
+        final List<RepositoryModel> models = GitHubPayloads.repositories(repositories);
+        final RepositoryProvider provider = new RepositoryProvider() {
+            @Override
+            public List<RepositoryModel> findAllPublicRepositories(final Optional<LocalDate> createdOn, final Optional<String> language, final Optional<Integer> size) {
+                return models;
+            }
+
+            @Override
+            public Mono<List<RepositoryModel>> findAllPublicRepositoriesReactive(final Optional<LocalDate> createdOn, final Optional<String> language, final Optional<Integer> size) {
+                return Mono.just(models);
+            }
+
+            @Override
+            public Flux<RepositoryModel> streamPublicRepositories(final Optional<LocalDate> createdOn, final Optional<String> language, final Optional<Integer> size) {
+                return Flux.fromIterable(models);
+            }
+        };
+
+        storePath = Files.createTempFile("repository-mapping-benchmark", ".jsonl");
+        lastKnownGoodRepositoryStore = new LastKnownGoodRepositoryStore(Jackson2ObjectMapperBuilder.json().build(), storePath, TimeUnit.DAYS.toMillis(1), Long.MAX_VALUE, 250_000, 100, Clock.systemUTC());
+        final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        final RepositorySearchIsolation searchIsolation = new RepositorySearchIsolation(CircuitBreakerRegistry.ofDefaults(), BulkheadRegistry.ofDefaults(), registry, 100, 1000L);
+        repositoryService = new RepositoryServiceImpl(provider, lastKnownGoodRepositoryStore, new RepositoryLatencyMetrics(registry, List.of("java")), searchIsolation);
+        request = RepositorySearchRequestDTO.builder().language(Optional.of("java")).createdOn(Optional.empty()).size(Optional.of(repositories)).build();
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        lastKnownGoodRepositoryStore.close();
+        Files.deleteIfExists(storePath);
+    }
+
+    @Benchmark
+    public List<RepositoryDTO> mapModelsToDTOs() {
+        return repositoryService.findAllPublicRepositories(request);
+    }
+}
@@ -0,0 +1,120 @@
+package com.assoni.gateway.benchmark;
+
+import com.assoni.gateway.repositories.controller.RepositoryETag;
+import com.assoni.gateway.repositories.controller.RepositoryResponseCache;
+import com.assoni.gateway.repositories.controller.RepositoryResponseCompression;
+import com.assoni.gateway.repositories.controller.RepositoryResponseCompression.Coding;
+import com.assoni.gateway.repositories.dto.RepositoryDTO;
+import com.assoni.gateway.repositories.dto.RepositorySearchRequestDTO;
+import com.assoni.gateway.repositories.logic.model.RepositoryModel;
+import com.assoni.gateway.repositories.logic.prewarm.RepositorySearchPopularity;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Body written for a hot search of GET /v1/repositories, the repositories are already in memory in both cases.
+ *
+ *  mapAndSerialize --> path without {@link RepositoryResponseCache}, models mapped to dtos, ETag computed and json serialized
+ *  cachedBytes     --> cached serialized body copied to the response stream
+ *  cachedGzipBytes --> cached gzip variant copied to the response stream
+ *  gzipPerRequest  --> cached serialized body gzipped on every request, as a compressing servlet filter would
+ *
+ * The response stream is a reused in-memory buffer, so socket writes are left out of both sides.
+ *
+ * ./gradlew jmh -Pjmh.includes=RepositoryResponseBenchmark
+ * */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RepositoryResponseBenchmark {
+
+    @Param({"10", "100"})
+    public int repositories;
+
+    private ObjectMapper objectMapper;
+    private List<RepositoryModel> models;
+    private RepositoryResponseCache responseCache;
+    private RepositorySearchRequestDTO request;
+    private ByteArrayOutputStream output;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        models = GitHubPayloads.repositories(repositories);
+        responseCache = new RepositoryResponseCache(objectMapper, new RepositoryResponseCompression(new SimpleMeterRegistry(), List.of("gzip"), 0, 6, 6, 9),
+                                                    new RepositorySearchPopularity(20, 4096), new SimpleMeterRegistry(), true, "maximumWeight=33554432");
+        request = RepositorySearchRequestDTO.builder().language(Optional.of("java")).createdOn(Optional.empty()).size(Optional.of(repositories)).build();
+        responseCache.find(request, Optional.empty(), () -> map(models));
+        output = new ByteArrayOutputStream(1024 * 1024);
+    }
+
+    @Benchmark
+    public int mapAndSerialize() throws Exception {
+        output.reset();
+        final List<RepositoryDTO> dtos = map(models);
+        final String etag = RepositoryETag.of(dtos);
+        objectMapper.writeValue(output, dtos);
+        return output.size() + etag.length();
+    }
+
+    @Benchmark
+    public int cachedBytes() {
+        output.reset();
+        final RepositoryResponseCache.SerializedResponse response = responseCache.find(request, Optional.empty(), () -> map(models));
+        output.write(response.json(), 0, response.json().length);
+        return output.size() + response.etag().length();
+    }
+
+    @Benchmark
+    public int cachedGzipBytes() {
+        output.reset();
+        final RepositoryResponseCache.SerializedResponse response = responseCache.find(request, Optional.empty(), () -> map(models));
+        final byte[] gzip = response.variants().get(Coding.GZIP);
+        output.write(gzip, 0, gzip.length);
+        return output.size() + response.etag().length();
+    }
+
+    @Benchmark
+    public int gzipPerRequest() throws Exception {
+        output.reset();
+        final RepositoryResponseCache.SerializedResponse response = responseCache.find(request, Optional.empty(), () -> map(models));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(output)) {
+            gzip.write(response.json());
+        }
+        return output.size() + response.etag().length();
+    }
+
+    private static List<RepositoryDTO> map(final List<RepositoryModel> models) {
+        return models.stream().map(model -> RepositoryDTO.builder()
+                                                         .name(model.getName())
+                                                         .language(model.getLanguage())
+                                                         .owner(model.getOwner())
+                                                         .description(model.getDescription())
+                                                         .url(model.getUrl())
+                                                         .createdAt(model.getCreatedAt())
+                                                         .stars(model.getStars())
+                                                         .build()).collect(Collectors.toList());
+    }
+}
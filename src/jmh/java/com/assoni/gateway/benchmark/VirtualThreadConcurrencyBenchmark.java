@@ -0,0 +1,82 @@
+package com.assoni.gateway.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares how long a burst of requests takes to be served by tomcat's platform thread pool(200 threads by default) against
+ * one virtual thread per request, when every request blocks waiting for a slow github.
+ *
+ * The upstream call is emulated the same way GitHubClient waits for it, blocking on a mono completed by netty/reactor threads.
+ * When a burst takes ~upstreamLatencyMillis the executor sustains that concurrency, when it takes a multiple of it the requests
+ * were queued waiting for a thread.
+ *
+ * ./gradlew jmh -Pjmh.includes=VirtualThreadConcurrencyBenchmark
+ * */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class VirtualThreadConcurrencyBenchmark {
+    private static final int TOMCAT_DEFAULT_MAX_THREADS = 200;
+
+    @Param({"platform", "virtual"})
+    public String executor;
+
+    @Param({"200", "1000", "5000"})
+    public int concurrentRequests;
+
+    @Param({"200"})
+    public int upstreamLatencyMillis;
+
+    private ExecutorService executorService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        executorService = "virtual".equals(executor) ? Executors.newVirtualThreadPerTaskExecutor() : Executors.newFixedThreadPool(TOMCAT_DEFAULT_MAX_THREADS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Benchmark
+    public int burstOfSlowUpstreamCalls() throws Exception {
+        final Duration latency = Duration.ofMillis(upstreamLatencyMillis);
+        final List<Future<Long>> requests = new ArrayList<>(concurrentRequests);
+
+        for(int i = 0; i < concurrentRequests; i++) {
+            requests.add(executorService.submit(() -> Mono.delay(latency).block()));
+        }
+
+        int served = 0;
+        for(Future<Long> request : requests) {
+            request.get();
+            served++;
+        }
+        return served;
+    }
+}
@@ -0,0 +1,153 @@
+package com.assoni.gateway.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Local stand-in of the github search api(GET /repositories), every answer waits latency + random jitter, a fraction of them fails
+ * with 503 and every answer carries the X-RateLimit-* headers of a budget of rateLimit requests per window, once the budget is
+ * over the stub answers 403 until the window resets, as github does.
+ *
+ * Each request is handled in its own virtual thread so the latency never queues requests inside the stub.
+ * */
+public class GitHubSearchStub implements AutoCloseable {
+
+    private final LoadTestSettings settings;
+    private final Clock clock;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong windowStartMillis;
+    private final AtomicLong windowRequests = new AtomicLong();
+
+    public GitHubSearchStub(final LoadTestSettings settings) throws IOException {
+        this.settings = settings;
+        this.clock = Clock.systemUTC();
+        this.windowStartMillis = new AtomicLong(clock.millis());
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+
+        this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 1024);
+        this.server.createContext("/repositories", this::handle);
+        this.server.setExecutor(executor);
+        this.server.start();
+    }
+
+    /**
+     * @return base url to be used as client.github.baseUrl
+     * */
+    public String baseUrl() {
+        return "http://localhost:" + server.getAddress().getPort() + "/";
+    }
+
+    /**
+     * @return amount of searches received
+     * */
+    public long requests() {
+        return requests.get();
+    }
+
+    private void handle(final HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        try {
+            sleep(settings.stubLatency().toMillis() + (settings.stubJitter().isZero() ? 0 : ThreadLocalRandom.current().nextLong(settings.stubJitter().toMillis() + 1)));
+
+            final long remaining = consumeBudget();
+            exchange.getResponseHeaders().add("X-RateLimit-Limit", String.valueOf(settings.stubRateLimit()));
+            exchange.getResponseHeaders().add("X-RateLimit-Remaining", String.valueOf(Math.max(remaining, 0)));
+            exchange.getResponseHeaders().add("X-RateLimit-Reset", String.valueOf((windowStartMillis.get() + settings.stubRateWindow().toMillis()) / 1000));
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+
+            if(remaining < 0) {
+                write(exchange, 403, "{\"message\":\"API rate limit exceeded\"}");
+            } else if(ThreadLocalRandom.current().nextDouble() < settings.stubErrorRate()) {
+                write(exchange, 503, "{\"message\":\"Service unavailable\"}");
+            } else {
+                write(exchange, 200, searchResponse(queryOf(exchange.getRequestURI())));
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private long consumeBudget() {
+        final long now = clock.millis();
+        final long windowStart = windowStartMillis.get();
+        if(now - windowStart >= settings.stubRateWindow().toMillis() && windowStartMillis.compareAndSet(windowStart, now)) {
+            windowRequests.set(0);
+        }
+
+        return settings.stubRateLimit() - windowRequests.incrementAndGet();
+    }
+
+    private static Map<String, String> queryOf(final URI uri) {
+        if(uri.getRawQuery() == null) {
+            return Map.of();
+        }
+
+        return Arrays.stream(uri.getRawQuery().split("&"))
+                     .map(parameter -> parameter.split("=", 2))
+                     .collect(Collectors.toMap(parameter -> parameter[0], parameter -> parameter.length > 1 ? parameter[1] : "", (first, second) -> second));
+    }
+
+    private static String searchResponse(final Map<String, String> query) {
+        final int perPage = Integer.parseInt(query.getOrDefault("per_page", "30"));
+        final int page = Integer.parseInt(query.getOrDefault("page", "1"));
+        final String filter = query.getOrDefault("q", "a");
+
+        final StringBuilder body = new StringBuilder("{\"total_count\":100000,\"incomplete_results\":false,\"items\":[");
+        for(int index = 0; index < perPage; index++) {
+            final int position = (page - 1) * perPage + index;
+            if(index > 0) {
+                body.append(',');
+            }
+            body.append("{\"id\":").append(position)
+                .append(",\"name\":\"repository-").append(position).append("\"")
+                .append(",\"owner\":{\"login\":\"owner-").append(position % 17).append("\",\"id\":").append(position % 17).append("}")
+                .append(",\"description\":\"Repository ").append(position).append(" of ").append(filter).append("\"")
+                .append(",\"url\":\"https://api.github.com/repos/owner-").append(position % 17).append("/repository-").append(position).append("\"")
+                .append(",\"created_at\":\"2022-0").append(1 + position % 9).append("-1").append(position % 10).append("T10:15:30Z\"")
+                .append(",\"stargazers_count\":").append(100_000 - position)
+                .append(",\"language\":\"Java\",\"score\":1.0}");
+        }
+
+        return body.append("]}").toString();
+    }
+
+    private static void write(final HttpExchange exchange, final int status, final String body) throws IOException {
+        final byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(bytes);
+        }
+    }
+
+    private static void sleep(final long millis) {
+        try {
+            Thread.sleep(Duration.ofMillis(millis));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,118 @@
+package com.assoni.gateway.loadtest;
+
+import com.assoni.gateway.RepositoryApiGatewayApplication;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * End to end load test of the gateway, nothing leaves the machine.
+ *
+ * The github search api is replaced by {@link GitHubSearchStub}, the gateway is started in this jvm pointing to it(with its regular
+ * configuration, any loadtest.gateway.* system property overrides one of it such as -Dloadtest.gateway.client.github.rateLimit.burst=50)
+ * and {@link OpenLoopLoadGenerator} drives GET /v1/repositories during the warm up and then during the measured duration.
+ *
+ * Reported for the measured duration: latency percentiles(HdrHistogram), throughput, answers per status, cache hit ratio of
+ * repositories_responses and of repositories_cache(only reached by the response misses), calls that reached github and the state
+ * transitions of the circuit breakers.
+ *
+ * ./gradlew loadTest -Dloadtest.rate=200 -Dloadtest.duration=60 -Dloadtest.stub.errorRate=0.2
+ * */
+public class LoadTest {
+
+    private static final String GATEWAY_PROPERTY_PREFIX = "loadtest.gateway.";
+
+    public static void main(final String[] args) throws Exception {
+        final LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+
+        try (GitHubSearchStub stub = new GitHubSearchStub(settings);
+             ConfigurableApplicationContext gateway = startGateway(settings, stub)) {
+            final List<String> transitions = Collections.synchronizedList(new ArrayList<>());
+            gateway.getBeanProvider(CircuitBreakerRegistry.class).ifAvailable(registry -> observeTransitions(registry, transitions));
+
+            final OpenLoopLoadGenerator generator = new OpenLoopLoadGenerator(settings, URI.create("http://localhost:" + gateway.getEnvironment().getProperty("local.server.port")));
+            final MeterRegistry registry = gateway.getBean(MeterRegistry.class);
+
+            System.out.printf("Warming up for %s at %d requests/s%n", settings.warmup(), settings.rate());
+            generator.run(settings.warmup());
+            transitions.clear();
+
+            final double hitsBefore = cacheGets(registry, "repositories_cache", "hit");
+            final double missesBefore = cacheGets(registry, "repositories_cache", "miss");
+            final double responseHitsBefore = cacheGets(registry, "repositories_responses", "hit");
+            final double responseMissesBefore = cacheGets(registry, "repositories_responses", "miss");
+            final long upstreamBefore = stub.requests();
+
+            System.out.printf("Measuring for %s at %d requests/s%n", settings.duration(), settings.rate());
+            final OpenLoopLoadGenerator.Result result = generator.run(settings.duration());
+
+            report(settings, result, cacheGets(registry, "repositories_cache", "hit") - hitsBefore, cacheGets(registry, "repositories_cache", "miss") - missesBefore,
+                   cacheGets(registry, "repositories_responses", "hit") - responseHitsBefore, cacheGets(registry, "repositories_responses", "miss") - responseMissesBefore,
+                   stub.requests() - upstreamBefore, transitions);
+        }
+    }
+
+    private static ConfigurableApplicationContext startGateway(final LoadTestSettings settings, final GitHubSearchStub stub) throws Exception {
+        final Properties properties = new Properties();
+        properties.setProperty("server.port", "0");
+        properties.setProperty("management.server.port", "0");
+        properties.setProperty("client.github.baseUrl", stub.baseUrl());
+        properties.setProperty("client.github.rateLimit.limit", String.valueOf(settings.stubRateLimit()));
+        properties.setProperty("client.github.rateLimit.window", String.valueOf(settings.stubRateWindow().toMillis()));
+        properties.setProperty("fallback.store.path", Files.createTempFile("repository-api-gateway-load-test", ".jsonl").toString());
+        System.getProperties().stringPropertyNames().stream()
+              .filter(name -> name.startsWith(GATEWAY_PROPERTY_PREFIX))
+              .forEach(name -> properties.setProperty(name.substring(GATEWAY_PROPERTY_PREFIX.length()), System.getProperty(name)));
+
+        return new SpringApplicationBuilder(RepositoryApiGatewayApplication.class).properties(properties).run();
+    }
+
+    private static void observeTransitions(final CircuitBreakerRegistry registry, final List<String> transitions) {
+        registry.getAllCircuitBreakers().forEach(circuitBreaker -> observeTransitions(circuitBreaker, transitions));
+        registry.getEventPublisher().onEntryAdded(event -> observeTransitions(event.getAddedEntry(), transitions));
+    }
+
+    private static void observeTransitions(final CircuitBreaker circuitBreaker, final List<String> transitions) {
+        circuitBreaker.getEventPublisher().onStateTransition(event -> transitions.add(Instant.now() + " " + circuitBreaker.getName() + " " + event.getStateTransition()));
+    }
+
+    private static double cacheGets(final MeterRegistry registry, final String cache, final String result) {
+        final FunctionCounter counter = registry.find("cache.gets").tag("cache", cache).tag("result", result).functionCounter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    private static void report(final LoadTestSettings settings, final OpenLoopLoadGenerator.Result result, final double hits, final double misses,
+                               final double responseHits, final double responseMisses, final long upstream, final List<String> transitions) {
+        final Histogram latencies = result.latencies();
+
+        System.out.println();
+        System.out.printf("Sent %d requests, %d answered in %s%n", result.sent(), result.answered(), result.elapsed());
+        System.out.printf("Throughput: %.1f answers/s (target %d requests/s)%n", result.throughput(), settings.rate());
+        System.out.printf("Latency(ms): p50=%.1f p90=%.1f p99=%.1f p999=%.1f max=%.1f%n",
+                          millis(latencies.getValueAtPercentile(50)), millis(latencies.getValueAtPercentile(90)), millis(latencies.getValueAtPercentile(99)),
+                          millis(latencies.getValueAtPercentile(99.9)), millis(latencies.getMaxValue()));
+        System.out.printf("Answers: %s%n", result.outcomes());
+        System.out.printf("Response cache hit ratio: %.2f%% (%.0f hits, %.0f misses)%n", responseHits + responseMisses == 0 ? 0 : responseHits * 100 / (responseHits + responseMisses), responseHits, responseMisses);
+        System.out.printf("Cache hit ratio of the response cache misses: %.2f%% (%.0f hits, %.0f misses)%n", hits + misses == 0 ? 0 : hits * 100 / (hits + misses), hits, misses);
+        System.out.printf("Github calls: %d%n", upstream);
+        System.out.printf("Circuit breaker transitions: %d%n", transitions.size());
+        transitions.forEach(transition -> System.out.println("  " + transition));
+    }
+
+    private static double millis(final long micros) {
+        return micros / 1000d;
+    }
+}
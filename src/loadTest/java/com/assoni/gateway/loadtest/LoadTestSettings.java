@@ -0,0 +1,49 @@
+package com.assoni.gateway.loadtest;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Settings of a load test run, read from loadtest.* system properties(./gradlew loadTest -Dloadtest.rate=500).
+ *
+ * @param rate            --> requests per second sent to the gateway, whatever the time it takes to answer(open loop)
+ * @param warmup          --> time sending requests before measuring
+ * @param duration        --> time measuring
+ * @param timeout         --> time a request waits for the gateway before being counted as a timeout
+ * @param languages       --> languages searched, one per request in round robin, more languages means less cache hits
+ * @param size            --> size of every search
+ * @param stubLatency     --> minimum time the github stub takes to answer
+ * @param stubJitter      --> random time added to stubLatency
+ * @param stubErrorRate   --> fraction of the github stub answers which are 503
+ * @param stubRateLimit   --> requests the github stub accepts per window before answering 403
+ * @param stubRateWindow  --> window of the rate limit of the github stub
+ * */
+public record LoadTestSettings(int rate,
+                               Duration warmup,
+                               Duration duration,
+                               Duration timeout,
+                               List<String> languages,
+                               int size,
+                               Duration stubLatency,
+                               Duration stubJitter,
+                               double stubErrorRate,
+                               int stubRateLimit,
+                               Duration stubRateWindow) {
+
+    public static LoadTestSettings fromSystemProperties() {
+        return new LoadTestSettings(Integer.getInteger("loadtest.rate", 100),
+                                    Duration.ofSeconds(Long.getLong("loadtest.warmup", 10L)),
+                                    Duration.ofSeconds(Long.getLong("loadtest.duration", 60L)),
+                                    Duration.ofMillis(Long.getLong("loadtest.timeout", 10_000L)),
+                                    Arrays.stream(System.getProperty("loadtest.languages", "java,kotlin,go,python,rust,javascript,typescript,scala,ruby,c").split(","))
+                                          .map(String::trim).filter(language -> !language.isEmpty()).collect(Collectors.toList()),
+                                    Integer.getInteger("loadtest.size", 30),
+                                    Duration.ofMillis(Long.getLong("loadtest.stub.latency", 200L)),
+                                    Duration.ofMillis(Long.getLong("loadtest.stub.jitter", 100L)),
+                                    Double.parseDouble(System.getProperty("loadtest.stub.errorRate", "0.0")),
+                                    Integer.getInteger("loadtest.stub.rateLimit", 5000),
+                                    Duration.ofSeconds(Long.getLong("loadtest.stub.rateWindow", 3600L)));
+    }
+}
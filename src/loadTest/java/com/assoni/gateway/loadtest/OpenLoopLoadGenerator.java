@@ -0,0 +1,102 @@
+package com.assoni.gateway.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sends GET /v1/repositories at a fixed arrival rate whatever the time the gateway takes to answer(open loop), so a slow gateway
+ * accumulates requests in flight as real users would instead of slowing down the load.
+ *
+ * Latency is measured from the time the request was scheduled to be sent, not from the time it was actually sent, so pauses of
+ * the generator itself are not hidden(coordinated omission).
+ * */
+public class OpenLoopLoadGenerator {
+
+    private static final long HIGHEST_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(2);
+
+    /**
+     * @param latencies --> latency of every answered request in microseconds
+     * @param outcomes  --> amount of requests per http status or failure
+     * @param sent      --> amount of requests sent
+     * @param elapsed   --> time between the first request and the last answer
+     * */
+    public record Result(Histogram latencies, Map<String, Long> outcomes, long sent, Duration elapsed) {
+
+        public long answered() {
+            return latencies.getTotalCount();
+        }
+
+        public double throughput() {
+            return answered() / (elapsed.toNanos() / 1_000_000_000d);
+        }
+    }
+
+    private final LoadTestSettings settings;
+    private final URI gateway;
+    private final HttpClient client;
+
+    public OpenLoopLoadGenerator(final LoadTestSettings settings, final URI gateway) {
+        this.settings = settings;
+        this.gateway = gateway;
+        this.client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).connectTimeout(settings.timeout()).build();
+    }
+
+    /**
+     * Sends settings.rate requests per second during length and waits for the requests in flight up to settings.timeout.
+     * */
+    public Result run(final Duration length) {
+        final Histogram latencies = new ConcurrentHistogram(HIGHEST_LATENCY_MICROS, 3);
+        final Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+        final AtomicLong inFlight = new AtomicLong();
+
+        final long intervalNanos = 1_000_000_000L / settings.rate();
+        final long start = System.nanoTime();
+        final long end = start + length.toNanos();
+
+        long sent = 0;
+        for(long intended = start; intended < end; intended = start + sent * intervalNanos) {
+            final long wait = intended - System.nanoTime();
+            if(wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+
+            final long scheduledAt = intended;
+            final String language = settings.languages().get((int) (sent % settings.languages().size()));
+            final HttpRequest request = HttpRequest.newBuilder(gateway.resolve("/v1/repositories?language=" + language + "&size=" + settings.size()))
+                                                   .timeout(settings.timeout())
+                                                   .GET()
+                                                   .build();
+
+            inFlight.incrementAndGet();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, failure) -> {
+                latencies.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - scheduledAt), HIGHEST_LATENCY_MICROS));
+                final String outcome = failure == null ? String.valueOf(response.statusCode()) : failure.getClass().getSimpleName();
+                outcomes.computeIfAbsent(outcome, key -> new LongAdder()).increment();
+                inFlight.decrementAndGet();
+            });
+            sent++;
+        }
+
+        final long deadline = System.nanoTime() + settings.timeout().toNanos() + TimeUnit.SECONDS.toNanos(1);
+        while(inFlight.get() > 0 && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+
+        final Map<String, Long> counted = new TreeMap<>();
+        outcomes.forEach((outcome, count) -> counted.put(outcome, count.sum()));
+        return new Result(latencies, counted, sent, Duration.ofNanos(System.nanoTime() - start));
+    }
+}
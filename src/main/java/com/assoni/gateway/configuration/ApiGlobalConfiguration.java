@@ -7,9 +7,11 @@ import io.swagger.v3.oas.annotations.info.Info;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @Configuration
 @EnableCaching
+@EnableScheduling
 @OpenAPIDefinition(
     info = @Info(
         title = "Repository api gateway",
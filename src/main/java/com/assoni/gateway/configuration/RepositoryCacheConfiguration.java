@@ -0,0 +1,38 @@
+package com.assoni.gateway.configuration;
+
+import com.assoni.gateway.repositories.logic.GitHubRepositoryProvider;
+import com.assoni.gateway.repositories.logic.model.RepositorySearchResult;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Builder of the caffeine caches created by spring boot, repositories_cache is bounded by the heap retained by its entries(see
+ * {@link RepositorySearchResult#estimatedBytes()}) instead of the amount of searches, so maximumWeight of cache.repositories.spec
+ * is in bytes.
+ *
+ * spring.cache.caffeine.spec must stay unset, spring boot ignores this builder when it is present.
+ *
+ * Metrics:
+ *  repository_cache_entry_bytes_metric{cache} --> estimated size of every entry written to the cache
+ * */
+@Configuration
+public class RepositoryCacheConfiguration {
+
+    @Bean
+    public Caffeine<Object, Object> repositoryCacheBuilder(@Value("${cache.repositories.spec}") final String spec, final MeterRegistry registry) {
+        final DistributionSummary entryBytes = DistributionSummary.builder("repository_cache_entry_bytes_metric")
+                                                                  .baseUnit("bytes")
+                                                                  .tag("cache", GitHubRepositoryProvider.REPOSITORIES_CACHE)
+                                                                  .register(registry);
+
+        return Caffeine.from(spec).weigher((Object key, Object value) -> {
+            final int weight = value instanceof RepositorySearchResult result ? result.estimatedBytes() : 1;
+            entryBytes.record(weight);
+            return weight;
+        });
+    }
+}
@@ -0,0 +1,69 @@
+package com.assoni.gateway.configuration;
+
+import com.assoni.gateway.repositories.logic.GitHubRepositoryProvider;
+import com.assoni.gateway.repositories.logic.RepositorySearchIndex;
+import com.assoni.gateway.repositories.logic.cache.InMemorySharedCacheStore;
+import com.assoni.gateway.repositories.logic.cache.SharedCacheStore;
+import com.assoni.gateway.repositories.logic.cache.TwoTierCache;
+import com.assoni.gateway.repositories.logic.cache.TwoTierCacheManager;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Opt-in second tier for repositories_cache shared by the replicas, see {@link TwoTierCache}.
+ *
+ * The cache manager created by spring boot keeps being the L1, it is only decorated, without a real {@link SharedCacheStore} bean
+ * the embedded {@link InMemorySharedCacheStore} is used which is only meant for local runs. Searches read from the L2 are added
+ * to the {@link RepositorySearchIndex}, resolved when the first one is read as the index is created after the cache manager.
+ *
+ * Enabled by cache.repositories.l2.enabled=true
+ * */
+@Configuration
+@ConditionalOnProperty(value = "cache.repositories.l2.enabled", havingValue = "true")
+public class TwoTierCacheConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public SharedCacheStore sharedCacheStore() {
+        return new InMemorySharedCacheStore();
+    }
+
+    @Bean
+    public static BeanPostProcessor twoTierCacheManagerPostProcessor(final ObjectProvider<SharedCacheStore> sharedCacheStore,
+                                                                     final ObjectProvider<RepositorySearchIndex> repositorySearchIndex,
+                                                                     final ObjectProvider<MeterRegistry> registry,
+                                                                     @Value("${cache.repositories.l2.ttl}") final Long ttl) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(final Object bean, final String beanName) {
+                if(!(bean instanceof CacheManager cacheManager) || bean instanceof TwoTierCacheManager) {
+                    return bean;
+                }
+
+                return new TwoTierCacheManager(cacheManager, Set.of(GitHubRepositoryProvider.REPOSITORIES_CACHE), sharedCacheStore.getObject(), Duration.ofMillis(ttl),
+                                               (key, result) -> repositorySearchIndex.ifAvailable(index -> index.add(key, result)), registry.getObject());
+            }
+        };
+    }
+
+    /**
+     * Keeps the cache.* metrics of the L1 which spring boot only binds for caffeine caches.
+     * */
+    @Bean
+    public CacheMeterBinderProvider<TwoTierCache> twoTierCacheMeterBinderProvider() {
+        return (cache, tags) -> cache.getLocal() instanceof CaffeineCache caffeine ? new CaffeineCacheMetrics(caffeine.getNativeCache(), cache.getName(), tags) : null;
+    }
+}
@@ -0,0 +1,42 @@
+package com.assoni.gateway.configuration;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Opt-in execution mode where tomcat handles every request in its own virtual thread instead of the bounded platform thread pool.
+ *
+ * The blocking call to github made by the request thread parks the virtual thread instead of holding a platform thread,
+ * so the amount of concurrent slow upstream calls is no longer capped by server.tomcat.threads.max.
+ *
+ * Enabled by server.tomcat.virtual-threads.enabled=true, spring.threads.virtual.enabled is left to the support of spring boot 3.2
+ * so both never configure tomcat at the same time after an upgrade. The executor is a bean closed with the context, it replaces the
+ * applicationTaskExecutor of spring boot too so async mvc requests(reactive and streamed endpoints) also run on virtual threads.
+ * */
+@Configuration
+@ConditionalOnProperty(value = "server.tomcat.virtual-threads.enabled", havingValue = "true")
+public class VirtualThreadConfiguration {
+
+    @Bean(destroyMethod = "close")
+    public ExecutorService virtualThreadExecutor() {
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    @Bean(name = TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    public AsyncTaskExecutor applicationTaskExecutor(final ExecutorService virtualThreadExecutor) {
+        return new TaskExecutorAdapter(virtualThreadExecutor);
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer(final ExecutorService virtualThreadExecutor) {
+        return protocolHandler -> protocolHandler.setExecutor(virtualThreadExecutor);
+    }
+}
@@ -1,16 +1,38 @@
 package com.assoni.gateway.repositories.controller;
 
+import com.assoni.gateway.repositories.controller.RepositoryResponseCache.SerializedResponse;
+import com.assoni.gateway.repositories.controller.RepositoryResponseCompression.Coding;
+import com.assoni.gateway.repositories.dto.RepositoryBatchResultDTO;
 import com.assoni.gateway.repositories.dto.RepositoryDTO;
 import com.assoni.gateway.repositories.dto.RepositorySearchRequestDTO;
+import com.assoni.gateway.repositories.logic.api.GitHubRateLimitException;
+import com.assoni.gateway.repositories.logic.concurrency.RepositoryOverloadException;
+import com.assoni.gateway.repositories.service.RepositoryBatchService;
 import com.assoni.gateway.repositories.service.RepositoryService;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import lombok.AllArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.time.LocalDate;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,20 +41,151 @@ import java.util.Optional;
 @AllArgsConstructor
 public class RepositoryController {
     private final RepositoryService repositoryService;
+    private final RepositoryBatchService repositoryBatchService;
+    private final RepositoryResponseCache repositoryResponseCache;
+    private final RepositoryResponseCompression repositoryResponseCompression;
 
     /**
      * Retrieve all repositories based on size/createOn and sort them by stars
      *
+     * The response carries a strong ETag of the repositories and of the coding written(see {@link RepositoryETag}), a client sending
+     * back the ETag of any coding in If-None-Match gets 304 without the body being written.
+     *
+     * The serialized body is cached by {@link RepositoryResponseCache}, hot searches are answered with the cached bytes without
+     * mapping or serializing the repositories again, compressed with the best encoding accepted by the client when the body is big
+     * enough(see {@link RepositoryResponseCompression}).
+     *
+     * @param  size           --> size of the list to be fetched default 50
+     * @param  language       --> language to be used in the filter
+     * @param  createdOn      --> time frame for filter
+     * @param  ifNoneMatch    --> ETags the client already holds
+     * @param  acceptEncoding --> encodings accepted by the client
+     *
+     * @return List<RepositoryDTO> as json
+     * */
+    @GetMapping("/repositories")
+    @ApiResponse(responseCode = "200", content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, array = @ArraySchema(schema = @Schema(implementation = RepositoryDTO.class))))
+    public ResponseEntity<byte[]> findAllOrderByStars(@RequestParam(name = "size", defaultValue = RepositorySearchRequestDTO.DEFAULT_SIZE_PARAMETER) final Optional<Integer> size,
+                                                      @RequestParam(name = "language") final Optional<String> language,
+                                                      @RequestParam(name = "createdOn") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) final Optional<LocalDate> createdOn,
+                                                      @RequestHeader(name = HttpHeaders.IF_NONE_MATCH) final Optional<String> ifNoneMatch,
+                                                      @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING) final Optional<String> acceptEncoding) {
+        final RepositorySearchRequestDTO request = RepositorySearchRequestDTO.builder().language(language).createdOn(createdOn).size(size).build();
+        return conditional(repositoryResponseCache.find(request, ifNoneMatch, () -> repositoryService.findAllPublicRepositories(request)), ifNoneMatch, acceptEncoding);
+    }
+
+    /**
+     * Streaming version of {@link #findAllOrderByStars(Optional, Optional, Optional, Optional, Optional)} selected by Accept: application/x-ndjson,
+     * every repository is written as one json line and flushed as soon as it is mapped from the provider, it has no ETag as the
+     * repositories are written before the whole list is known.
+     *
      * @param  size      --> size of the list to be fetched default 50
      * @param  language  --> language to be used in the filter
      * @param  createdOn --> time frame for filter
      *
-     * @return List<RepositoryDTO>
+     * @return Flux<RepositoryDTO>
      * */
-    @GetMapping("/repositories")
-    public List<RepositoryDTO> findAllOrderByStars(@RequestParam(name = "size", defaultValue = "50") final Optional<Integer> size,
-                                                   @RequestParam(name = "language") final Optional<String> language,
-                                                   @RequestParam(name = "createdOn") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) final Optional<LocalDate> createdOn) {
-        return repositoryService.findAllPublicRepositories(RepositorySearchRequestDTO.builder().language(language).createdOn(createdOn).size(size).build());
+    @GetMapping(value = "/repositories", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<RepositoryDTO> streamAllOrderByStars(@RequestParam(name = "size", defaultValue = RepositorySearchRequestDTO.DEFAULT_SIZE_PARAMETER) final Optional<Integer> size,
+                                                     @RequestParam(name = "language") final Optional<String> language,
+                                                     @RequestParam(name = "createdOn") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) final Optional<LocalDate> createdOn) {
+        return repositoryService.streamPublicRepositories(RepositorySearchRequestDTO.builder().language(language).createdOn(createdOn).size(size).build());
+    }
+
+    /**
+     * Non-blocking version of {@link #findAllOrderByStars(Optional, Optional, Optional, Optional, Optional)}, the request thread is released
+     * while the provider answers and the response is written once the mono completes, cached responses are written at once.
+     *
+     * @param  size           --> size of the list to be fetched default 50
+     * @param  language       --> language to be used in the filter
+     * @param  createdOn      --> time frame for filter
+     * @param  ifNoneMatch    --> ETags the client already holds
+     * @param  acceptEncoding --> encodings accepted by the client
+     *
+     * @return Mono<List<RepositoryDTO>> as json
+     * */
+    @GetMapping("/repositories/reactive")
+    @ApiResponse(responseCode = "200", content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, array = @ArraySchema(schema = @Schema(implementation = RepositoryDTO.class))))
+    public Mono<ResponseEntity<byte[]>> findAllOrderByStarsReactive(@RequestParam(name = "size", defaultValue = RepositorySearchRequestDTO.DEFAULT_SIZE_PARAMETER) final Optional<Integer> size,
+                                                                    @RequestParam(name = "language") final Optional<String> language,
+                                                                    @RequestParam(name = "createdOn") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) final Optional<LocalDate> createdOn,
+                                                                    @RequestHeader(name = HttpHeaders.IF_NONE_MATCH) final Optional<String> ifNoneMatch,
+                                                                    @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING) final Optional<String> acceptEncoding) {
+        final RepositorySearchRequestDTO request = RepositorySearchRequestDTO.builder().language(language).createdOn(createdOn).size(size).build();
+        return repositoryResponseCache.findReactive(request, ifNoneMatch, () -> repositoryService.findAllPublicRepositoriesReactive(request))
+                                      .map(response -> conditional(response, ifNoneMatch, acceptEncoding));
+    }
+
+    /**
+     * Resolves many searches in one round trip, identical searches are resolved once(see {@link RepositoryBatchService}).
+     *
+     * @param  searches --> searches of the batch, a search without size uses 50
+     *
+     * @return Mono<List<RepositoryBatchResultDTO>> one result per search, in the order of the batch
+     * */
+    @PostMapping("/repositories:batch")
+    public Mono<List<RepositoryBatchResultDTO>> findAllOrderByStarsBatch(@RequestBody final List<RepositorySearchRequestDTO> searches) {
+        return repositoryBatchService.findAllPublicRepositories(searches).collectSortedList(Comparator.comparingInt(RepositoryBatchResultDTO::getIndex));
+    }
+
+    /**
+     * Streaming version of {@link #findAllOrderByStarsBatch(List)} selected by Accept: application/x-ndjson, every result is written
+     * as one json line as soon as its search completes, so cached searches are not held back by the ones fetched from github.
+     *
+     * @param  searches --> searches of the batch, a search without size uses 50
+     *
+     * @return Flux<RepositoryBatchResultDTO> one result per search, in the order they complete
+     * */
+    @PostMapping(value = "/repositories:batch", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<RepositoryBatchResultDTO> streamAllOrderByStarsBatch(@RequestBody final List<RepositorySearchRequestDTO> searches) {
+        return repositoryBatchService.findAllPublicRepositories(searches);
+    }
+
+    /**
+     * Searches shed by the concurrency limiter without a last known good response, see {@link RepositoryOverloadException}
+     *
+     * @return 503 with Retry-After in seconds
+     * */
+    @ExceptionHandler(RepositoryOverloadException.class)
+    public ResponseEntity<Void> overloaded(final RepositoryOverloadException overload) {
+        return serviceUnavailable(overload.getRetryAfter());
+    }
+
+    /**
+     * Searches shed by the github rate limit governor without a last known good response, see {@link GitHubRateLimitException}
+     *
+     * @return 503 with Retry-After in seconds
+     * */
+    @ExceptionHandler(GitHubRateLimitException.class)
+    public ResponseEntity<Void> rateLimited(final GitHubRateLimitException rateLimit) {
+        return serviceUnavailable(rateLimit.getRetryAfter());
+    }
+
+    private ResponseEntity<Void> serviceUnavailable(final Duration retryAfter) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                             .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, (long) Math.ceil(retryAfter.toMillis() / 1000.0))))
+                             .build();
+    }
+
+    private ResponseEntity<byte[]> conditional(final SerializedResponse response, final Optional<String> ifNoneMatch, final Optional<String> acceptEncoding) {
+        final Optional<Coding> coding = repositoryResponseCompression.negotiate(acceptEncoding, response.variants());
+        final String etag = RepositoryETag.of(response.etag(), coding);
+
+        if(RepositoryETag.matches(ifNoneMatch, response.etag())) {
+            final ResponseEntity.BodyBuilder notModified = ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag);
+            if(!response.variants().isEmpty()) {
+                notModified.varyBy(HttpHeaders.ACCEPT_ENCODING);
+            }
+            return notModified.build();
+        }
+
+        final ResponseEntity.BodyBuilder builder = ResponseEntity.ok().eTag(etag).contentType(MediaType.APPLICATION_JSON);
+        if(response.variants().isEmpty()) {
+            return builder.body(response.json());
+        }
+
+        builder.varyBy(HttpHeaders.ACCEPT_ENCODING);
+        return coding.isPresent() ? builder.header(HttpHeaders.CONTENT_ENCODING, coding.get().getToken()).body(response.variants().get(coding.get()))
+                                  : builder.body(response.json());
     }
 }
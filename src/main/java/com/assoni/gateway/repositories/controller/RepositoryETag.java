@@ -0,0 +1,93 @@
+package com.assoni.gateway.repositories.controller;
+
+import com.assoni.gateway.repositories.controller.RepositoryResponseCompression.Coding;
+import com.assoni.gateway.repositories.dto.RepositoryDTO;
+
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Strong ETag of a list of repositories computed from the fields of the dtos instead of the serialized body, so a client revalidating
+ * an unchanged search is answered with 304 before any json is written.
+ *
+ * The json of a list of dtos is deterministic, equal fields mean an identical body, which is what a strong ETag promises. Each
+ * compressed variant is a different body, so it carries the ETag of the repositories suffixed by its coding("<hash>-gzip").
+ * */
+public final class RepositoryETag {
+
+    private RepositoryETag() {
+    }
+
+    /**
+     * @return quoted ETag of the repositories
+     * */
+    public static String of(final List<RepositoryDTO> repositories) {
+        long hash = mix(0x9E3779B97F4A7C15L, repositories.size());
+        for(RepositoryDTO repository : repositories) {
+            hash = mix(hash, Objects.hashCode(repository.getName()));
+            hash = mix(hash, Objects.hashCode(repository.getLanguage()));
+            hash = mix(hash, Objects.hashCode(repository.getDescription()));
+            hash = mix(hash, Objects.hashCode(repository.getUrl()));
+            hash = mix(hash, Objects.hashCode(repository.getOwner()));
+            hash = mix(hash, repository.getCreatedAt() == null ? 0 : repository.getCreatedAt().toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + repository.getCreatedAt().getNano());
+            hash = mix(hash, repository.getStars() == null ? Long.MIN_VALUE : repository.getStars());
+            hash = mix(hash, repository.getStale() == null ? 0 : repository.getStale() ? 1 : 2);
+        }
+
+        return "\"" + Long.toHexString(hash) + "\"";
+    }
+
+    /**
+     * @param etag   --> ETag of the repositories, see {@link #of(List)}
+     * @param coding --> coding of the body written, empty when it goes uncompressed
+     *
+     * @return quoted ETag of the variant of the response
+     * */
+    public static String of(final String etag, final Optional<Coding> coding) {
+        return coding.map(value -> etag.substring(0, etag.length() - 1) + "-" + value.getToken() + "\"").orElse(etag);
+    }
+
+    /**
+     * Weak comparison of If-None-Match(https://www.rfc-editor.org/rfc/rfc9110#name-if-none-match), a list of ETags or *.
+     *
+     * @param ifNoneMatch --> value of the If-None-Match header
+     * @param etag        --> current ETag of the repositories, see {@link #of(List)}
+     *
+     * @return true when the client already holds the current repositories, whatever coding it received them with
+     * */
+    public static boolean matches(final Optional<String> ifNoneMatch, final String etag) {
+        if(ifNoneMatch.isEmpty()) {
+            return false;
+        }
+
+        for(String candidate : ifNoneMatch.get().split(",")) {
+            final String trimmed = candidate.trim();
+            if(trimmed.equals("*") || isVariant(trimmed.startsWith("W/") ? trimmed.substring(2) : trimmed, etag)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static boolean isVariant(final String candidate, final String etag) {
+        if(candidate.equals(etag)) {
+            return true;
+        }
+
+        for(Coding coding : Coding.values()) {
+            if(candidate.equals(of(etag, Optional.of(coding)))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long mix(final long hash, final long value) {
+        long mixed = (hash ^ value) * 0xBF58476D1CE4E5B9L;
+        mixed = (mixed ^ (mixed >>> 27)) * 0x94D049BB133111EBL;
+        return mixed ^ (mixed >>> 31);
+    }
+}
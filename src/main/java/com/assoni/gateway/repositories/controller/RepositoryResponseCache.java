@@ -0,0 +1,182 @@
+package com.assoni.gateway.repositories.controller;
+
+import com.assoni.gateway.repositories.controller.RepositoryResponseCompression.Coding;
+import com.assoni.gateway.repositories.dto.RepositoryDTO;
+import com.assoni.gateway.repositories.dto.RepositorySearchRequestDTO;
+import com.assoni.gateway.repositories.logic.model.RepositorySearchKey;
+import com.assoni.gateway.repositories.logic.prewarm.RepositorySearchPopularity;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Cache of the final body of GET /v1/repositories, a hit is written to the socket as is without mapping the repositories to dtos,
+ * computing the ETag or serializing the json again.
+ *
+ * Responses are keyed by the normalized parameters of the search(language lower case, size defaulted) and bounded by their bytes
+ * (cache.repositories.responses.spec, maximumWeight in bytes), expireAfterWrite should not be longer than the refreshAfterWrite of
+ * repositories_cache, so a response is at most as stale as the search it was made from.
+ *
+ * Cached responses keep a compressed variant per encoding(see {@link RepositoryResponseCompression}) next to the json, responses
+ * of the fallback(stale repositories) and empty ones are neither cached nor compressed, they could hide the provider coming back.
+ *
+ * On a miss the ETag is computed from the dtos first, a client already holding the repositories(If-None-Match) gets a response
+ * without body and nothing is serialized, compressed or cached, the json is only written for the responses being sent or cached.
+ *
+ * Hits are counted by {@link RepositorySearchPopularity} as the provider is not called for them.
+ * */
+@Component
+public class RepositoryResponseCache {
+    public static final String REPOSITORIES_RESPONSES = "repositories_responses";
+
+    /**
+     * Normalized parameters of a search.
+     * */
+    public record ResponseKey(Optional<LocalDate> createdOn, Optional<String> language, int size) {
+    }
+
+    /**
+     * Serialized response of a search, the arrays are never modified once the response is built.
+     *
+     * @param etag     --> strong ETag of the repositories, see {@link RepositoryETag}
+     * @param json     --> body, empty when the client already holds the repositories
+     * @param variants --> body compressed per encoding, empty when the response is not compressed
+     * */
+    public record SerializedResponse(String etag, byte[] json, Map<Coding, byte[]> variants) {
+        private static final byte[] NOT_MODIFIED = new byte[0];
+
+        /**
+         * @param etag    --> ETag of the repositories
+         * @param codings --> codings the response would be compressed with, so the 304 carries the ETag and Vary of the variant
+         *
+         * @return response of repositories the client already holds, it is answered with 304 so neither the json nor the variants
+         * have a body
+         * */
+        public static SerializedResponse notModified(final String etag, final List<Coding> codings) {
+            final Map<Coding, byte[]> variants = new EnumMap<>(Coding.class);
+            for(Coding coding : codings) {
+                variants.put(coding, NOT_MODIFIED);
+            }
+            return new SerializedResponse(etag, NOT_MODIFIED, variants);
+        }
+
+        public int weight() {
+            int weight = json.length;
+            for(byte[] variant : variants.values()) {
+                weight += variant.length;
+            }
+            return weight;
+        }
+    }
+
+    private final ObjectMapper objectMapper;
+    private final RepositoryResponseCompression responseCompression;
+    private final RepositorySearchPopularity repositorySearchPopularity;
+    private final boolean enabled;
+    private final Cache<ResponseKey, SerializedResponse> responses;
+
+    @Autowired
+    public RepositoryResponseCache(final ObjectMapper objectMapper,
+                                   final RepositoryResponseCompression responseCompression,
+                                   final RepositorySearchPopularity repositorySearchPopularity,
+                                   final MeterRegistry registry,
+                                   @Value("${cache.repositories.responses.enabled}") final Boolean enabled,
+                                   @Value("${cache.repositories.responses.spec}") final String spec) {
+        this.objectMapper = objectMapper;
+        this.responseCompression = responseCompression;
+        this.repositorySearchPopularity = repositorySearchPopularity;
+        this.enabled = enabled;
+        this.responses = Caffeine.from(spec).<ResponseKey, SerializedResponse>weigher((key, response) -> response.weight()).build();
+
+        CaffeineCacheMetrics.monitor(registry, responses, REPOSITORIES_RESPONSES);
+    }
+
+    /**
+     * @param request     --> search being answered
+     * @param ifNoneMatch --> ETags the client already holds
+     * @param search      --> resolves the repositories of the search when the response is not cached
+     *
+     * @return SerializedResponse, without body when the client already holds the repositories(see {@link SerializedResponse#notModified(String, List)})
+     * */
+    public SerializedResponse find(final RepositorySearchRequestDTO request, final Optional<String> ifNoneMatch, final Supplier<List<RepositoryDTO>> search) {
+        final ResponseKey key = keyOf(request);
+        final SerializedResponse cached = lookup(key, request);
+
+        return cached != null ? cached : store(key, ifNoneMatch, search.get());
+    }
+
+    /**
+     * Reactive version of {@link #find(RepositorySearchRequestDTO, Optional, Supplier)}
+     * */
+    public Mono<SerializedResponse> findReactive(final RepositorySearchRequestDTO request, final Optional<String> ifNoneMatch, final Supplier<Mono<List<RepositoryDTO>>> search) {
+        return Mono.defer(() -> {
+            final ResponseKey key = keyOf(request);
+            final SerializedResponse cached = lookup(key, request);
+
+            return cached != null ? Mono.just(cached) : search.get().map(repositories -> store(key, ifNoneMatch, repositories));
+        });
+    }
+
+    /**
+     * @return key of the search, searches only differing by the case of the language or by sending the default size share it
+     * */
+    public static ResponseKey keyOf(final RepositorySearchRequestDTO request) {
+        return new ResponseKey(request.getCreatedOn(), request.getLanguage().map(language -> language.trim().toLowerCase(Locale.ROOT)), request.getSize().orElse(RepositorySearchRequestDTO.DEFAULT_SIZE));
+    }
+
+    private SerializedResponse lookup(final ResponseKey key, final RepositorySearchRequestDTO request) {
+        if(!enabled) {
+            return null;
+        }
+
+        final SerializedResponse cached = responses.getIfPresent(key);
+        if(cached != null) {
+            repositorySearchPopularity.record(new RepositorySearchKey(request.getCreatedOn(), request.getLanguage()), key.size());
+        }
+        return cached;
+    }
+
+    private SerializedResponse store(final ResponseKey key, final Optional<String> ifNoneMatch, final List<RepositoryDTO> repositories) {
+        final String etag = RepositoryETag.of(repositories);
+        if(RepositoryETag.matches(ifNoneMatch, etag)) {
+            return SerializedResponse.notModified(etag, isCacheable(repositories) ? responseCompression.getCodings() : List.of());
+        }
+
+        final byte[] json = serialize(repositories);
+        if(!isCacheable(repositories)) {
+            return new SerializedResponse(etag, json, Collections.emptyMap());
+        }
+
+        final SerializedResponse response = new SerializedResponse(etag, json, responseCompression.compress(json));
+        responses.put(key, response);
+        return response;
+    }
+
+    private boolean isCacheable(final List<RepositoryDTO> repositories) {
+        return enabled && !repositories.isEmpty() && repositories.stream().noneMatch(repository -> Boolean.TRUE.equals(repository.getStale()));
+    }
+
+    private byte[] serialize(final List<RepositoryDTO> repositories) {
+        try {
+            return objectMapper.writeValueAsBytes(repositories);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Fail while serializing the repositories", e);
+        }
+    }
+}
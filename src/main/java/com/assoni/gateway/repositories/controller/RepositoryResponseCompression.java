@@ -0,0 +1,243 @@
+package com.assoni.gateway.repositories.controller;
+
+import com.aayushatharva.brotli4j.Brotli4jLoader;
+import com.aayushatharva.brotli4j.encoder.Encoder;
+import com.github.luben.zstd.Zstd;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compressed variants of the cached responses(see {@link RepositoryResponseCache}), each body is compressed once per encoding when
+ * it is cached and the variant accepted by the client is written on every hit, so compression costs no cpu per request.
+ *
+ * Encodings are listed by compression.repositories.encodings in the order the server prefers them, gzip is always available while
+ * br(brotli4j) and zstd(zstd-jni) are only used when their native library loads on the platform. Bodies smaller than minSize are
+ * not compressed, the headers of a compressed response would be most of what it saves.
+ *
+ * The encoding of a response is negotiated with Accept-Encoding(https://www.rfc-editor.org/rfc/rfc9110#name-accept-encoding), the
+ * highest qvalue wins and ties go to the server preference.
+ *
+ * Metrics:
+ *  repository_response_encoding_metric{encoding=br|zstd|gzip|identity} --> bodies written per encoding
+ * */
+@Slf4j
+@Component
+public class RepositoryResponseCompression {
+
+    public enum Coding {
+        BR("br"),
+        ZSTD("zstd"),
+        GZIP("gzip");
+
+        private final String token;
+
+        Coding(final String token) {
+            this.token = token;
+        }
+
+        /**
+         * @return value of Accept-Encoding/Content-Encoding for the coding
+         * */
+        public String getToken() {
+            return token;
+        }
+
+        public static Optional<Coding> fromToken(final String token) {
+            for(Coding coding : values()) {
+                if(coding.token.equalsIgnoreCase(token)) {
+                    return Optional.of(coding);
+                }
+            }
+            return Optional.empty();
+        }
+    }
+
+    private final List<Coding> codings;
+    private final int minSize;
+    private final int gzipLevel;
+    private final int brotliQuality;
+    private final int zstdLevel;
+
+    private final Map<Coding, Counter> encodingCounters = new EnumMap<>(Coding.class);
+    private final Counter identityCounter;
+
+    @Autowired
+    public RepositoryResponseCompression(final MeterRegistry registry,
+                                         @Value("${compression.repositories.encodings}") final List<String> encodings,
+                                         @Value("${compression.repositories.minSize}") final Integer minSize,
+                                         @Value("${compression.repositories.gzipLevel}") final Integer gzipLevel,
+                                         @Value("${compression.repositories.brotliQuality}") final Integer brotliQuality,
+                                         @Value("${compression.repositories.zstdLevel}") final Integer zstdLevel) {
+        this.minSize = minSize;
+        this.gzipLevel = gzipLevel;
+        this.brotliQuality = brotliQuality;
+        this.zstdLevel = zstdLevel;
+
+        final List<Coding> available = new ArrayList<>();
+        for(String encoding : encodings) {
+            Coding.fromToken(encoding.trim())
+                  .filter(coding -> !available.contains(coding))
+                  .filter(RepositoryResponseCompression::isAvailable)
+                  .ifPresent(available::add);
+        }
+        this.codings = Collections.unmodifiableList(available);
+        log.info("Cached responses are compressed with {}", codings);
+
+        for(Coding coding : Coding.values()) {
+            encodingCounters.put(coding, Counter.builder("repository_response_encoding_metric").tag("encoding", coding.getToken()).register(registry));
+        }
+        this.identityCounter = Counter.builder("repository_response_encoding_metric").tag("encoding", "identity").register(registry);
+    }
+
+    /**
+     * @param body --> serialized response
+     *
+     * @return one variant per available encoding, empty when the body is below minSize
+     * */
+    public Map<Coding, byte[]> compress(final byte[] body) {
+        if(codings.isEmpty() || body.length < minSize) {
+            return Collections.emptyMap();
+        }
+
+        final Map<Coding, byte[]> variants = new EnumMap<>(Coding.class);
+        for(Coding coding : codings) {
+            variants.put(coding, compress(coding, body));
+        }
+        return Collections.unmodifiableMap(variants);
+    }
+
+    /**
+     * @return available encodings in the order the server prefers them
+     * */
+    public List<Coding> getCodings() {
+        return codings;
+    }
+
+    /**
+     * @param acceptEncoding --> value of the Accept-Encoding header
+     * @param variants       --> variants of the response
+     *
+     * @return coding of the variant to be written, empty when the body goes uncompressed
+     * */
+    public Optional<Coding> negotiate(final Optional<String> acceptEncoding, final Map<Coding, byte[]> variants) {
+        Optional<Coding> selected = Optional.empty();
+        if(acceptEncoding.isPresent() && !variants.isEmpty()) {
+            final Map<Coding, Double> qualities = qualities(acceptEncoding.get());
+
+            double best = 0;
+            for(Coding coding : codings) {
+                final double quality = qualities.getOrDefault(coding, 0d);
+                if(variants.containsKey(coding) && quality > best) {
+                    best = quality;
+                    selected = Optional.of(coding);
+                }
+            }
+        }
+
+        selected.map(encodingCounters::get).orElse(identityCounter).increment();
+        return selected;
+    }
+
+    /**
+     * @return qvalue of every coding, codings not listed take the qvalue of * when present
+     * */
+    private static Map<Coding, Double> qualities(final String acceptEncoding) {
+        final Map<Coding, Double> qualities = new EnumMap<>(Coding.class);
+        Double wildcard = null;
+
+        for(String candidate : acceptEncoding.split(",")) {
+            final String[] parts = candidate.split(";");
+            final String token = parts[0].trim();
+            final double quality = quality(parts);
+
+            if(token.equals("*")) {
+                wildcard = quality;
+            } else {
+                Coding.fromToken(token).ifPresent(coding -> qualities.put(coding, quality));
+            }
+        }
+
+        if(wildcard != null) {
+            for(Coding coding : Coding.values()) {
+                qualities.putIfAbsent(coding, wildcard);
+            }
+        }
+        return qualities;
+    }
+
+    private static double quality(final String[] parts) {
+        for(int index = 1; index < parts.length; index++) {
+            final String parameter = parts[index].trim();
+            if(parameter.startsWith("q=") || parameter.startsWith("Q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    private byte[] compress(final Coding coding, final byte[] body) {
+        return switch (coding) {
+            case BR -> brotli(body);
+            case ZSTD -> Zstd.compress(body, zstdLevel);
+            case GZIP -> gzip(body);
+        };
+    }
+
+    private byte[] brotli(final byte[] body) {
+        try {
+            return Encoder.compress(body, new Encoder.Parameters().setQuality(brotliQuality));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private byte[] gzip(final byte[] body) {
+        final ByteArrayOutputStream compressed = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream output = new GZIPOutputStream(compressed) {
+            {
+                def.setLevel(gzipLevel);
+            }
+        }) {
+            output.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return compressed.toByteArray();
+    }
+
+    /**
+     * br and zstd need a native library, they are skipped on platforms without one.
+     * */
+    private static boolean isAvailable(final Coding coding) {
+        try {
+            if(coding == Coding.BR) {
+                Brotli4jLoader.ensureAvailability();
+            } else if(coding == Coding.ZSTD) {
+                Zstd.compress(new byte[1], Zstd.defaultCompressionLevel());
+            }
+            return true;
+        } catch (LinkageError | RuntimeException e) {
+            log.warn("{} is not available on this platform, cached responses are not compressed with it", coding.getToken(), e);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.assoni.gateway.repositories.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Data;
+import lombok.extern.jackson.Jacksonized;
+
+import java.util.List;
+
+@Data
+@Builder
+@Jacksonized
+public class RepositoryBatchResultDTO {
+    public static final String OVERLOADED = "overloaded";
+    public static final String UNAVAILABLE = "unavailable";
+
+    /**
+     * Position of the search in the batch request
+     * */
+    private int index;
+    private RepositorySearchRequestDTO search;
+    private List<RepositoryDTO> repositories;
+
+    /**
+     * Only present when the search failed and even its fallback could not answer, the other searches of the batch are not affected.
+     * It is a fixed code, {@link #OVERLOADED} when the search was shed(retry later) and {@link #UNAVAILABLE} for any other failure,
+     * the cause is only logged.
+     * */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String error;
+}
@@ -1,12 +1,15 @@
 package com.assoni.gateway.repositories.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Builder;
 import lombok.Data;
+import lombok.extern.jackson.Jacksonized;
 
 import java.time.LocalDateTime;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
+@Jacksonized
 public class RepositoryDTO {
     private String name;
     private String language;
@@ -16,4 +19,10 @@ public class RepositoryDTO {
 
     private LocalDateTime createdAt;
     private Integer stars;
+
+    /**
+     * Only present when the provider is down and the repository comes from the last known good response of the search
+     * */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean stale;
 }
@@ -3,6 +3,7 @@ package com.assoni.gateway.repositories.dto;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.Setter;
+import lombok.extern.jackson.Jacksonized;
 
 import java.time.LocalDate;
 import java.util.Optional;
@@ -10,8 +11,23 @@ import java.util.Optional;
 @Builder
 @Getter
 @Setter
+@Jacksonized
 public class RepositorySearchRequestDTO {
-    private Optional<String> language;
-    private Optional<LocalDate> createdOn;
-    private Optional<Integer> size;
+
+    /**
+     * size of GET /v1/repositories when the parameter is not sent, shared by everything that completes a search without size
+     * */
+    public static final int DEFAULT_SIZE = 50;
+
+    /**
+     * {@link #DEFAULT_SIZE} as the default value of the request parameter
+     * */
+    public static final String DEFAULT_SIZE_PARAMETER = "" + DEFAULT_SIZE;
+
+    @Builder.Default
+    private Optional<String> language = Optional.empty();
+    @Builder.Default
+    private Optional<LocalDate> createdOn = Optional.empty();
+    @Builder.Default
+    private Optional<Integer> size = Optional.empty();
 }
@@ -0,0 +1,142 @@
+package com.assoni.gateway.repositories.logic;
+
+import com.assoni.gateway.repositories.logic.model.RepositoryModel;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Provider used by the service layer, it combines every other {@link RepositoryProvider} of the context according to provider.mode,
+ * providers are sorted by their {@link Order}(the lowest one is the primary, then the hedges in order), so every provider must
+ * declare one, without it the position would depend on the bean registration order:
+ *
+ *  primary  --> only the primary provider is queried, the other ones are ignored
+ *  parallel --> every provider is queried at the same time, providers failing or slower than provider.parallelTimeout are left out
+ *               and the remaining results are merged
+ *  hedged   --> the primary provider is queried and each next provider is queried provider.hedgeDelay later if nobody answered yet,
+ *               the first successful answer wins and the slower calls are cancelled
+ *
+ * Merged results are deduplicated by owner/name keeping the highest amount of stars and sorted by stars, with a single provider
+ * every mode behaves as primary.
+ * */
+@Slf4j
+@Primary
+@Component
+public class CompositeRepositoryProvider implements RepositoryProvider {
+
+    public enum Mode {
+        PRIMARY,
+        PARALLEL,
+        HEDGED
+    }
+
+    private final List<RepositoryProvider> providers;
+    private final Mode mode;
+    private final Duration hedgeDelay;
+    private final Duration parallelTimeout;
+
+    @Autowired
+    public CompositeRepositoryProvider(final List<RepositoryProvider> providers,
+                                       @Value("${provider.mode}") final String mode,
+                                       @Value("${provider.hedgeDelay}") final Long hedgeDelay,
+                                       @Value("${provider.parallelTimeout}") final Long parallelTimeout) {
+        this(providers, Mode.valueOf(mode.toUpperCase()), Duration.ofMillis(hedgeDelay), Duration.ofMillis(parallelTimeout));
+    }
+
+    public CompositeRepositoryProvider(final List<RepositoryProvider> providers, final Mode mode, final Duration hedgeDelay, final Duration parallelTimeout) {
+        this.providers = List.copyOf(providers);
+        this.mode = providers.size() > 1 ? mode : Mode.PRIMARY;
+        this.hedgeDelay = hedgeDelay;
+        this.parallelTimeout = parallelTimeout;
+    }
+
+    @Override
+    public List<RepositoryModel> findAllPublicRepositories(final Optional<LocalDate> createdOn, final Optional<String> language, final Optional<Integer> size) {
+        if(mode == Mode.PRIMARY) {
+            return primary().findAllPublicRepositories(createdOn, language, size);
+        }
+
+        return findAllPublicRepositoriesReactive(createdOn, language, size).block();
+    }
+
+    @Override
+    public Mono<List<RepositoryModel>> findAllPublicRepositoriesReactive(final Optional<LocalDate> createdOn, final Optional<String> language, final Optional<Integer> size) {
+        return switch (mode) {
+            case PRIMARY -> primary().findAllPublicRepositoriesReactive(createdOn, language, size);
+            case HEDGED -> Mono.firstWithValue(hedged(provider -> provider.findAllPublicRepositoriesReactive(createdOn, language, size), Mono::delaySubscription));
+            case PARALLEL -> Flux.fromIterable(providers)
+                                 .flatMap(provider -> provider.findAllPublicRepositoriesReactive(createdOn, language, size)
+                                                              .timeout(parallelTimeout)
+                                                              .onErrorResume(failure -> leaveOut(provider, failure)))
+                                 .collectList()
+                                 .flatMap(results -> results.isEmpty() ? Mono.error(new IllegalStateException("Every repository provider failed")) : Mono.just(merge(results, size)));
+        };
+    }
+
+    @Override
+    public Flux<RepositoryModel> streamPublicRepositories(final Optional<LocalDate> createdOn, final Optional<String> language, final Optional<Integer> size) {
+        return switch (mode) {
+            case PRIMARY -> primary().streamPublicRepositories(createdOn, language, size);
+            case HEDGED -> Flux.firstWithValue(hedged(provider -> provider.streamPublicRepositories(createdOn, language, size), Flux::delaySubscription));
+            case PARALLEL -> findAllPublicRepositoriesReactive(createdOn, language, size).flatMapIterable(repositories -> repositories);
+        };
+    }
+
+    private RepositoryProvider primary() {
+        return providers.get(0);
+    }
+
+    private <P> List<P> hedged(final Function<RepositoryProvider, P> call, final Delay<P> delay) {
+        return IntStream.range(0, providers.size())
+                        .mapToObj(index -> index == 0 ? call.apply(providers.get(index)) : delay.apply(call.apply(providers.get(index)), hedgeDelay.multipliedBy(index)))
+                        .collect(Collectors.toList());
+    }
+
+    private <T> Mono<T> leaveOut(final RepositoryProvider provider, final Throwable failure) {
+        log.warn("Leaving {} out of the merged repositories", provider.getClass().getSimpleName(), failure);
+        return Mono.empty();
+    }
+
+    /**
+     * Deduplicates repositories known by more than one provider and sorts them by stars.
+     * */
+    static List<RepositoryModel> merge(final List<List<RepositoryModel>> results, final Optional<Integer> size) {
+        final Map<String, RepositoryModel> unique = new LinkedHashMap<>();
+        results.forEach(repositories -> repositories.forEach(repository -> unique.merge(identityOf(repository), repository, (current, other) -> starsOf(other) > starsOf(current) ? other : current)));
+
+        final List<RepositoryModel> merged = new ArrayList<>(unique.values());
+        merged.sort(Comparator.comparingInt(CompositeRepositoryProvider::starsOf).reversed());
+
+        return size.filter(limit -> limit < merged.size()).map(limit -> merged.subList(0, limit)).orElse(merged);
+    }
+
+    private static String identityOf(final RepositoryModel repository) {
+        return (repository.getOwner() + "/" + repository.getName()).toLowerCase();
+    }
+
+    private static int starsOf(final RepositoryModel repository) {
+        return repository.getStars() == null ? 0 : repository.getStars();
+    }
+
+    @FunctionalInterface
+    private interface Delay<P> {
+        P apply(P publisher, Duration delay);
+    }
+}
@@ -0,0 +1,115 @@
+package com.assoni.gateway.repositories.logic;
+
+import com.assoni.gateway.repositories.logic.api.GitHubClient;
+import com.assoni.gateway.repositories.logic.api.GitHubNotModifiedException;
+import com.assoni.gateway.repositories.logic.api.GitHubRateLimitGovernor;
+import com.assoni.gateway.repositories.logic.model.RepositoryModel;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Github serves at most client.github.maxPageSize repositories per page(and only the first client.github.maxResults of a search),
+ * this class splits bigger sizes into pages fetched in parallel with bounded concurrency and emits them in star order as they arrive.
+ *
+ * Each page is cached on its own(repositories_page_cache), so overlapping sizes of the same search reuse the pages already fetched,
+ * concurrent requests of the same page share the in-flight call. Refreshes({@link GitHubClient#revalidate}) and warm ups
+ * ({@link GitHubRateLimitGovernor#background}) bypass the cached pages, they would otherwise be answered with pages as old as the
+ * page cache ttl instead of revalidating them, the pages they fetch replace the cached ones.
+ * */
+@Component
+public class GitHubRepositoryPager {
+    public static final String REPOSITORIES_PAGE_CACHE = "repositories_page_cache";
+
+    record PageKey(Optional<LocalDate> createdOn, Optional<String> language, int page, int perPage) {
+    }
+
+    private final GitHubClient gitHubClient;
+    private final int maxPageSize;
+    private final int maxResults;
+    private final int pageConcurrency;
+    private final AsyncCache<PageKey, List<RepositoryModel>> pageCache;
+
+    public GitHubRepositoryPager(final GitHubClient gitHubClient,
+                                 final MeterRegistry registry,
+                                 @Value("${client.github.maxPageSize}") final Integer maxPageSize,
+                                 @Value("${client.github.maxResults}") final Integer maxResults,
+                                 @Value("${client.github.pageConcurrency}") final Integer pageConcurrency,
+                                 @Value("${cache.repositories.pages.spec}") final String pageCacheSpec) {
+        this.gitHubClient = gitHubClient;
+        this.maxPageSize = maxPageSize;
+        this.maxResults = maxResults;
+        this.pageConcurrency = pageConcurrency;
+        this.pageCache = Caffeine.from(pageCacheSpec).buildAsync();
+
+        CaffeineCacheMetrics.monitor(registry, pageCache.synchronous(), REPOSITORIES_PAGE_CACHE);
+    }
+
+    /**
+     * Streams the top repositories of the search, sizes that fit in one page are fetched with a single call.
+     *
+     * @param createdOn --> date to filter starting the search from
+     * @param language  --> language such as JAVA/kotlin and so on
+     * @param size      --> amount of elements that you would like to see as return
+     *
+     * @return Flux<RepositoryModel> sorted by stars
+     * */
+    public Flux<RepositoryModel> streamPublicRepositories(final Optional<LocalDate> createdOn, final Optional<String> language, final Optional<Integer> size) {
+        if(size.isEmpty() || size.get() <= maxPageSize) {
+            return gitHubClient.streamPublicRepositories(createdOn, language, size);
+        }
+
+        final int requested = capped(size.get());
+        final int pages = (requested + maxPageSize - 1) / maxPageSize;
+
+        return Flux.range(1, pages)
+                   .flatMapSequential(page -> fetchPage(new PageKey(createdOn, language, page, maxPageSize)).flatMapIterable(repositories -> repositories), pageConcurrency)
+                   .take(requested);
+    }
+
+    /**
+     * @return size github really serves for a search asked with size, it never answers more than client.github.maxResults
+     * */
+    public int capped(final int size) {
+        return Math.min(size, maxResults);
+    }
+
+    /**
+     * The page is fetched with the reactor context of the caller who missed it(priority of the rate limit, revalidation), toFuture
+     * would otherwise subscribe it with an empty context and refreshes/warm ups would be paced as interactive calls.
+     * */
+    private Mono<List<RepositoryModel>> fetchPage(final PageKey key) {
+        return Mono.deferContextual(context -> {
+            if(GitHubClient.isRevalidation(context) || GitHubRateLimitGovernor.isBackground(context)) {
+                return fetchFreshPage(key);
+            }
+
+            return Mono.fromCompletionStage(pageCache.get(key, (page, executor) -> fetch(page).contextWrite(context).toFuture()));
+        });
+    }
+
+    /**
+     * A page github answers with 304 is the one cached, it was cached by the call that stored its validators. When the page was already
+     * evicted the 304 is propagated and the whole search is kept as it is.
+     * */
+    private Mono<List<RepositoryModel>> fetchFreshPage(final PageKey key) {
+        return fetch(key).doOnNext(page -> pageCache.put(key, CompletableFuture.completedFuture(page)))
+                         .onErrorResume(GitHubNotModifiedException.class, notModified -> Optional.ofNullable(pageCache.getIfPresent(key))
+                                                                                                 .map(Mono::fromCompletionStage)
+                                                                                                 .orElseGet(() -> Mono.error(notModified)));
+    }
+
+    private Mono<List<RepositoryModel>> fetch(final PageKey key) {
+        return gitHubClient.streamPublicRepositories(key.createdOn(), key.language(), key.page(), key.perPage()).collectList();
+    }
+}
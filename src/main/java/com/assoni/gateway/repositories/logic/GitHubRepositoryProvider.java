@@ -1,39 +1,271 @@
 package com.assoni.gateway.repositories.logic;
 
 import com.assoni.gateway.repositories.logic.api.GitHubClient;
-import com.assoni.gateway.repositories.logic.api.GitHubResponse;
+import com.assoni.gateway.repositories.logic.api.GitHubNotModifiedException;
+import com.assoni.gateway.repositories.logic.cache.TwoTierCache;
+import com.assoni.gateway.repositories.logic.concurrency.AdaptiveConcurrencyLimiter;
+import com.assoni.gateway.repositories.logic.concurrency.RequestCoalescer;
+import com.assoni.gateway.repositories.logic.metrics.RepositoryLatencyMetrics;
+import com.assoni.gateway.repositories.logic.metrics.RepositoryLatencyMetrics.CacheOutcome;
+import com.assoni.gateway.repositories.logic.metrics.RepositoryLatencyMetrics.Stage;
 import com.assoni.gateway.repositories.logic.model.RepositoryModel;
-import io.micrometer.core.annotation.Counted;
+import com.assoni.gateway.repositories.logic.model.RepositorySearchKey;
+import com.assoni.gateway.repositories.logic.model.RepositorySearchResult;
+import com.assoni.gateway.repositories.logic.prewarm.RepositoryPrewarmScheduler;
+import com.assoni.gateway.repositories.logic.prewarm.RepositorySearchPopularity;
 import lombok.AllArgsConstructor;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.time.LocalDate;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentMap;
 
+/**
+ * repositories_cache is keyed only by the filter({@link RepositorySearchKey}) and keeps the largest prefix fetched for it
+ * ({@link RepositorySearchResult}), since github sorts by stars any smaller size of the same filter is answered by slicing that
+ * prefix and only bigger sizes go upstream.
+ *
+ * Searches missing in the cache but contained in an already fetched one, such as a later createdOn of the same language, are
+ * answered by {@link RepositorySearchIndex}.
+ *
+ * Every search is counted by {@link RepositorySearchPopularity} so the most requested ones are kept warm by {@link RepositoryPrewarmScheduler}.
+ *
+ * Concurrent cache misses for the same search share one in-flight call to github, see {@link RequestCoalescer}
+ *
+ * Sizes above what github serves(client.github.maxResults) are capped before anything else, so a result only claims to know the
+ * whole search(see {@link RepositorySearchResult#isComplete()}) when github really answered with less than it was asked for.
+ *
+ * Fetched repositories are added to the columns of the {@link RepositorySearchResult} as they are decoded, so a miss never keeps
+ * the whole search as a list of {@link RepositoryModel} besides the result being built.
+ *
+ * The cache lookup(tagged by its outcome) and the upstream fetch of the misses are timed by {@link RepositoryLatencyMetrics}.
+ *
+ * The in-flight calls to github made for users are bounded by {@link AdaptiveConcurrencyLimiter}, only the leader of coalesced
+ * misses takes a slot and cache/index hits, refreshes and warm ups never pass by it.
+ *
+ * It is the primary provider of {@link CompositeRepositoryProvider}.
+ * */
 @Component
+@Order(GitHubRepositoryProvider.ORDER)
 @AllArgsConstructor
 public class GitHubRepositoryProvider implements RepositoryProvider {
-    private final GitHubClient gitHubClient;
+    public static final String REPOSITORIES_CACHE = "repositories_cache";
+
+    /**
+     * position among the providers combined by {@link CompositeRepositoryProvider}, the lowest one is the primary
+     * */
+    public static final int ORDER = 0;
+
+    /**
+     * amount of repositories github returns when per_page is not sent
+     * */
+    public static final int DEFAULT_SIZE = 30;
+
+    private final GitHubRepositoryPager gitHubRepositoryPager;
+    private final RequestCoalescer requestCoalescer;
+    private final CacheManager cacheManager;
+    private final RepositorySearchIndex repositorySearchIndex;
+    private final RepositorySearchPopularity repositorySearchPopularity;
+    private final RepositoryLatencyMetrics latencyMetrics;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
 
-    @Cacheable(value = "repositories_cache", key = "{#createdOn, #language, #size}")
     @Override
     public List<RepositoryModel> findAllPublicRepositories(final Optional<LocalDate> createdOn, final Optional<String> language, final Optional<Integer> size) {
-        return gitHubClient.findAllPublicRepositories(createdOn, language, size).getItems().stream().map(item -> mapModelBasedOnGitHubResponse(item)).collect(Collectors.toList());
-    }
-
-    private final RepositoryModel mapModelBasedOnGitHubResponse(final GitHubResponse.GitHubRepository response) {
-        return RepositoryModel.builder()
-                              .name(response.getName())
-                              .description(response.getDescription())
-                              .language(response.getLanguage())
-                              .owner(response.getOwner().getLogin())
-                              .stars(response.getStargazers_count())
-                              .url(response.getUrl())
-                              .createdAt(response.getCreated_at())
-                              .build();
+        final RepositorySearchKey key = new RepositorySearchKey(createdOn, language);
+        final int requested = gitHubRepositoryPager.capped(size.orElse(DEFAULT_SIZE));
+        repositorySearchPopularity.record(key, requested);
+
+        final long start = System.nanoTime();
+        final RepositorySearchResult cached = lookup(key);
+        if(cached != null && cached.covers(requested)) {
+            latencyMetrics.recordSince(Stage.CACHE_LOOKUP, CacheOutcome.HIT, language, start);
+            return cached.slice(requested);
+        }
+
+        final Optional<List<RepositoryModel>> indexed = findIndexed(key, requested, start);
+        if(indexed.isPresent()) {
+            return indexed.get();
+        }
+
+        final RepositorySearchResult fetched = latencyMetrics.record(Stage.UPSTREAM, CacheOutcome.MISS, language,
+                                                                     () -> requestCoalescer.execute(List.of(key, requested), () -> concurrencyLimiter.limit(() -> fetchPublicRepositoriesReactive(key, requested).block())));
+        return fetched.slice(requested);
+    }
+
+    /**
+     * Reactive version of {@link #findAllPublicRepositories(Optional, Optional, Optional)}, it shares the same cache entries and
+     * in-flight calls with the blocking version but never holds a thread while github answers.
+     * */
+    @Override
+    public Mono<List<RepositoryModel>> findAllPublicRepositoriesReactive(final Optional<LocalDate> createdOn, final Optional<String> language, final Optional<Integer> size) {
+        final RepositorySearchKey key = new RepositorySearchKey(createdOn, language);
+        final int requested = gitHubRepositoryPager.capped(size.orElse(DEFAULT_SIZE));
+        repositorySearchPopularity.record(key, requested);
+
+        return Mono.defer(() -> {
+            final long start = System.nanoTime();
+            final RepositorySearchResult cached = lookup(key);
+            if(cached != null && cached.covers(requested)) {
+                latencyMetrics.recordSince(Stage.CACHE_LOOKUP, CacheOutcome.HIT, language, start);
+                return Mono.just(cached.slice(requested));
+            }
+
+            final Optional<List<RepositoryModel>> indexed = findIndexed(key, requested, start);
+            if(indexed.isPresent()) {
+                return Mono.just(indexed.get());
+            }
+
+            return latencyMetrics.record(Stage.UPSTREAM, CacheOutcome.MISS, language, requestCoalescer.executeAsync(List.of(key, requested), () -> concurrencyLimiter.limit(fetchPublicRepositoriesReactive(key, requested))))
+                                 .map(fetched -> fetched.slice(requested));
+        });
+    }
+
+    /**
+     * Streaming version of {@link #findAllPublicRepositories(Optional, Optional, Optional)}, on a cache miss every repository is
+     * emitted as soon as github sends it and the whole list is cached once the stream completes.
+     * */
+    @Override
+    public Flux<RepositoryModel> streamPublicRepositories(final Optional<LocalDate> createdOn, final Optional<String> language, final Optional<Integer> size) {
+        final RepositorySearchKey key = new RepositorySearchKey(createdOn, language);
+        final int requested = gitHubRepositoryPager.capped(size.orElse(DEFAULT_SIZE));
+        repositorySearchPopularity.record(key, requested);
+
+        return Flux.defer(() -> {
+            final long start = System.nanoTime();
+            final RepositorySearchResult cached = lookup(key);
+            if(cached != null && cached.covers(requested)) {
+                latencyMetrics.recordSince(Stage.CACHE_LOOKUP, CacheOutcome.HIT, language, start);
+                return Flux.fromIterable(cached.slice(requested));
+            }
+
+            final Optional<List<RepositoryModel>> indexed = findIndexed(key, requested, start);
+            if(indexed.isPresent()) {
+                return Flux.fromIterable(indexed.get());
+            }
+
+            return latencyMetrics.record(Stage.UPSTREAM, CacheOutcome.MISS, language, requestCoalescer.executeStream(List.of(key, requested), () -> {
+                final RepositorySearchResult.Builder streamed = RepositorySearchResult.builder(requested);
+                return concurrencyLimiter.limit(gitHubRepositoryPager.streamPublicRepositories(createdOn, language, Optional.of(requested))
+                                                                     .doOnNext(streamed::add)
+                                                                     .doOnComplete(() -> store(key, streamed.build(requested))));
+            }));
+        });
+    }
+
+    /**
+     * Bypasses the cache and fetches again the prefix cached for the search, used by {@link RepositoryCacheLoader} to refresh
+     * entries in background without holding a thread.
+     *
+     * The search is revalidated with a conditional request(see {@link GitHubClient#revalidate}), when github answers 304 the current
+     * result is returned as is, so rewriting it restarts its ttl without transferring or decoding the body again.
+     *
+     * @param key     --> filter of the search
+     * @param current --> result being refreshed
+     *
+     * @return Mono<RepositorySearchResult>
+     * */
+    public Mono<RepositorySearchResult> refreshPublicRepositories(final RepositorySearchKey key, final RepositorySearchResult current) {
+        return requestCoalescer.executeAsync(List.of(key, current.requestedSize()), () -> fetchPublicRepositories(key, current.requestedSize())
+                                   .contextWrite(GitHubClient::revalidate)
+                                   .onErrorResume(GitHubNotModifiedException.class, notModified -> Mono.just(current)))
+                               .doOnNext(fetched -> repositorySearchIndex.add(key, fetched));
+    }
+
+    /**
+     * Fetches the search only when the cache does not know its first size repositories yet, used by {@link RepositoryPrewarmScheduler}
+     * so popular searches are not cold when users ask for them.
+     *
+     * @param key  --> filter of the search
+     * @param size --> amount of repositories to be warmed
+     *
+     * @return Mono<Boolean> true when github was called, false when the search was already cached
+     * */
+    public Mono<Boolean> warmPublicRepositories(final RepositorySearchKey key, final int size) {
+        final int requested = gitHubRepositoryPager.capped(size);
+
+        return Mono.defer(() -> {
+            final RepositorySearchResult cached = lookup(key);
+            if(cached != null && cached.covers(requested)) {
+                return Mono.just(false);
+            }
+
+            return requestCoalescer.executeAsync(List.of(key, requested), () -> fetchPublicRepositoriesReactive(key, requested)).thenReturn(true);
+        });
+    }
+
+    private Mono<RepositorySearchResult> fetchPublicRepositoriesReactive(final RepositorySearchKey key, final int requested) {
+        return fetchPublicRepositories(key, requested).doOnNext(fetched -> store(key, fetched));
+    }
+
+    private Mono<RepositorySearchResult> fetchPublicRepositories(final RepositorySearchKey key, final int requested) {
+        return gitHubRepositoryPager.streamPublicRepositories(key.createdOn(), key.language(), Optional.of(requested))
+                                    .collect(() -> RepositorySearchResult.builder(requested), RepositorySearchResult.Builder::add)
+                                    .map(builder -> builder.build(requested));
+    }
+
+    /**
+     * Second half of the cache lookup, records its time since startNanos tagged as index or miss.
+     * */
+    private Optional<List<RepositoryModel>> findIndexed(final RepositorySearchKey key, final int requested, final long startNanos) {
+        final Optional<List<RepositoryModel>> indexed = repositorySearchIndex.find(key, requested);
+        latencyMetrics.recordSince(Stage.CACHE_LOOKUP, indexed.isPresent() ? CacheOutcome.INDEX : CacheOutcome.MISS, key.language(), startNanos);
+        return indexed;
+    }
+
+    private RepositorySearchResult lookup(final RepositorySearchKey key) {
+        return cacheManager.getCache(REPOSITORIES_CACHE).get(key, RepositorySearchResult.class);
+    }
+
+    /**
+     * Keeps the largest prefix, a smaller result fetched concurrently never replaces a bigger one: the comparison and the write are
+     * one conditional replace on the map of the local cache, retried when another fetch wrote the search in between.
+     * */
+    private void store(final RepositorySearchKey key, final RepositorySearchResult fetched) {
+        final Cache cache = cacheManager.getCache(REPOSITORIES_CACHE);
+        final ConcurrentMap<Object, Object> entries = entriesOf(cache);
+
+        if(entries == null) {
+            if(fetched.isAtLeastAsLargeAs(cache.get(key, RepositorySearchResult.class))) {
+                cache.put(key, fetched);
+                repositorySearchIndex.add(key, fetched);
+            }
+            return;
+        }
+
+        while(true) {
+            final Object current = entries.get(key);
+            if(!fetched.isAtLeastAsLargeAs(current instanceof RepositorySearchResult result ? result : null)) {
+                return;
+            }
+            if(current == null ? entries.putIfAbsent(key, fetched) == null : entries.replace(key, current, fetched)) {
+                break;
+            }
+        }
+
+        if(cache instanceof TwoTierCache tiered) {
+            tiered.share(key, fetched);
+        }
+        repositorySearchIndex.add(key, fetched);
+    }
+
+    /**
+     * @return map behind the local cache(caffeine or concurrent map), null when the cache is not backed by one
+     * */
+    @SuppressWarnings("unchecked")
+    private static ConcurrentMap<Object, Object> entriesOf(final Cache cache) {
+        final Object nativeCache = cache.getNativeCache();
+        if(nativeCache instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> caffeine) {
+            return (ConcurrentMap<Object, Object>) caffeine.asMap();
+        }
+        if(nativeCache instanceof ConcurrentMap<?, ?> map) {
+            return (ConcurrentMap<Object, Object>) map;
+        }
+        return null;
     }
 }
@@ -0,0 +1,88 @@
+package com.assoni.gateway.repositories.logic;
+
+import com.assoni.gateway.repositories.logic.api.GitHubRateLimitGovernor;
+import com.assoni.gateway.repositories.logic.cache.TwoTierCache;
+import com.assoni.gateway.repositories.logic.model.RepositorySearchKey;
+import com.assoni.gateway.repositories.logic.model.RepositorySearchResult;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Refresh-ahead (stale-while-revalidate) support for repositories_cache.
+ *
+ * Spring boot hands this loader to the caffeine cache manager, combined with refreshAfterWrite(soft ttl) and
+ * expireAfterWrite(hard ttl) an entry past the soft ttl is still served immediately while caffeine reloads it in background,
+ * only entries that were not read until the hard ttl are evicted.
+ *
+ * Cache misses are not loaded here, they keep going through {@link GitHubRepositoryProvider#findAllPublicRepositories} so the
+ * circuit breaker and request coalescing still apply to them, a refresh fetches again the same prefix size that was cached.
+ *
+ * When repositories_cache has a second tier(see {@link TwoTierCache}) the reloaded value is also shared with the other replicas.
+ *
+ * Metrics:
+ *  repository_cache_refresh_metric{status=success|failure} --> background reloads of the cache
+ * */
+@Slf4j
+@Component
+@ConditionalOnProperty(value = "cache.repositories.refresh-ahead.enabled", havingValue = "true", matchIfMissing = true)
+public class RepositoryCacheLoader implements CacheLoader<Object, Object> {
+    private final ObjectProvider<GitHubRepositoryProvider> gitHubRepositoryProvider;
+    private final ObjectProvider<CacheManager> cacheManager;
+
+    private final Counter refreshSuccessCounter;
+    private final Counter refreshFailureCounter;
+
+    public RepositoryCacheLoader(final ObjectProvider<GitHubRepositoryProvider> gitHubRepositoryProvider, final ObjectProvider<CacheManager> cacheManager, final MeterRegistry registry) {
+        this.gitHubRepositoryProvider = gitHubRepositoryProvider;
+        this.cacheManager = cacheManager;
+        this.refreshSuccessCounter = Counter.builder("repository_cache_refresh_metric").tag("cache", "repositories_cache").tag("status", "success").register(registry);
+        this.refreshFailureCounter = Counter.builder("repository_cache_refresh_metric").tag("cache", "repositories_cache").tag("status", "failure").register(registry);
+    }
+
+    /**
+     * Returning null tells spring that the entry is absent, so the @Cacheable method is the one responsible for the miss.
+     * */
+    @Override
+    public Object load(final Object key) {
+        return null;
+    }
+
+    /**
+     * Reloads an entry past the soft ttl without holding a thread of caffeine's executor, in case of failure caffeine keeps
+     * serving the old value until the hard ttl.
+     *
+     * Refreshes are background calls for the rate limit governor, they are shed first when the github budget runs low.
+     * */
+    @Override
+    public CompletableFuture<Object> asyncReload(final Object key, final Object oldValue, final Executor executor) {
+        return gitHubRepositoryProvider.getObject()
+                                       .refreshPublicRepositories((RepositorySearchKey) key, (RepositorySearchResult) oldValue)
+                                       .contextWrite(GitHubRateLimitGovernor::background)
+                                       .<Object>map(value -> value)
+                                       .doOnSuccess(value -> {
+                                           refreshSuccessCounter.increment();
+                                           share(key, value);
+                                       })
+                                       .doOnError(failure -> {
+                                           refreshFailureCounter.increment();
+                                           log.warn("Fail while refreshing the cache entry {}, keeping the stale value", key, failure);
+                                       })
+                                       .toFuture();
+    }
+
+    private void share(final Object key, final Object value) {
+        final CacheManager manager = cacheManager.getIfAvailable();
+        if(manager != null && manager.getCache(GitHubRepositoryProvider.REPOSITORIES_CACHE) instanceof TwoTierCache tiered) {
+            tiered.share(key, value);
+        }
+    }
+}
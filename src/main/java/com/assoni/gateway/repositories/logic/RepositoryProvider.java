@@ -1,6 +1,8 @@
 package com.assoni.gateway.repositories.logic;
 
 import com.assoni.gateway.repositories.logic.model.RepositoryModel;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -10,4 +12,8 @@ public interface RepositoryProvider {
 
     List<RepositoryModel> findAllPublicRepositories(final Optional<LocalDate> createdOn, final Optional<String> language, final Optional<Integer> size);
 
+    Mono<List<RepositoryModel>> findAllPublicRepositoriesReactive(final Optional<LocalDate> createdOn, final Optional<String> language, final Optional<Integer> size);
+
+    Flux<RepositoryModel> streamPublicRepositories(final Optional<LocalDate> createdOn, final Optional<String> language, final Optional<Integer> size);
+
 }
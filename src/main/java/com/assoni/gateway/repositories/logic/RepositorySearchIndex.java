@@ -0,0 +1,124 @@
+package com.assoni.gateway.repositories.logic;
+
+import com.assoni.gateway.repositories.logic.model.RepositoryModel;
+import com.assoni.gateway.repositories.logic.model.RepositorySearchKey;
+import com.assoni.gateway.repositories.logic.model.RepositorySearchResult;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Index of the searches already fetched from github, used to answer narrower searches without calling github again.
+ *
+ * Searches are indexed per language and, inside a language, by their createdOn date. A search created after a date is a subset of
+ * every search of the same language created after an earlier date(or without date), so its repositories are found by filtering the
+ * star sorted result of the closest indexed superset by creation date, see {@link RepositorySearchResult#sliceCreatedAfter}.
+ *
+ * The filtered prefix is only a valid answer when it has at least the requested size or the superset is complete, otherwise a
+ * repository of the narrower search with less stars than the last fetched one could be missing.
+ *
+ * The index is bounded by the estimated heap of the searches(cache.repositories.index.spec, maximumWeight in bytes).
+ *
+ * Metrics:
+ *  repository_index_metric{result=hit|miss} --> searches with createdOn resolved locally or sent to github
+ * */
+@Component
+public class RepositorySearchIndex {
+    public static final String REPOSITORIES_INDEX = "repositories_index";
+
+    private final Cache<RepositorySearchKey, RepositorySearchResult> searches;
+    private final Map<Optional<String>, NavigableSet<LocalDate>> datesByLanguage = new ConcurrentHashMap<>();
+
+    private final Counter hitCounter;
+    private final Counter missCounter;
+
+    public RepositorySearchIndex(final MeterRegistry registry, @Value("${cache.repositories.index.spec}") final String spec) {
+        this.searches = Caffeine.from(spec)
+                                .<RepositorySearchKey, RepositorySearchResult>weigher((key, result) -> result.estimatedBytes())
+                                .removalListener((key, result, cause) -> {
+                                    if(key != null && cause != RemovalCause.REPLACED) {
+                                        key.createdOn().ifPresent(createdOn -> forgetDate(key.language(), createdOn));
+                                    }
+                                })
+                                .build();
+
+        this.hitCounter = Counter.builder("repository_index_metric").tag("result", "hit").register(registry);
+        this.missCounter = Counter.builder("repository_index_metric").tag("result", "miss").register(registry);
+        CaffeineCacheMetrics.monitor(registry, searches, REPOSITORIES_INDEX);
+    }
+
+    /**
+     * @param key    --> filter of the fetched search
+     * @param result --> repositories fetched for it
+     * */
+    public void add(final RepositorySearchKey key, final RepositorySearchResult result) {
+        searches.put(key, result);
+        key.createdOn().ifPresent(createdOn -> datesByLanguage.computeIfAbsent(key.language(), language -> new ConcurrentSkipListSet<>()).add(createdOn));
+    }
+
+    /**
+     * @param key  --> filter of the search
+     * @param size --> amount of repositories requested
+     *
+     * @return the repositories of the search when an indexed search contains them, empty when github has to be called
+     * */
+    public Optional<List<RepositoryModel>> find(final RepositorySearchKey key, final int size) {
+        if(key.createdOn().isPresent()) {
+            final LocalDate createdOn = key.createdOn().get();
+
+            for(RepositorySearchKey superset : supersetsOf(key.language(), createdOn)) {
+                final RepositorySearchResult result = searches.getIfPresent(superset);
+                if(result == null) {
+                    superset.createdOn().ifPresent(date -> forgetDate(superset.language(), date));
+                    continue;
+                }
+
+                if(result.isComplete() || result.countCreatedAfter(createdOn) >= size) {
+                    hitCounter.increment();
+                    return Optional.of(result.sliceCreatedAfter(createdOn, size));
+                }
+            }
+        }
+
+        missCounter.increment();
+        return Optional.empty();
+    }
+
+    /**
+     * Closest supersets first, they hold less repositories outside of the search.
+     * */
+    private List<RepositorySearchKey> supersetsOf(final Optional<String> language, final LocalDate createdOn) {
+        final List<RepositorySearchKey> supersets = new ArrayList<>();
+        final NavigableSet<LocalDate> dates = datesByLanguage.get(language);
+        if(dates != null) {
+            dates.headSet(createdOn, true).descendingSet().forEach(date -> supersets.add(new RepositorySearchKey(Optional.of(date), language)));
+        }
+
+        // without language and date github is searched by name(see GitHubClient#createFiltersForQuery), that is not a superset
+        language.ifPresent(value -> supersets.add(new RepositorySearchKey(Optional.empty(), language)));
+        return supersets;
+    }
+
+    private void forgetDate(final Optional<String> language, final LocalDate createdOn) {
+        datesByLanguage.computeIfPresent(language, (current, dates) -> {
+            if(searches.getIfPresent(new RepositorySearchKey(Optional.of(createdOn), language)) == null) {
+                dates.remove(createdOn);
+            }
+            return dates.isEmpty() ? null : dates;
+        });
+    }
+}
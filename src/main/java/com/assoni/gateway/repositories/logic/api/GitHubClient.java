@@ -1,5 +1,7 @@
 package com.assoni.gateway.repositories.logic.api;
 
+import com.assoni.gateway.repositories.logic.metrics.RepositoryLatencyMetrics;
+import com.assoni.gateway.repositories.logic.model.RepositoryModel;
 import io.netty.channel.ChannelOption;
 import io.netty.handler.timeout.ReadTimeoutHandler;
 import io.netty.handler.timeout.WriteTimeoutHandler;
@@ -7,16 +9,28 @@ import lombok.AllArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.ExchangeStrategies;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.HttpProtocol;
 import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
 
 import java.time.Duration;
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 
 /**
  * This class represents the client of github, it was created using github docs, the main responsibility of this class is behave as bridge
@@ -30,25 +44,77 @@ import java.util.concurrent.TimeUnit;
 @AllArgsConstructor
 public class GitHubClient {
 
+    /**
+     * The github client has its own connection pool, bounded by client.github.pool.maxConnections and queuing at most
+     * pendingAcquireMaxCount calls for pendingAcquireTimeout, so a burst of misses fails fast instead of waiting invisibly for a
+     * connection. Connections idle for maxIdleTime(below the idle timeout of github) or older than maxLifeTime are evicted in
+     * background, and HTTP/2 is negotiated over TLS so concurrent calls are multiplexed on the same connection instead of opening
+     * one connection(and one TLS handshake) each.
+     *
+     * Metrics(reactor netty, tagged by name=github):
+     *  reactor.netty.connection.provider.active.connections --> connections executing a call
+     *  reactor.netty.connection.provider.idle.connections --> connections waiting in the pool
+     *  reactor.netty.connection.provider.pending.connections --> calls waiting for a connection
+     *  reactor.netty.connection.provider.pending.connections.time --> time calls waited for a connection
+     * */
     @Configuration
     public static class ClientConfiguration {
+        public static final String CONNECTION_POOL_NAME = "github";
+
+        @Bean(destroyMethod = "dispose")
+        public ConnectionProvider gitHubConnectionProvider(@Value("${client.github.pool.maxConnections}") final Integer maxConnections,
+                                                           @Value("${client.github.pool.pendingAcquireMaxCount}") final Integer pendingAcquireMaxCount,
+                                                           @Value("${client.github.pool.pendingAcquireTimeout}") final Long pendingAcquireTimeout,
+                                                           @Value("${client.github.pool.maxIdleTime}") final Long maxIdleTime,
+                                                           @Value("${client.github.pool.maxLifeTime}") final Long maxLifeTime,
+                                                           @Value("${client.github.pool.evictionInterval}") final Long evictionInterval) {
+            return ConnectionProvider.builder(CONNECTION_POOL_NAME)
+                                     .maxConnections(maxConnections)
+                                     .pendingAcquireMaxCount(pendingAcquireMaxCount)
+                                     .pendingAcquireTimeout(Duration.ofMillis(pendingAcquireTimeout))
+                                     .maxIdleTime(Duration.ofMillis(maxIdleTime))
+                                     .maxLifeTime(Duration.ofMillis(maxLifeTime))
+                                     .evictInBackground(Duration.ofMillis(evictionInterval))
+                                     .lifo()
+                                     .metrics(true)
+                                     .build();
+        }
 
         @Bean
-        public WebClient gitHubWebClient(@Value("${client.github.baseUrl}") final String baseUrl,
-                                         @Value("${client.github.timeout}") final Integer timeout) {
-            HttpClient httpClient = HttpClient.create()
-                                              .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, timeout)
-                                              .responseTimeout(Duration.ofMillis(timeout))
-                                              .doOnConnected(conn -> conn.addHandlerLast(new ReadTimeoutHandler(timeout, TimeUnit.MILLISECONDS)).addHandlerLast(new WriteTimeoutHandler(timeout, TimeUnit.MILLISECONDS)));
+        public HttpClient gitHubHttpClient(final ConnectionProvider gitHubConnectionProvider,
+                                           @Value("${client.github.baseUrl}") final String baseUrl,
+                                           @Value("${client.github.timeout}") final Integer timeout,
+                                           @Value("${client.github.http2.enabled}") final Boolean http2) {
+            // h2 is only negotiated over tls(alpn), plain http endpoints such as local stubs keep http/1.1
+            final HttpProtocol[] protocols = http2 && baseUrl.startsWith("https") ? new HttpProtocol[]{HttpProtocol.H2, HttpProtocol.HTTP11} : new HttpProtocol[]{HttpProtocol.HTTP11};
+
+            return HttpClient.create(gitHubConnectionProvider)
+                             .protocol(protocols)
+                             .keepAlive(true)
+                             .metrics(true, uri -> "/repositories")
+                             .option(ChannelOption.SO_KEEPALIVE, true)
+                             .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, timeout)
+                             .responseTimeout(Duration.ofMillis(timeout))
+                             .doOnConnected(conn -> conn.addHandlerLast(new ReadTimeoutHandler(timeout, TimeUnit.MILLISECONDS)).addHandlerLast(new WriteTimeoutHandler(timeout, TimeUnit.MILLISECONDS)));
+        }
 
+        @Bean
+        public WebClient gitHubWebClient(final HttpClient gitHubHttpClient,
+                                         @Value("${client.github.baseUrl}") final String baseUrl,
+                                         final GitHubRateLimitGovernor rateLimitGovernor,
+                                         final RepositoryLatencyMetrics latencyMetrics) {
             final int size = 16 * 1024 * 1024;
             final ExchangeStrategies strategies = ExchangeStrategies.builder().codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(size)).build();
 
-            return WebClient.builder().exchangeStrategies(strategies).clientConnector(new ReactorClientHttpConnector(httpClient)).baseUrl(baseUrl).build();
+            return WebClient.builder().exchangeStrategies(strategies).clientConnector(new ReactorClientHttpConnector(gitHubHttpClient)).filter(rateLimitGovernor.filter()).filter(latencyMetrics.upstreamFilter()).baseUrl(baseUrl).build();
         }
     }
 
+    private static final String REVALIDATE = GitHubClient.class.getName() + ".revalidate";
+
     private final WebClient webClient;
+    private final RepositoryLatencyMetrics latencyMetrics;
+    private final GitHubResponseValidators responseValidators;
 
     /**
      * Build up the query following the concepts of github search(https://docs.github.com/en/search-github/getting-started-with-searching-on-github/understanding-the-search-syntax)
@@ -62,6 +128,103 @@ public class GitHubClient {
      * @return GitHubResponse
      * */
     public GitHubResponse findAllPublicRepositories(final Optional<LocalDate> createdOn, final Optional<String> language, final Optional<Integer> size) {
+        return findAllPublicRepositoriesAsync(createdOn, language, size).block();
+    }
+
+    /**
+     * Non-blocking version of {@link #findAllPublicRepositories(Optional, Optional, Optional)}, nothing is sent to github until the
+     * returned mono is subscribed and no thread is held while waiting for the response.
+     *
+     * @param createdOn --> date to filter starting the search from
+     * @param language  --> language such as JAVA/kotlin and so on
+     * @param  size     --> amount of elements that you would like to see as return
+     *
+     * @return Mono<GitHubResponse>
+     * */
+    public Mono<GitHubResponse> findAllPublicRepositoriesAsync(final Optional<LocalDate> createdOn, final Optional<String> language, final Optional<Integer> size) {
+        return searchRepositories(createdOn, language, size, Optional.empty()).retrieve().bodyToMono(GitHubResponse.class);
+    }
+
+    /**
+     * Streaming version of {@link #findAllPublicRepositoriesAsync(Optional, Optional, Optional)}, the body is tokenized while it arrives
+     * and every repository is emitted as soon as it is decoded, see {@link GitHubRepositoryStreamDecoder}.
+     *
+     * The body is never aggregated in memory, so it is not limited by the maxInMemorySize of the client, the time spent decoding it
+     * is recorded as the deserialization stage of {@link RepositoryLatencyMetrics}.
+     *
+     * @param createdOn --> date to filter starting the search from
+     * @param language  --> language such as JAVA/kotlin and so on
+     * @param  size     --> amount of elements that you would like to see as return
+     *
+     * @return Flux<RepositoryModel>
+     * */
+    public Flux<RepositoryModel> streamPublicRepositories(final Optional<LocalDate> createdOn, final Optional<String> language, final Optional<Integer> size) {
+        return streamRepositories(createdOn, language, size, Optional.empty());
+    }
+
+    /**
+     * Same as {@link #streamPublicRepositories(Optional, Optional, Optional)} for one page of the search, github serves at most
+     * 100 repositories per page.
+     *
+     * @param createdOn --> date to filter starting the search from
+     * @param language  --> language such as JAVA/kotlin and so on
+     * @param page      --> page to be fetched starting from 1
+     * @param perPage   --> amount of elements per page
+     *
+     * @return Flux<RepositoryModel>
+     * */
+    public Flux<RepositoryModel> streamPublicRepositories(final Optional<LocalDate> createdOn, final Optional<String> language, final int page, final int perPage) {
+        return streamRepositories(createdOn, language, Optional.of(perPage), Optional.of(page));
+    }
+
+    /**
+     * Marks the calls made by the subscription as revalidations, searches with validators of a previous response are sent as
+     * conditional requests and a 304 fails with {@link GitHubNotModifiedException} without any body being transferred or decoded.
+     * */
+    public static Context revalidate(final Context context) {
+        return context.put(REVALIDATE, Boolean.TRUE);
+    }
+
+    /**
+     * @return true when the calls of the subscription were marked by {@link #revalidate(Context)}
+     * */
+    public static boolean isRevalidation(final ContextView context) {
+        return context.getOrDefault(REVALIDATE, Boolean.FALSE);
+    }
+
+    private Flux<RepositoryModel> streamRepositories(final Optional<LocalDate> createdOn, final Optional<String> language, final Optional<Integer> size, final Optional<Integer> page) {
+        return Flux.deferContextual(context -> {
+            final GitHubResponseValidators.RequestKey requestKey = new GitHubResponseValidators.RequestKey(createdOn, language, size, page);
+            final Optional<GitHubResponseValidators.Validator> validator = isRevalidation(context) ? responseValidators.find(requestKey) : Optional.empty();
+            final GitHubRepositoryStreamDecoder decoder = new GitHubRepositoryStreamDecoder();
+            final AtomicLong decodingNanos = new AtomicLong();
+
+            return searchRepositories(createdOn, language, size, page).headers(headers -> validator.ifPresent(value -> value.applyTo(headers)))
+                                                                .retrieve()
+                                                                .onStatus(status -> status == HttpStatus.NOT_MODIFIED,
+                                                                          response -> response.releaseBody().then(Mono.<Throwable>error(new GitHubNotModifiedException("Search " + requestKey + " not modified"))))
+                                                                .toEntityFlux(DataBuffer.class)
+                                                                .doOnNext(entity -> validator.ifPresent(value -> responseValidators.revalidated(true)))
+                                                                .doOnError(GitHubNotModifiedException.class, notModified -> responseValidators.revalidated(false))
+                                                                .flatMapMany(entity -> entity.getBody()
+                                                                                             .concatMapIterable(buffer -> timed(decodingNanos, () -> decoder.decode(buffer)))
+                                                                                             .concatWith(Flux.defer(() -> Flux.fromIterable(timed(decodingNanos, decoder::complete))))
+                                                                                             .doOnComplete(() -> responseValidators.remember(requestKey, entity.getHeaders())))
+                                                                .doOnDiscard(DataBuffer.class, DataBufferUtils::release)
+                                                                .doFinally(signal -> latencyMetrics.record(RepositoryLatencyMetrics.Stage.DESERIALIZATION, RepositoryLatencyMetrics.CacheOutcome.MISS, language, decodingNanos.get()));
+        });
+    }
+
+    private static List<RepositoryModel> timed(final AtomicLong nanos, final Supplier<List<RepositoryModel>> decoding) {
+        final long start = System.nanoTime();
+        try {
+            return decoding.get();
+        } finally {
+            nanos.addAndGet(System.nanoTime() - start);
+        }
+    }
+
+    private WebClient.RequestHeadersSpec<?> searchRepositories(final Optional<LocalDate> createdOn, final Optional<String> language, final Optional<Integer> size, final Optional<Integer> page) {
         final StringBuilder filter = createFiltersForQuery(createdOn, language);
 
         return webClient.get()
@@ -70,11 +233,10 @@ public class GitHubClient {
                                                      .queryParam("sort","stars")
                                                      .queryParam("order","desc")
                                                      .queryParam("per_page",size)
+                                                     .queryParamIfPresent("page",page)
                                                      .build()
                         )
-                        .retrieve()
-                        .bodyToMono(GitHubResponse.class)
-                        .block();
+                        .attribute(RepositoryLatencyMetrics.LANGUAGE_ATTRIBUTE, language);
     }
 
     /**
@@ -0,0 +1,79 @@
+package com.assoni.gateway.repositories.logic.api;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Opens client.github.pool.warmupConnections connections to github before the application reports itself as ready, the same way
+ * {@link com.assoni.gateway.repositories.logic.prewarm.RepositoryPrewarmScheduler} warms its startup searches, so the first burst
+ * of users does not pay the tcp and tls handshakes.
+ *
+ * Each connection is opened by a HEAD of the base url sent straight through the pooled http client, it does not go through the
+ * rate limit governor as it is not a search, and any failure only leaves the pool cold.
+ *
+ * The amount only applies to HTTP/1.1, where each concurrent call needs its own connection. When the client negotiates HTTP/2
+ * (client.github.http2.enabled over https) concurrent calls are multiplexed on one connection, so a single one is opened.
+ * */
+@Slf4j
+@Component
+public class GitHubConnectionWarmer implements ApplicationRunner {
+
+    private final HttpClient gitHubHttpClient;
+    private final String baseUrl;
+    @Getter
+    private final int connections;
+    private final Duration timeout;
+
+    @Autowired
+    public GitHubConnectionWarmer(final HttpClient gitHubHttpClient,
+                                  @Value("${client.github.baseUrl}") final String baseUrl,
+                                  @Value("${client.github.pool.warmupConnections}") final Integer connections,
+                                  @Value("${client.github.timeout}") final Long timeout) {
+        this.gitHubHttpClient = gitHubHttpClient;
+        this.baseUrl = baseUrl;
+        this.connections = multiplexed(gitHubHttpClient, baseUrl) ? Math.min(connections, 1) : connections;
+        this.timeout = Duration.ofMillis(timeout);
+    }
+
+    @Override
+    public void run(final ApplicationArguments args) {
+        if(connections <= 0) {
+            return;
+        }
+
+        log.info("Opening {} connections to github before accepting traffic", connections);
+        warm().block();
+    }
+
+    /**
+     * @return Mono<Long> amount of connections opened, completed once every call answered, failed or timed out
+     * */
+    public Mono<Long> warm() {
+        return Flux.range(0, connections)
+                   .flatMap(index -> gitHubHttpClient.head()
+                                                     .uri(baseUrl)
+                                                     .response()
+                                                     .onErrorResume(failure -> {
+                                                         log.warn("Fail while opening a connection to github, it will be opened by the first call", failure);
+                                                         return Mono.empty();
+                                                     }), connections)
+                   .count()
+                   .timeout(timeout, Mono.just(0L));
+    }
+
+    private static boolean multiplexed(final HttpClient gitHubHttpClient, final String baseUrl) {
+        return baseUrl.startsWith("https") && Arrays.asList(gitHubHttpClient.configuration().protocols()).contains(HttpProtocol.H2);
+    }
+}
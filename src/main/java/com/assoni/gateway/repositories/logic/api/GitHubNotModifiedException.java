@@ -0,0 +1,12 @@
+package com.assoni.gateway.repositories.logic.api;
+
+/**
+ * Raised when github answers a revalidation(see {@link GitHubClient#revalidate}) with 304, the repositories already known for the
+ * search are still the current ones.
+ * */
+public class GitHubNotModifiedException extends RuntimeException {
+
+    public GitHubNotModifiedException(final String message) {
+        super(message, null, false, false);
+    }
+}
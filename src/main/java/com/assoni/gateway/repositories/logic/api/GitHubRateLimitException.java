@@ -0,0 +1,20 @@
+package com.assoni.gateway.repositories.logic.api;
+
+import java.time.Duration;
+
+/**
+ * Raised when a call to github is shed by {@link GitHubRateLimitGovernor} because the rate limit budget can't serve it in time, the
+ * caller should try again after retryAfter.
+ * */
+public class GitHubRateLimitException extends RuntimeException {
+    private final Duration retryAfter;
+
+    public GitHubRateLimitException(final String message, final Duration retryAfter) {
+        super(message, null, false, false);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
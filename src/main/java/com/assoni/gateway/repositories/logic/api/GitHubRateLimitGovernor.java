@@ -0,0 +1,227 @@
+package com.assoni.gateway.repositories.logic.api;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * Client side governor of the github rate limit(https://docs.github.com/en/rest/overview/resources-in-the-rest-api#rate-limiting).
+ *
+ * The budget(X-RateLimit-Limit/Remaining/Reset) is tracked from every github response, and outgoing calls are paced by a token
+ * bucket refilled at remaining/seconds-until-reset, so the budget is spread until the window resets instead of being burned by a burst.
+ *
+ * Calls carry a {@link Priority} in the reactor context:
+ *  INTERACTIVE --> users waiting for the response, they queue for a token up to maxWait and are shed after that
+ *  BACKGROUND  --> refreshes of data already cached, they never queue and are shed while the remaining budget is below the
+ *                  reserve, so the cached/stale value keeps being served
+ *
+ * Shed calls fail with {@link GitHubRateLimitException}, letting the circuit breaker fallback serve the last known good response,
+ * they are ignored by the breakers since github did not fail.
+ * */
+@Component
+public class GitHubRateLimitGovernor {
+
+    public enum Priority {
+        INTERACTIVE,
+        BACKGROUND
+    }
+
+    private final Clock clock;
+    private final long windowMillis;
+    private final double capacity;
+    private final double backgroundReserve;
+    private final long maxWaitMillis;
+
+    private final Counter interactiveShedCounter;
+    private final Counter backgroundShedCounter;
+
+    private long limit;
+    private long remaining;
+    private long resetAtMillis;
+    private double tokens;
+    private double tokensPerMilli;
+    private long lastRefillMillis;
+
+    @Autowired
+    public GitHubRateLimitGovernor(final MeterRegistry registry,
+                                   @Value("${client.github.rateLimit.limit}") final Long limit,
+                                   @Value("${client.github.rateLimit.window}") final Long windowMillis,
+                                   @Value("${client.github.rateLimit.burst}") final Integer burst,
+                                   @Value("${client.github.rateLimit.backgroundReserve}") final Double backgroundReserve,
+                                   @Value("${client.github.rateLimit.maxWait}") final Long maxWaitMillis) {
+        this(registry, Clock.systemUTC(), limit, windowMillis, burst, backgroundReserve, maxWaitMillis);
+    }
+
+    public GitHubRateLimitGovernor(final MeterRegistry registry, final Clock clock, final long limit, final long windowMillis, final int burst, final double backgroundReserve, final long maxWaitMillis) {
+        this.clock = clock;
+        this.windowMillis = windowMillis;
+        this.capacity = burst;
+        this.backgroundReserve = backgroundReserve;
+        this.maxWaitMillis = maxWaitMillis;
+
+        this.limit = limit;
+        this.remaining = limit;
+        this.lastRefillMillis = clock.millis();
+        this.resetAtMillis = lastRefillMillis + windowMillis;
+        this.tokensPerMilli = (double) limit / windowMillis;
+        this.tokens = Math.min(capacity, limit);
+
+        Gauge.builder("repository_github_rate_limit_remaining", this, GitHubRateLimitGovernor::getRemaining).register(registry);
+        Gauge.builder("repository_github_rate_limit_limit", this, GitHubRateLimitGovernor::getLimit).register(registry);
+        Gauge.builder("repository_github_rate_limit_reset_seconds", this, GitHubRateLimitGovernor::getSecondsUntilReset).register(registry);
+        Gauge.builder("repository_github_rate_limit_tokens", this, GitHubRateLimitGovernor::getTokens).register(registry);
+        this.interactiveShedCounter = Counter.builder("repository_github_rate_limit_shed_metric").tag("priority", "interactive").register(registry);
+        this.backgroundShedCounter = Counter.builder("repository_github_rate_limit_shed_metric").tag("priority", "background").register(registry);
+    }
+
+    /**
+     * Marks the calls made by the subscription as background ones.
+     * */
+    public static Context background(final Context context) {
+        return context.put(Priority.class, Priority.BACKGROUND);
+    }
+
+    /**
+     * @return true when the calls of the subscription were marked by {@link #background(Context)}
+     * */
+    public static boolean isBackground(final ContextView context) {
+        return context.getOrDefault(Priority.class, Priority.INTERACTIVE) == Priority.BACKGROUND;
+    }
+
+    /**
+     * Filter for the github web client, waits for a token before each call and updates the budget with the response headers.
+     * */
+    public ExchangeFilterFunction filter() {
+        return (request, next) -> Mono.deferContextual(context -> acquire(context.getOrDefault(Priority.class, Priority.INTERACTIVE)))
+                                      .then(Mono.defer(() -> next.exchange(request)))
+                                      .doOnNext(response -> update(response.headers().asHttpHeaders()));
+    }
+
+    /**
+     * @return Mono completing once the call is allowed to go out, or failing when it was shed
+     * */
+    public Mono<Void> acquire(final Priority priority) {
+        final long waitMillis = reserve(priority);
+
+        if(waitMillis < 0) {
+            (priority == Priority.BACKGROUND ? backgroundShedCounter : interactiveShedCounter).increment();
+            return Mono.error(new GitHubRateLimitException("Github rate limit budget exhausted, " + priority.name().toLowerCase() + " call shed", Duration.ofMillis(retryAfterMillis(priority))));
+        }
+
+        return waitMillis == 0 ? Mono.empty() : Mono.delay(Duration.ofMillis(waitMillis)).then();
+    }
+
+    /**
+     * Takes a token for the call.
+     *
+     * @return milliseconds the call has to wait for its token, -1 when the call is shed
+     * */
+    synchronized long reserve(final Priority priority) {
+        refill();
+
+        if(priority == Priority.BACKGROUND && remaining <= limit * backgroundReserve) {
+            return -1;
+        }
+
+        if(tokens >= 1) {
+            tokens -= 1;
+            remaining = Math.max(0, remaining - 1);
+            return 0;
+        }
+
+        final long now = clock.millis();
+        final long waitMillis = tokensPerMilli > 0 ? (long) Math.ceil((1 - tokens) / tokensPerMilli) : Math.max(0, resetAtMillis - now);
+        if(priority == Priority.BACKGROUND || waitMillis > maxWaitMillis) {
+            return -1;
+        }
+
+        tokens -= 1;
+        remaining = Math.max(0, remaining - 1);
+        return waitMillis;
+    }
+
+    /**
+     * @return milliseconds until a shed call could be served, the next token or the reset of the window when the background
+     * reserve is reached
+     * */
+    synchronized long retryAfterMillis(final Priority priority) {
+        final long now = clock.millis();
+
+        if((priority == Priority.BACKGROUND && remaining <= limit * backgroundReserve) || tokensPerMilli <= 0) {
+            return Math.max(0, resetAtMillis - now);
+        }
+
+        return (long) Math.ceil(Math.max(0, 1 - tokens) / tokensPerMilli);
+    }
+
+    /**
+     * Replaces the tracked budget by the one github reports, the refill rate spreads the remaining calls until the reset.
+     * */
+    public synchronized void update(final HttpHeaders headers) {
+        final Long reportedLimit = parse(headers.getFirst("X-RateLimit-Limit"));
+        final Long reportedRemaining = parse(headers.getFirst("X-RateLimit-Remaining"));
+        final Long reportedReset = parse(headers.getFirst("X-RateLimit-Reset"));
+        if(reportedRemaining == null || reportedReset == null) {
+            return;
+        }
+
+        refill();
+        final long now = clock.millis();
+        if(reportedLimit != null) {
+            limit = reportedLimit;
+        }
+        remaining = reportedRemaining;
+        resetAtMillis = reportedReset * 1000;
+        tokensPerMilli = (double) remaining / Math.max(1, resetAtMillis - now);
+        tokens = Math.min(tokens, remaining);
+    }
+
+    private void refill() {
+        final long now = clock.millis();
+
+        if(now >= resetAtMillis) {
+            remaining = limit;
+            resetAtMillis = now + windowMillis;
+            tokensPerMilli = (double) limit / windowMillis;
+        }
+
+        tokens = Math.min(capacity, tokens + (now - lastRefillMillis) * tokensPerMilli);
+        lastRefillMillis = now;
+    }
+
+    private static Long parse(final String value) {
+        try {
+            return value == null ? null : Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public synchronized double getRemaining() {
+        return remaining;
+    }
+
+    public synchronized double getLimit() {
+        return limit;
+    }
+
+    public synchronized double getSecondsUntilReset() {
+        return Math.max(0, resetAtMillis - clock.millis()) / 1000.0;
+    }
+
+    public synchronized double getTokens() {
+        refill();
+        return tokens;
+    }
+}
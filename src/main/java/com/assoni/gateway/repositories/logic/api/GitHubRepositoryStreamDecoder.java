@@ -0,0 +1,221 @@
+package com.assoni.gateway.repositories.logic.api;
+
+import com.assoni.gateway.repositories.logic.model.RepositoryModel;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Incremental decoder of the github search response, it is fed with the chunks of the body as they arrive and emits every element
+ * of the items array as soon as it is complete, mapped straight to {@link RepositoryModel}.
+ *
+ * Only the fields used by the gateway are read, everything else(total_count, the other repository/owner properties and so on) is
+ * skipped at token level, so the memory held by a request is proportional to one repository instead of the whole payload.
+ *
+ * One instance per response, it is not thread safe.
+ * */
+public class GitHubRepositoryStreamDecoder {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private static final int ROOT_DEPTH = 1;
+    private static final int ITEMS_DEPTH = 2;
+    private static final int REPOSITORY_DEPTH = 3;
+    private static final int OWNER_DEPTH = 4;
+
+    private final JsonParser parser;
+    private final ByteArrayFeeder feeder;
+
+    private int depth;
+    private boolean insideItems;
+    private boolean insideOwner;
+    private String rootField;
+    private String repositoryField;
+    private String ownerField;
+    private RepositoryModel current;
+
+    public GitHubRepositoryStreamDecoder() {
+        try {
+            this.parser = JSON_FACTORY.createNonBlockingByteArrayParser();
+            this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+        } catch (IOException e) {
+            throw new DecodingException("Fail while creating the github response parser", e);
+        }
+    }
+
+    /**
+     * Feeds a chunk of the body releasing it afterwards.
+     *
+     * @param buffer --> chunk of the body
+     *
+     * @return List<RepositoryModel> repositories completed by this chunk
+     * */
+    public List<RepositoryModel> decode(final DataBuffer buffer) {
+        try {
+            final byte[] chunk = new byte[buffer.readableByteCount()];
+            buffer.read(chunk);
+            return decode(chunk, 0, chunk.length);
+        } finally {
+            DataBufferUtils.release(buffer);
+        }
+    }
+
+    /**
+     * Feeds a chunk of the body.
+     *
+     * @param chunk  --> bytes of the body
+     * @param offset --> first byte of the chunk to be read
+     * @param length --> amount of bytes to be read
+     *
+     * @return List<RepositoryModel> repositories completed by this chunk
+     * */
+    public List<RepositoryModel> decode(final byte[] chunk, final int offset, final int length) {
+        try {
+            feeder.feedInput(chunk, offset, offset + length);
+            return drain();
+        } catch (IOException e) {
+            throw new DecodingException("Fail while decoding the github response", e);
+        }
+    }
+
+    /**
+     * Signals the end of the body.
+     *
+     * @return List<RepositoryModel> repositories still pending
+     * */
+    public List<RepositoryModel> complete() {
+        try {
+            feeder.endOfInput();
+            final List<RepositoryModel> pending = drain();
+            if(depth != 0) {
+                throw new DecodingException("The github response ended before the json was complete");
+            }
+            return pending;
+        } catch (IOException e) {
+            throw new DecodingException("Fail while decoding the github response", e);
+        } finally {
+            closeQuietly();
+        }
+    }
+
+    private List<RepositoryModel> drain() throws IOException {
+        List<RepositoryModel> decoded = Collections.emptyList();
+
+        JsonToken token;
+        while((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+            switch (token) {
+                case START_OBJECT, START_ARRAY -> open(token);
+                case END_OBJECT, END_ARRAY -> {
+                    final RepositoryModel completed = close();
+                    if(completed != null) {
+                        if(decoded.isEmpty()) {
+                            decoded = new ArrayList<>();
+                        }
+                        decoded.add(completed);
+                    }
+                }
+                case FIELD_NAME -> fieldName(parser.getCurrentName());
+                default -> value(token);
+            }
+        }
+
+        return decoded;
+    }
+
+    private void open(final JsonToken token) {
+        depth++;
+
+        if(depth == ITEMS_DEPTH && token == JsonToken.START_ARRAY && "items".equals(rootField)) {
+            insideItems = true;
+        } else if(insideItems && depth == REPOSITORY_DEPTH && token == JsonToken.START_OBJECT) {
+            current = new RepositoryModel();
+        } else if(current != null && depth == OWNER_DEPTH && token == JsonToken.START_OBJECT && "owner".equals(repositoryField)) {
+            insideOwner = true;
+        }
+    }
+
+    private RepositoryModel close() {
+        RepositoryModel completed = null;
+
+        if(insideItems && depth == REPOSITORY_DEPTH) {
+            completed = current;
+            current = null;
+        } else if(insideItems && depth == ITEMS_DEPTH) {
+            insideItems = false;
+        } else if(depth == OWNER_DEPTH) {
+            insideOwner = false;
+        }
+
+        depth--;
+        return completed;
+    }
+
+    private void fieldName(final String name) {
+        if(depth == ROOT_DEPTH) {
+            rootField = name;
+        } else if(current != null && depth == REPOSITORY_DEPTH) {
+            repositoryField = name;
+        } else if(insideOwner && depth == OWNER_DEPTH) {
+            ownerField = name;
+        }
+    }
+
+    private void value(final JsonToken token) throws IOException {
+        if(current == null) {
+            return;
+        }
+
+        if(depth == OWNER_DEPTH && insideOwner && "login".equals(ownerField)) {
+            current.setOwner(text(token));
+            return;
+        }
+
+        if(depth != REPOSITORY_DEPTH) {
+            return;
+        }
+
+        switch (repositoryField) {
+            case "name" -> current.setName(text(token));
+            case "language" -> current.setLanguage(text(token));
+            case "description" -> current.setDescription(text(token));
+            case "url" -> current.setUrl(text(token));
+            case "stargazers_count" -> current.setStars(token == JsonToken.VALUE_NULL ? null : parser.getIntValue());
+            case "created_at" -> current.setCreatedAt(token == JsonToken.VALUE_NULL ? null : parseDateTime(parser.getText()));
+            default -> {
+            }
+        }
+    }
+
+    private String text(final JsonToken token) throws IOException {
+        return token == JsonToken.VALUE_NULL ? null : parser.getText();
+    }
+
+    /**
+     * Github sends timestamps in UTC as 2011-01-26T19:01:12Z, same leniency as jackson's LocalDateTime deserializer
+     * */
+    private static LocalDateTime parseDateTime(final String value) {
+        if(value.endsWith("Z")) {
+            return LocalDateTime.ofInstant(Instant.parse(value), ZoneOffset.UTC);
+        }
+        return LocalDateTime.parse(value);
+    }
+
+    private void closeQuietly() {
+        try {
+            parser.close();
+        } catch (IOException ignored) {
+            // nothing left to release
+        }
+    }
+}
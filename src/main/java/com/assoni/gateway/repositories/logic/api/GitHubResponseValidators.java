@@ -0,0 +1,79 @@
+package com.assoni.gateway.repositories.logic.api;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+/**
+ * Validators(ETag/Last-Modified) of the last complete github response of every search request, used to revalidate the search with
+ * a conditional request(If-None-Match/If-Modified-Since) instead of downloading and decoding the same body again.
+ *
+ * A validator is only kept once its body was completely decoded, so it always describes repositories the application holds.
+ * Bounded by client.github.conditional.spec.
+ *
+ * Metrics:
+ *  repository_github_conditional_metric{result=not_modified|modified} --> revalidations answered by github
+ * */
+@Component
+public class GitHubResponseValidators {
+
+    /**
+     * Identity of a request sent to github, the same search with another size or page has other validators.
+     * */
+    public record RequestKey(Optional<LocalDate> createdOn, Optional<String> language, Optional<Integer> size, Optional<Integer> page) {
+    }
+
+    public record Validator(String etag, String lastModified) {
+
+        public void applyTo(final HttpHeaders headers) {
+            if(etag != null) {
+                headers.setIfNoneMatch(etag);
+            }
+            if(lastModified != null) {
+                headers.set(HttpHeaders.IF_MODIFIED_SINCE, lastModified);
+            }
+        }
+    }
+
+    private final Cache<RequestKey, Validator> validators;
+    private final Counter notModifiedCounter;
+    private final Counter modifiedCounter;
+
+    public GitHubResponseValidators(final MeterRegistry registry, @Value("${client.github.conditional.spec}") final String spec) {
+        this.validators = Caffeine.from(spec).build();
+        this.notModifiedCounter = Counter.builder("repository_github_conditional_metric").tag("result", "not_modified").register(registry);
+        this.modifiedCounter = Counter.builder("repository_github_conditional_metric").tag("result", "modified").register(registry);
+    }
+
+    public Optional<Validator> find(final RequestKey key) {
+        return Optional.ofNullable(validators.getIfPresent(key));
+    }
+
+    /**
+     * Keeps the validators of a complete response, responses without them forget the previous ones.
+     * */
+    public void remember(final RequestKey key, final HttpHeaders headers) {
+        final String etag = headers.getFirst(HttpHeaders.ETAG);
+        final String lastModified = headers.getFirst(HttpHeaders.LAST_MODIFIED);
+
+        if(etag == null && lastModified == null) {
+            validators.invalidate(key);
+        } else {
+            validators.put(key, new Validator(etag, lastModified));
+        }
+    }
+
+    /**
+     * @param modified --> false when github answered 304
+     * */
+    public void revalidated(final boolean modified) {
+        (modified ? modifiedCounter : notModifiedCounter).increment();
+    }
+}
@@ -0,0 +1,12 @@
+package com.assoni.gateway.repositories.logic.cache;
+
+/**
+ * Notification that a key of a cache changed in the shared store, the replicas drop their local copy so the next read
+ * fetches the new value from the store.
+ *
+ * @param cacheName --> name of the cache
+ * @param key       --> encoded key that changed, null when the whole cache was cleared
+ * @param origin    --> replica that changed the key, it already has the new value locally
+ * */
+public record CacheInvalidation(String cacheName, String key, String origin) {
+}
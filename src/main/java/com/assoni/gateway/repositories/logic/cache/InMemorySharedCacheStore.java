@@ -0,0 +1,95 @@
+package com.assoni.gateway.repositories.logic.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Embedded stand-in of {@link SharedCacheStore}, it is only shared by the caches of the same jvm so it is meant for local runs
+ * and tests, replicas only share entries with a real store.
+ *
+ * Entries are kept in a caffeine cache expiring each one after its own ttl, so keys written once and never read again are
+ * removed as well instead of growing the store forever.
+ * */
+public class InMemorySharedCacheStore implements SharedCacheStore {
+
+    private record Entry(byte[] value, Instant expiresAt) {
+    }
+
+    private final Cache<String, Entry> entries;
+    private final List<Consumer<CacheInvalidation>> listeners = new CopyOnWriteArrayList<>();
+    private final Clock clock;
+
+    public InMemorySharedCacheStore() {
+        this(Clock.systemUTC());
+    }
+
+    public InMemorySharedCacheStore(final Clock clock) {
+        this.clock = clock;
+        this.entries = Caffeine.newBuilder()
+                               .ticker(() -> TimeUnit.MILLISECONDS.toNanos(clock.millis()))
+                               .expireAfter(new Expiry<String, Entry>() {
+                                   @Override
+                                   public long expireAfterCreate(final String key, final Entry entry, final long currentTime) {
+                                       return remainingNanos(entry);
+                                   }
+
+                                   @Override
+                                   public long expireAfterUpdate(final String key, final Entry entry, final long currentTime, final long currentDuration) {
+                                       return remainingNanos(entry);
+                                   }
+
+                                   @Override
+                                   public long expireAfterRead(final String key, final Entry entry, final long currentTime, final long currentDuration) {
+                                       return currentDuration;
+                                   }
+                               })
+                               .build();
+    }
+
+    @Override
+    public Optional<byte[]> get(final String key) {
+        return Optional.ofNullable(entries.getIfPresent(key)).map(Entry::value);
+    }
+
+    @Override
+    public void put(final String key, final byte[] value, final Duration ttl) {
+        entries.put(key, new Entry(value, clock.instant().plus(ttl)));
+    }
+
+    @Override
+    public void evict(final String key) {
+        entries.invalidate(key);
+    }
+
+    @Override
+    public void publish(final CacheInvalidation invalidation) {
+        listeners.forEach(listener -> listener.accept(invalidation));
+    }
+
+    @Override
+    public void subscribe(final Consumer<CacheInvalidation> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * @return amount of entries not expired yet
+     * */
+    public long size() {
+        entries.cleanUp();
+        return entries.estimatedSize();
+    }
+
+    private long remainingNanos(final Entry entry) {
+        return Math.max(0, Duration.between(clock.instant(), entry.expiresAt()).toNanos());
+    }
+}
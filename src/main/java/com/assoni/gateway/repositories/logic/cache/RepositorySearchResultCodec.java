@@ -0,0 +1,160 @@
+package com.assoni.gateway.repositories.logic.cache;
+
+import com.assoni.gateway.repositories.logic.model.RepositoryModel;
+import com.assoni.gateway.repositories.logic.model.RepositorySearchKey;
+import com.assoni.gateway.repositories.logic.model.RepositorySearchResult;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Binary format of repositories_cache entries in the {@link SharedCacheStore}.
+ *
+ * Layout(version 2):
+ *  version(byte) requestedSize(int) dictionarySize(int) dictionary(string...) count(int) repositories...
+ *
+ * Strings are written as their utf-8 length(int) followed by the bytes, writeUTF is limited to 64KB per string which a long
+ * description can exceed. Entries written by another version are rejected and handled as a miss.
+ *
+ * Owner and language repeat a lot inside a search so they are written once in the dictionary and referenced by index, every
+ * repository starts with a bitmask of the present fields followed by them, createdAt is written as utc epoch seconds + nanos.
+ * */
+public class RepositorySearchResultCodec {
+
+    private static final byte VERSION = 2;
+
+    private static final int NAME = 1;
+    private static final int LANGUAGE = 1 << 1;
+    private static final int DESCRIPTION = 1 << 2;
+    private static final int URL = 1 << 3;
+    private static final int OWNER = 1 << 4;
+    private static final int CREATED_AT = 1 << 5;
+    private static final int STARS = 1 << 6;
+
+    private static final String KEY_SEPARATOR = "|";
+
+    /**
+     * @return the key as text, an absent filter is written as an empty value
+     * */
+    public String encodeKey(final RepositorySearchKey key) {
+        return key.createdOn().map(LocalDate::toString).orElse("") + KEY_SEPARATOR + key.language().orElse("");
+    }
+
+    /**
+     * Inverse of {@link #encodeKey(RepositorySearchKey)}
+     * */
+    public RepositorySearchKey decodeKey(final String key) {
+        final int separator = key.indexOf(KEY_SEPARATOR);
+        final String createdOn = key.substring(0, separator);
+        final String language = key.substring(separator + 1);
+
+        return new RepositorySearchKey(createdOn.isEmpty() ? Optional.empty() : Optional.of(LocalDate.parse(createdOn)),
+                                       language.isEmpty() ? Optional.empty() : Optional.of(language));
+    }
+
+    public byte[] encode(final RepositorySearchResult result) {
+        final Map<String, Integer> dictionary = new LinkedHashMap<>();
+        result.repositories().forEach(repository -> {
+            if(repository.getOwner() != null) dictionary.putIfAbsent(repository.getOwner(), dictionary.size());
+            if(repository.getLanguage() != null) dictionary.putIfAbsent(repository.getLanguage(), dictionary.size());
+        });
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 * (result.repositories().size() + 1));
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            output.writeByte(VERSION);
+            output.writeInt(result.requestedSize());
+
+            output.writeInt(dictionary.size());
+            for(String value : dictionary.keySet()) {
+                writeString(output, value);
+            }
+
+            output.writeInt(result.repositories().size());
+            for(RepositoryModel repository : result.repositories()) {
+                output.writeByte(fieldsOf(repository));
+                if(repository.getName() != null) writeString(output, repository.getName());
+                if(repository.getLanguage() != null) output.writeInt(dictionary.get(repository.getLanguage()));
+                if(repository.getDescription() != null) writeString(output, repository.getDescription());
+                if(repository.getUrl() != null) writeString(output, repository.getUrl());
+                if(repository.getOwner() != null) output.writeInt(dictionary.get(repository.getOwner()));
+                if(repository.getCreatedAt() != null) {
+                    output.writeLong(repository.getCreatedAt().toEpochSecond(ZoneOffset.UTC));
+                    output.writeInt(repository.getCreatedAt().getNano());
+                }
+                if(repository.getStars() != null) output.writeInt(repository.getStars());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Fail while encoding the cached repositories", e);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    public RepositorySearchResult decode(final byte[] value) {
+        try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(value))) {
+            final byte version = input.readByte();
+            if(version != VERSION) {
+                throw new IOException("Unknown cached repositories version " + version);
+            }
+
+            final int requestedSize = input.readInt();
+
+            final String[] dictionary = new String[input.readInt()];
+            for(int index = 0; index < dictionary.length; index++) {
+                dictionary[index] = readString(input);
+            }
+
+            final int count = input.readInt();
+            final RepositorySearchResult.Builder repositories = RepositorySearchResult.builder(count);
+            for(int index = 0; index < count; index++) {
+                final int fields = input.readByte();
+                final RepositoryModel repository = new RepositoryModel();
+                if((fields & NAME) != 0) repository.setName(readString(input));
+                if((fields & LANGUAGE) != 0) repository.setLanguage(dictionary[input.readInt()]);
+                if((fields & DESCRIPTION) != 0) repository.setDescription(readString(input));
+                if((fields & URL) != 0) repository.setUrl(readString(input));
+                if((fields & OWNER) != 0) repository.setOwner(dictionary[input.readInt()]);
+                if((fields & CREATED_AT) != 0) repository.setCreatedAt(LocalDateTime.ofEpochSecond(input.readLong(), input.readInt(), ZoneOffset.UTC));
+                if((fields & STARS) != 0) repository.setStars(input.readInt());
+                repositories.add(repository);
+            }
+
+            return repositories.build(requestedSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Fail while decoding the cached repositories", e);
+        }
+    }
+
+    private static void writeString(final DataOutputStream output, final String value) throws IOException {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static String readString(final DataInputStream input) throws IOException {
+        final byte[] bytes = new byte[input.readInt()];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int fieldsOf(final RepositoryModel repository) {
+        return (repository.getName() != null ? NAME : 0)
+             | (repository.getLanguage() != null ? LANGUAGE : 0)
+             | (repository.getDescription() != null ? DESCRIPTION : 0)
+             | (repository.getUrl() != null ? URL : 0)
+             | (repository.getOwner() != null ? OWNER : 0)
+             | (repository.getCreatedAt() != null ? CREATED_AT : 0)
+             | (repository.getStars() != null ? STARS : 0);
+    }
+}
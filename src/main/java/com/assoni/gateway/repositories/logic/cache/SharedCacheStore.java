@@ -0,0 +1,43 @@
+package com.assoni.gateway.repositories.logic.cache;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Second tier(L2) of the cache, shared by every replica of the gateway, such as redis/memcached.
+ *
+ * Values are opaque bytes(see {@link RepositorySearchResultCodec}) and keys are already prefixed by the cache name, besides the
+ * values it carries the invalidation notifications exchanged between the first tiers(L1) of the replicas.
+ * */
+public interface SharedCacheStore {
+
+    /**
+     * @param key --> key prefixed by the cache name
+     *
+     * @return the bytes stored for the key, empty when absent or expired
+     * */
+    Optional<byte[]> get(String key);
+
+    /**
+     * @param key   --> key prefixed by the cache name
+     * @param value --> encoded value
+     * @param ttl   --> time to live of the value in the store
+     * */
+    void put(String key, byte[] value, Duration ttl);
+
+    /**
+     * @param key --> key prefixed by the cache name
+     * */
+    void evict(String key);
+
+    /**
+     * Notifies every subscribed replica, including the publisher, that a key changed.
+     * */
+    void publish(CacheInvalidation invalidation);
+
+    /**
+     * @param listener --> called for every invalidation published by any replica
+     * */
+    void subscribe(Consumer<CacheInvalidation> listener);
+}
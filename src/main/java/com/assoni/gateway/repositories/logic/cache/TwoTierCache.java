@@ -0,0 +1,203 @@
+package com.assoni.gateway.repositories.logic.cache;
+
+import com.assoni.gateway.repositories.logic.model.RepositorySearchKey;
+import com.assoni.gateway.repositories.logic.model.RepositorySearchResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.function.BiConsumer;
+
+/**
+ * Cache of searches in two tiers, the local cache(L1, caffeine) of the replica in front of the {@link SharedCacheStore}(L2)
+ * shared by every replica.
+ *
+ * Reads go to the L1 first and then to the L2, entries found in the L2 are copied to the L1, writes go to both tiers and notify
+ * the other replicas so they drop their L1 copy and read the new value from the L2 next time, a search fetched by one replica
+ * is then served by all of them instead of each one calling the provider. Entries found in the L2 are handed to sharedHitListener
+ * too(the search index of the provider), so they answer narrower searches like the ones fetched by the replica itself.
+ *
+ * The L2 is optional, any failure talking to it is logged and handled as a miss so the replica keeps working with its L1.
+ *
+ * Metrics:
+ *  repository_cache_l2_metric{cache,result=hit|miss|failure} --> lookups in the shared store after a L1 miss
+ *  repository_cache_invalidation_metric{cache}               --> L1 entries dropped because another replica changed them
+ * */
+@Slf4j
+public class TwoTierCache implements Cache {
+
+    @Getter
+    private final Cache local;
+    private final SharedCacheStore sharedStore;
+    private final RepositorySearchResultCodec codec;
+    private final Duration ttl;
+    private final String origin;
+    private final BiConsumer<RepositorySearchKey, RepositorySearchResult> sharedHitListener;
+
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Counter failureCounter;
+    private final Counter invalidationCounter;
+
+    public TwoTierCache(final Cache local, final SharedCacheStore sharedStore, final RepositorySearchResultCodec codec, final Duration ttl, final String origin,
+                        final BiConsumer<RepositorySearchKey, RepositorySearchResult> sharedHitListener, final MeterRegistry registry) {
+        this.local = local;
+        this.sharedStore = sharedStore;
+        this.codec = codec;
+        this.ttl = ttl;
+        this.origin = origin;
+        this.sharedHitListener = sharedHitListener;
+
+        this.hitCounter = Counter.builder("repository_cache_l2_metric").tag("cache", local.getName()).tag("result", "hit").register(registry);
+        this.missCounter = Counter.builder("repository_cache_l2_metric").tag("cache", local.getName()).tag("result", "miss").register(registry);
+        this.failureCounter = Counter.builder("repository_cache_l2_metric").tag("cache", local.getName()).tag("result", "failure").register(registry);
+        this.invalidationCounter = Counter.builder("repository_cache_invalidation_metric").tag("cache", local.getName()).register(registry);
+
+        sharedStore.subscribe(this::onInvalidation);
+    }
+
+    @Override
+    public String getName() {
+        return local.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return local.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(final Object key) {
+        final ValueWrapper cached = local.get(key);
+        if(cached != null) {
+            return cached;
+        }
+
+        return fetchShared(key).map(shared -> {
+            local.put(key, shared);
+            return new SimpleValueWrapper(shared);
+        }).orElse(null);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(final Object key, final Class<T> type) {
+        final ValueWrapper cached = get(key);
+        final Object value = cached == null ? null : cached.get();
+        if(value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(final Object key, final Callable<T> valueLoader) {
+        return local.get(key, () -> {
+            final Optional<RepositorySearchResult> shared = fetchShared(key);
+            if(shared.isPresent()) {
+                return (T) shared.get();
+            }
+
+            final T loaded = valueLoader.call();
+            share(key, loaded);
+            return loaded;
+        });
+    }
+
+    @Override
+    public void put(final Object key, final Object value) {
+        local.put(key, value);
+        share(key, value);
+    }
+
+    @Override
+    public void evict(final Object key) {
+        local.evict(key);
+        if(key instanceof RepositorySearchKey searchKey) {
+            onShared(() -> {
+                final String encoded = codec.encodeKey(searchKey);
+                sharedStore.evict(sharedKeyOf(encoded));
+                sharedStore.publish(new CacheInvalidation(getName(), encoded, origin));
+            });
+        }
+    }
+
+    /**
+     * Only the L1 of the replicas is cleared, entries of the L2 expire by their ttl.
+     * */
+    @Override
+    public void clear() {
+        local.clear();
+        onShared(() -> sharedStore.publish(new CacheInvalidation(getName(), null, origin)));
+    }
+
+    /**
+     * Writes the value to the L2 and notifies the other replicas without touching the L1, used when the L1 was already updated
+     * by caffeine itself such as in a refresh-ahead reload.
+     *
+     * @param key   --> search key
+     * @param value --> new value of the search
+     * */
+    public void share(final Object key, final Object value) {
+        if(!(key instanceof RepositorySearchKey searchKey) || !(value instanceof RepositorySearchResult result)) {
+            return;
+        }
+
+        onShared(() -> {
+            final String encoded = codec.encodeKey(searchKey);
+            sharedStore.put(sharedKeyOf(encoded), codec.encode(result), ttl);
+            sharedStore.publish(new CacheInvalidation(getName(), encoded, origin));
+        });
+    }
+
+    private Optional<RepositorySearchResult> fetchShared(final Object key) {
+        if(!(key instanceof RepositorySearchKey searchKey)) {
+            return Optional.empty();
+        }
+
+        try {
+            final Optional<RepositorySearchResult> shared = sharedStore.get(sharedKeyOf(codec.encodeKey(searchKey))).map(codec::decode);
+            (shared.isPresent() ? hitCounter : missCounter).increment();
+            shared.ifPresent(result -> sharedHitListener.accept(searchKey, result));
+            return shared;
+        } catch (RuntimeException e) {
+            failureCounter.increment();
+            log.warn("Fail while reading {} from the shared cache, handling it as a miss", key, e);
+            return Optional.empty();
+        }
+    }
+
+    private void onInvalidation(final CacheInvalidation invalidation) {
+        if(!getName().equals(invalidation.cacheName()) || origin.equals(invalidation.origin())) {
+            return;
+        }
+
+        invalidationCounter.increment();
+        if(invalidation.key() == null) {
+            local.clear();
+        } else {
+            local.evict(codec.decodeKey(invalidation.key()));
+        }
+    }
+
+    private void onShared(final Runnable operation) {
+        try {
+            operation.run();
+        } catch (RuntimeException e) {
+            failureCounter.increment();
+            log.warn("Fail while writing to the shared cache of {}, keeping only the local copy", getName(), e);
+        }
+    }
+
+    private String sharedKeyOf(final String encodedKey) {
+        return getName() + "::" + encodedKey;
+    }
+}
@@ -0,0 +1,58 @@
+package com.assoni.gateway.repositories.logic.cache;
+
+import com.assoni.gateway.repositories.logic.model.RepositorySearchKey;
+import com.assoni.gateway.repositories.logic.model.RepositorySearchResult;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiConsumer;
+
+/**
+ * Decorates the local cache manager putting a {@link TwoTierCache} in front of the caches listed in tieredCaches, the other
+ * caches stay local only.
+ * */
+public class TwoTierCacheManager implements CacheManager {
+
+    private final CacheManager localCacheManager;
+    private final Set<String> tieredCaches;
+    private final SharedCacheStore sharedStore;
+    private final RepositorySearchResultCodec codec;
+    private final Duration ttl;
+    private final BiConsumer<RepositorySearchKey, RepositorySearchResult> sharedHitListener;
+    private final MeterRegistry registry;
+    private final String origin = UUID.randomUUID().toString();
+    private final ConcurrentMap<String, TwoTierCache> caches = new ConcurrentHashMap<>();
+
+    public TwoTierCacheManager(final CacheManager localCacheManager, final Set<String> tieredCaches, final SharedCacheStore sharedStore, final Duration ttl,
+                               final BiConsumer<RepositorySearchKey, RepositorySearchResult> sharedHitListener, final MeterRegistry registry) {
+        this.localCacheManager = localCacheManager;
+        this.tieredCaches = Set.copyOf(tieredCaches);
+        this.sharedStore = sharedStore;
+        this.codec = new RepositorySearchResultCodec();
+        this.ttl = ttl;
+        this.sharedHitListener = sharedHitListener;
+        this.registry = registry;
+    }
+
+    @Override
+    public Cache getCache(final String name) {
+        final Cache local = localCacheManager.getCache(name);
+        if(local == null || !tieredCaches.contains(name)) {
+            return local;
+        }
+
+        return caches.computeIfAbsent(name, tiered -> new TwoTierCache(local, sharedStore, codec, ttl, origin, sharedHitListener, registry));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return localCacheManager.getCacheNames();
+    }
+}
@@ -0,0 +1,144 @@
+package com.assoni.gateway.repositories.logic.concurrency;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Adaptive limit(AIMD) of the calls in flight to the provider, so a slow github sheds the excess at once instead of piling
+ * requests(and server threads) up until the client timeout.
+ *
+ * Every call is a latency sample:
+ *  success within maxLatency --> the limit grows by 1/limit(about one per round of calls) while the calls in flight use at
+ *                                least half of it
+ *  failure or above maxLatency --> the limit is multiplied by backoffRatio
+ *  cancelled --> ignored
+ *
+ * The limit stays between minLimit and maxLimit, calls above it fail with {@link RepositoryOverloadException} without reaching
+ * the provider. Only the calls that would go upstream are limited, cache hits never pass by it.
+ *
+ * Metrics:
+ *  repository_concurrency_limit --> current limit
+ *  repository_concurrency_inflight --> calls in flight
+ *  repository_concurrency_shed_metric --> calls shed because the limit was reached
+ * */
+@Component
+public class AdaptiveConcurrencyLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long maxLatencyNanos;
+    private final double backoffRatio;
+    private final Duration retryAfter;
+
+    private final Counter shedCounter;
+
+    private double limit;
+    private int inFlight;
+
+    @Autowired
+    public AdaptiveConcurrencyLimiter(final MeterRegistry registry,
+                                      @Value("${provider.limiter.initialLimit}") final Integer initialLimit,
+                                      @Value("${provider.limiter.minLimit}") final Integer minLimit,
+                                      @Value("${provider.limiter.maxLimit}") final Integer maxLimit,
+                                      @Value("${provider.limiter.maxLatency}") final Long maxLatencyMillis,
+                                      @Value("${provider.limiter.backoffRatio}") final Double backoffRatio,
+                                      @Value("${provider.limiter.retryAfter}") final Long retryAfterMillis) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.maxLatencyNanos = TimeUnit.MILLISECONDS.toNanos(maxLatencyMillis);
+        this.backoffRatio = backoffRatio;
+        this.retryAfter = Duration.ofMillis(retryAfterMillis);
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+
+        Gauge.builder("repository_concurrency_limit", this, AdaptiveConcurrencyLimiter::getLimit).register(registry);
+        Gauge.builder("repository_concurrency_inflight", this, AdaptiveConcurrencyLimiter::getInFlight).register(registry);
+        this.shedCounter = Counter.builder("repository_concurrency_shed_metric").register(registry);
+    }
+
+    /**
+     * Blocking version of {@link #limit(Mono)}.
+     * */
+    public <T> T limit(final Supplier<T> call) {
+        final long start = acquire();
+        boolean success = false;
+        try {
+            final T result = call.get();
+            success = true;
+            return result;
+        } finally {
+            release(start, success ? SignalType.ON_COMPLETE : SignalType.ON_ERROR);
+        }
+    }
+
+    /**
+     * @return Mono failing with {@link RepositoryOverloadException} when the limit is reached, the call is only subscribed otherwise
+     * */
+    public <T> Mono<T> limit(final Mono<T> call) {
+        return Mono.defer(() -> {
+            final long start = acquire();
+            return call.doFinally(signal -> release(start, signal));
+        });
+    }
+
+    /**
+     * @return Flux failing with {@link RepositoryOverloadException} when the limit is reached, the call is only subscribed otherwise
+     * */
+    public <T> Flux<T> limit(final Flux<T> call) {
+        return Flux.defer(() -> {
+            final long start = acquire();
+            return call.doFinally(signal -> release(start, signal));
+        });
+    }
+
+    /**
+     * @return System.nanoTime() when the call was accepted
+     * */
+    private long acquire() {
+        synchronized (this) {
+            if(inFlight < (int) limit) {
+                inFlight++;
+                return System.nanoTime();
+            }
+        }
+
+        shedCounter.increment();
+        throw new RepositoryOverloadException("Provider concurrency limit reached, call shed", retryAfter);
+    }
+
+    synchronized void release(final long startNanos, final SignalType signal) {
+        final int utilized = inFlight--;
+
+        if(signal == SignalType.CANCEL) {
+            return;
+        }
+
+        if(signal == SignalType.ON_ERROR || System.nanoTime() - startNanos > maxLatencyNanos) {
+            limit = Math.max(minLimit, limit * backoffRatio);
+        } else if(utilized * 2 >= limit) {
+            limit = Math.min(maxLimit, limit + 1 / limit);
+        }
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    public synchronized double getLimit() {
+        return limit;
+    }
+
+    public synchronized double getInFlight() {
+        return inFlight;
+    }
+}
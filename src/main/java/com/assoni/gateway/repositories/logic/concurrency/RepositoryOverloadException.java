@@ -0,0 +1,20 @@
+package com.assoni.gateway.repositories.logic.concurrency;
+
+import java.time.Duration;
+
+/**
+ * Raised when a call to the provider is shed by {@link AdaptiveConcurrencyLimiter} because the concurrency limit is reached, the
+ * caller should try again after retryAfter.
+ * */
+public class RepositoryOverloadException extends RuntimeException {
+    private final Duration retryAfter;
+
+    public RepositoryOverloadException(final String message, final Duration retryAfter) {
+        super(message, null, false, false);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,153 @@
+package com.assoni.gateway.repositories.logic.concurrency;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight helper, concurrent callers asking for the same key while a call is still in flight share its result instead of
+ * firing their own upstream request.
+ *
+ * The first caller of a key becomes the leader and executes the call, every caller arriving before the leader finishes is
+ * coalesced and receives the same result (or the same failure). Once the call completes the key is released, so the next
+ * caller triggers a fresh call.
+ *
+ * Metrics:
+ *  repository_upstream_request_metric{role=leader}    --> calls that really reached the provider
+ *  repository_upstream_request_metric{role=coalesced} --> calls that were served by an in-flight leader
+ * */
+@Component
+public class RequestCoalescer {
+    private final ConcurrentMap<Object, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Object, Flux<Object>> inFlightStreams = new ConcurrentHashMap<>();
+
+    private final Counter leaderCounter;
+    private final Counter coalescedCounter;
+
+    public RequestCoalescer(final MeterRegistry registry) {
+        this.leaderCounter = Counter.builder("repository_upstream_request_metric").tag("role", "leader").register(registry);
+        this.coalescedCounter = Counter.builder("repository_upstream_request_metric").tag("role", "coalesced").register(registry);
+    }
+
+    /**
+     * Executes the call once per key no matter how many threads ask for it at the same time.
+     *
+     * @param key  --> identity of the call, must implement equals/hashCode
+     * @param call --> the expensive call to be shared
+     *
+     * @return T result of the call executed by the leader
+     * */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(final Object key, final Supplier<T> call) {
+        final CompletableFuture<Object> candidate = new CompletableFuture<>();
+        final CompletableFuture<Object> current = inFlight.putIfAbsent(key, candidate);
+
+        if(current != null) {
+            coalescedCounter.increment();
+            return (T) join(current);
+        }
+
+        leaderCounter.increment();
+        try {
+            final T result = call.get();
+            candidate.complete(result);
+            return result;
+        } catch (RuntimeException | Error failure) {
+            candidate.completeExceptionally(failure);
+            throw failure;
+        } finally {
+            inFlight.remove(key, candidate);
+        }
+    }
+
+    /**
+     * Non-blocking version of {@link #execute(Object, Supplier)}, the key is claimed when the returned mono is subscribed and
+     * callers arriving while the leader is in flight subscribe to the leader's result instead of calling upstream.
+     *
+     * The call is subscribed on its own with the context of the leader(so it keeps the leader's priority), a caller cancelling
+     * only drops its own subscription and the shared call always runs to completion for the callers still waiting for it.
+     *
+     * Blocking and non-blocking callers of the same key share the same in-flight call.
+     *
+     * @param key  --> identity of the call, must implement equals/hashCode
+     * @param call --> the expensive call to be shared
+     *
+     * @return Mono<T> result of the call executed by the leader
+     * */
+    @SuppressWarnings("unchecked")
+    public <T> Mono<T> executeAsync(final Object key, final Supplier<Mono<T>> call) {
+        return Mono.deferContextual(context -> {
+            final CompletableFuture<Object> candidate = new CompletableFuture<>();
+            final CompletableFuture<Object> current = inFlight.putIfAbsent(key, candidate);
+
+            if(current != null) {
+                coalescedCounter.increment();
+                return Mono.fromFuture(current.copy()).map(result -> (T) result);
+            }
+
+            leaderCounter.increment();
+            Mono.defer(call)
+                .contextWrite(context)
+                .doFinally(signal -> inFlight.remove(key, candidate))
+                .subscribe(candidate::complete, candidate::completeExceptionally, () -> candidate.complete(null));
+
+            return Mono.fromFuture(candidate.copy()).map(result -> (T) result);
+        });
+    }
+
+    /**
+     * Streaming version of {@link #executeAsync(Object, Supplier)}, callers arriving while the leader is in flight receive every
+     * element already emitted followed by the rest of the stream, the upstream call is cancelled only when every caller cancels.
+     *
+     * Streams are coalesced among themselves, they don't share in-flight calls with {@link #execute(Object, Supplier)}.
+     *
+     * @param key  --> identity of the call, must implement equals/hashCode
+     * @param call --> the expensive call to be shared
+     *
+     * @return Flux<T> elements emitted by the call executed by the leader
+     * */
+    @SuppressWarnings("unchecked")
+    public <T> Flux<T> executeStream(final Object key, final Supplier<Flux<T>> call) {
+        return Flux.defer(() -> {
+            final AtomicReference<Flux<Object>> self = new AtomicReference<>();
+            final Flux<Object> candidate = Flux.defer(call::get)
+                                               .cast(Object.class)
+                                               .doFinally(signal -> inFlightStreams.remove(key, self.get()))
+                                               .replay()
+                                               .refCount();
+            self.set(candidate);
+
+            final Flux<Object> current = inFlightStreams.putIfAbsent(key, candidate);
+            if(current != null) {
+                coalescedCounter.increment();
+                return current.map(element -> (T) element);
+            }
+
+            leaderCounter.increment();
+            return candidate.map(element -> (T) element);
+        });
+    }
+
+    private Object join(final CompletableFuture<Object> future) {
+        try {
+            return future.join();
+        } catch (CompletionException failure) {
+            if(failure.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if(failure.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw failure;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.assoni.gateway.repositories.logic.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Latency of every stage of a search, so the p99 of a request can be split into the time spent in each one.
+ *
+ * Timers are tagged by the cache outcome of the search and by its language, only the languages of metrics.repositories.languages
+ * keep their own tag value, any other one is tagged as other so users can not create a series per language they type.
+ *
+ * Percentile histograms and slo buckets are configured by the management.metrics.distribution.*.repository_latency_metric
+ * properties and exposed on the actuator port, the controller stage is the http.server.requests timer of spring
+ * (tagged by language by {@link RepositoryLatencyTagsContributor}) and the connection time to github is the
+ * reactor.netty.http.client.connect.time timer of reactor netty.
+ *
+ * Metrics:
+ *  repository_latency_metric{stage, cache=hit|index|miss|none, language} --> time spent in the stage
+ * */
+@Component
+public class RepositoryLatencyMetrics {
+    public static final String LATENCY_METRIC = "repository_latency_metric";
+
+    /**
+     * Attribute of the github requests holding the language of the search(Optional<String>), used to tag the upstream stages.
+     * */
+    public static final String LANGUAGE_ATTRIBUTE = RepositoryLatencyMetrics.class.getName() + ".language";
+
+    private static final String NO_LANGUAGE = "none";
+    private static final String OTHER_LANGUAGE = "other";
+
+    public enum Stage {
+        // lookup in repositories_cache and in the index of fetched searches
+        CACHE_LOOKUP,
+        // searches missing in the cache, from the first github call(or the in-flight one) until every page is fetched
+        UPSTREAM,
+        // from sending a github call until its response headers arrive
+        UPSTREAM_FIRST_BYTE,
+        // from the response headers of a github call until its whole body arrives
+        UPSTREAM_BODY,
+        // time spent tokenizing github bodies into repositories
+        DESERIALIZATION,
+        // models of the provider mapped to the dtos of the api
+        MAPPING,
+        // last known good response served while the provider is failing
+        FALLBACK;
+
+        private final String tag = name().toLowerCase(Locale.ROOT);
+    }
+
+    public enum CacheOutcome {
+        HIT,
+        INDEX,
+        MISS,
+        // stage that is not tied to the outcome of the cache
+        NONE;
+
+        private final String tag = name().toLowerCase(Locale.ROOT);
+    }
+
+    private record TimerKey(Stage stage, CacheOutcome outcome, String language) {
+    }
+
+    private final MeterRegistry registry;
+    private final Set<String> languages;
+    private final Map<TimerKey, Timer> timers = new ConcurrentHashMap<>();
+
+    public RepositoryLatencyMetrics(final MeterRegistry registry, @Value("${metrics.repositories.languages}") final List<String> languages) {
+        this.registry = registry;
+        this.languages = languages.stream().map(language -> language.trim().toLowerCase(Locale.ROOT)).filter(language -> !language.isEmpty()).collect(Collectors.toUnmodifiableSet());
+    }
+
+    /**
+     * @return language tag of the search, other when it is not one of metrics.repositories.languages
+     * */
+    public String languageTag(final Optional<String> language) {
+        if(language == null || language.isEmpty()) {
+            return NO_LANGUAGE;
+        }
+
+        final String normalized = language.get().trim().toLowerCase(Locale.ROOT);
+        return languages.contains(normalized) ? normalized : OTHER_LANGUAGE;
+    }
+
+    public Timer timer(final Stage stage, final CacheOutcome outcome, final Optional<String> language) {
+        return timers.computeIfAbsent(new TimerKey(stage, outcome, languageTag(language)), key -> Timer.builder(LATENCY_METRIC)
+                                                                                                      .tag("stage", key.stage().tag)
+                                                                                                      .tag("cache", key.outcome().tag)
+                                                                                                      .tag("language", key.language())
+                                                                                                      .register(registry));
+    }
+
+    /**
+     * @param startNanos --> System.nanoTime() when the stage started
+     * */
+    public void recordSince(final Stage stage, final CacheOutcome outcome, final Optional<String> language, final long startNanos) {
+        record(stage, outcome, language, System.nanoTime() - startNanos);
+    }
+
+    public void record(final Stage stage, final CacheOutcome outcome, final Optional<String> language, final long nanos) {
+        timer(stage, outcome, language).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public <T> T record(final Stage stage, final CacheOutcome outcome, final Optional<String> language, final Supplier<T> supplier) {
+        final long start = System.nanoTime();
+        try {
+            return supplier.get();
+        } finally {
+            recordSince(stage, outcome, language, start);
+        }
+    }
+
+    /**
+     * Times the mono from its subscription until it terminates or is cancelled.
+     * */
+    public <T> Mono<T> record(final Stage stage, final CacheOutcome outcome, final Optional<String> language, final Mono<T> mono) {
+        return Mono.defer(() -> {
+            final long start = System.nanoTime();
+            return mono.doFinally(signal -> recordSince(stage, outcome, language, start));
+        });
+    }
+
+    /**
+     * Times the flux from its subscription until it terminates or is cancelled.
+     * */
+    public <T> Flux<T> record(final Stage stage, final CacheOutcome outcome, final Optional<String> language, final Flux<T> flux) {
+        return Flux.defer(() -> {
+            final long start = System.nanoTime();
+            return flux.doFinally(signal -> recordSince(stage, outcome, language, start));
+        });
+    }
+
+    /**
+     * Filter for the github web client timing the first byte(response headers) and the body of every call, it has to be the last
+     * filter so the time waiting for the rate limit governor is not counted.
+     * */
+    @SuppressWarnings("unchecked")
+    public ExchangeFilterFunction upstreamFilter() {
+        return (request, next) -> {
+            final Optional<String> language = (Optional<String>) request.attribute(LANGUAGE_ATTRIBUTE).orElse(Optional.empty());
+
+            return Mono.defer(() -> {
+                final long start = System.nanoTime();
+                return next.exchange(request).map(response -> {
+                    final long headersAt = System.nanoTime();
+                    record(Stage.UPSTREAM_FIRST_BYTE, CacheOutcome.MISS, language, headersAt - start);
+
+                    return response.mutate().body(body -> body.doFinally(signal -> recordSince(Stage.UPSTREAM_BODY, CacheOutcome.MISS, language, headersAt))).build();
+                });
+            });
+        };
+    }
+}
@@ -0,0 +1,35 @@
+package com.assoni.gateway.repositories.logic.metrics;
+
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import lombok.AllArgsConstructor;
+import org.springframework.boot.actuate.metrics.web.servlet.WebMvcTagsContributor;
+import org.springframework.stereotype.Component;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.Optional;
+
+/**
+ * Adds the language of the search to http.server.requests, the timer of the controller stage, with the same cardinality limit
+ * of {@link RepositoryLatencyMetrics}.
+ * */
+@Component
+@AllArgsConstructor
+public class RepositoryLatencyTagsContributor implements WebMvcTagsContributor {
+    private final RepositoryLatencyMetrics repositoryLatencyMetrics;
+
+    @Override
+    public Iterable<Tag> getTags(final HttpServletRequest request, final HttpServletResponse response, final Object handler, final Throwable exception) {
+        return languageOf(request);
+    }
+
+    @Override
+    public Iterable<Tag> getLongRequestTags(final HttpServletRequest request, final Object handler) {
+        return languageOf(request);
+    }
+
+    private Tags languageOf(final HttpServletRequest request) {
+        return Tags.of("language", repositoryLatencyMetrics.languageTag(Optional.ofNullable(request.getParameter("language"))));
+    }
+}
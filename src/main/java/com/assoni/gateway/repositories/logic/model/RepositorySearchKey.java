@@ -0,0 +1,11 @@
+package com.assoni.gateway.repositories.logic.model;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+/**
+ * Identity of a search in repositories_cache, the size is not part of it because results are sorted by stars so every size of
+ * the same filter is a prefix of the same list.
+ * */
+public record RepositorySearchKey(Optional<LocalDate> createdOn, Optional<String> language) {
+}
@@ -0,0 +1,314 @@
+package com.assoni.gateway.repositories.logic.model;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * Largest prefix fetched for a search, smaller sizes of the same search are answered by slicing it.
+ *
+ * This is the value kept in repositories_cache so it is stored in columns instead of a list of {@link RepositoryModel}: stars and
+ * creation time(utc epoch seconds) are primitive arrays and owner/language, which repeat a lot, are indexes of a dictionary
+ * holding each distinct value of the search once. Values are not interned, owners and languages come from users and github, a
+ * jvm wide table would keep them forever. Repositories are only materialized when the slice is read.
+ *
+ * Github sends creation times with second precision, the nanoseconds of a creation time are only kept(in a column allocated on
+ * demand) when some repository has them, so a result always materializes the same creation time it was built with.
+ * */
+public final class RepositorySearchResult {
+
+    private static final int ABSENT = -1;
+    private static final int NO_STARS = Integer.MIN_VALUE;
+    private static final long NO_CREATED_AT = Long.MIN_VALUE;
+
+    private static final int OBJECT_BYTES = 16;
+    private static final int STRING_BYTES = 40;
+
+    private final int requestedSize;
+    private final int size;
+
+    private final String[] dictionary;
+    private final int[] owners;
+    private final int[] languages;
+
+    private final String[] names;
+    private final String[] descriptions;
+    private final String[] urls;
+    private final int[] stars;
+    private final long[] createdAt;
+    private final int[] createdAtNanos;
+
+    private final int estimatedBytes;
+
+    // creation times in ascending order, only computed when the result is filtered by creation date
+    private volatile long[] createdAtAscending;
+
+    /**
+     * @param repositories  --> repositories sorted by stars
+     * @param requestedSize --> size asked to the provider, when it answered with less repositories the search has no more results
+     * */
+    public RepositorySearchResult(final List<RepositoryModel> repositories, final int requestedSize) {
+        this(fill(builder(repositories.size()), repositories), requestedSize);
+    }
+
+    private RepositorySearchResult(final Builder builder, final int requestedSize) {
+        this.requestedSize = requestedSize;
+        this.size = builder.size;
+
+        this.owners = Arrays.copyOf(builder.owners, size);
+        this.languages = Arrays.copyOf(builder.languages, size);
+        this.names = Arrays.copyOf(builder.names, size);
+        this.descriptions = Arrays.copyOf(builder.descriptions, size);
+        this.urls = Arrays.copyOf(builder.urls, size);
+        this.stars = Arrays.copyOf(builder.stars, size);
+        this.createdAt = Arrays.copyOf(builder.createdAt, size);
+        this.createdAtNanos = builder.createdAtNanos == null ? null : Arrays.copyOf(builder.createdAtNanos, size);
+
+        this.dictionary = new String[builder.entries.size()];
+        builder.entries.forEach((value, entry) -> dictionary[entry] = value);
+
+        this.estimatedBytes = estimateBytes();
+    }
+
+    /**
+     * Builds a result while the repositories arrive, each {@link RepositoryModel} is turned into columns as soon as it is added
+     * so only the columns(and not the models) of the whole search are kept until the result is built.
+     *
+     * @param expectedSize --> amount of repositories expected, the columns grow when more arrive
+     * */
+    public static Builder builder(final int expectedSize) {
+        return new Builder(expectedSize);
+    }
+
+    /**
+     * @return every repository known of the search
+     * */
+    public List<RepositoryModel> repositories() {
+        return slice(size);
+    }
+
+    public int requestedSize() {
+        return requestedSize;
+    }
+
+    /**
+     * @return true when the provider answered with less repositories than requested, so every repository of the search is known
+     * */
+    public boolean isComplete() {
+        return size < requestedSize;
+    }
+
+    /**
+     * @return true when the first size repositories of the search are known
+     * */
+    public boolean covers(final int size) {
+        return this.size >= size || this.size < requestedSize;
+    }
+
+    /**
+     * @return read only view of the first size repositories of the search, each access materializes a new {@link RepositoryModel}
+     * */
+    public List<RepositoryModel> slice(final int size) {
+        return new Slice(null, Math.min(size, this.size));
+    }
+
+    /**
+     * @param createdOn --> same meaning of the createdOn filter of the search, only repositories created after the date are counted
+     *
+     * @return amount of known repositories created after the date
+     * */
+    public int countCreatedAfter(final LocalDate createdOn) {
+        long[] ascending = createdAtAscending;
+        if(ascending == null) {
+            ascending = createdAt.clone();
+            Arrays.sort(ascending);
+            createdAtAscending = ascending;
+        }
+
+        final long threshold = startOfDayAfter(createdOn);
+        int low = 0;
+        int high = ascending.length;
+        while(low < high) {
+            final int middle = (low + high) >>> 1;
+            if(ascending[middle] < threshold) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        return ascending.length - low;
+    }
+
+    /**
+     * Answers a narrower search, the known repositories created after the date keep the star order of this search.
+     *
+     * @param createdOn --> same meaning of the createdOn filter of the search
+     * @param size      --> maximum amount of repositories
+     *
+     * @return read only view of the first size repositories created after the date
+     * */
+    public List<RepositoryModel> sliceCreatedAfter(final LocalDate createdOn, final int size) {
+        final long threshold = startOfDayAfter(createdOn);
+        final int[] positions = new int[Math.min(size, this.size)];
+
+        int found = 0;
+        for(int index = 0; index < this.size && found < positions.length; index++) {
+            if(createdAt[index] >= threshold) {
+                positions[found++] = index;
+            }
+        }
+
+        return new Slice(positions, found);
+    }
+
+    /**
+     * @return true when this result knows at least as many repositories of the search as the other one
+     * */
+    public boolean isAtLeastAsLargeAs(final RepositorySearchResult other) {
+        return other == null || requestedSize >= other.requestedSize();
+    }
+
+    /**
+     * @return approximated amount of heap retained by this result, dictionary values included
+     * */
+    public int estimatedBytes() {
+        return estimatedBytes;
+    }
+
+    private RepositoryModel materialize(final int index) {
+        return RepositoryModel.builder()
+                              .name(names[index])
+                              .owner(owners[index] == ABSENT ? null : dictionary[owners[index]])
+                              .language(languages[index] == ABSENT ? null : dictionary[languages[index]])
+                              .description(descriptions[index])
+                              .url(urls[index])
+                              .stars(stars[index] == NO_STARS ? null : stars[index])
+                              .createdAt(createdAt[index] == NO_CREATED_AT ? null : LocalDateTime.ofEpochSecond(createdAt[index], createdAtNanos == null ? 0 : createdAtNanos[index], ZoneOffset.UTC))
+                              .build();
+    }
+
+    private static Builder fill(final Builder builder, final List<RepositoryModel> repositories) {
+        repositories.forEach(builder::add);
+        return builder;
+    }
+
+    private static int entryOf(final Map<String, Integer> entries, final String value) {
+        return value == null ? ABSENT : entries.computeIfAbsent(value, entry -> entries.size());
+    }
+
+    private int estimateBytes() {
+        long bytes = OBJECT_BYTES * 2L + OBJECT_BYTES * 8L + (long) size * (4 * 3 + 8) + (long) (size * 3 + dictionary.length) * 4
+                   + (createdAtNanos == null ? 0 : OBJECT_BYTES + (long) size * 4);
+        for(int index = 0; index < size; index++) {
+            bytes += bytesOf(names[index]) + bytesOf(descriptions[index]) + bytesOf(urls[index]);
+        }
+        for(String value : dictionary) {
+            bytes += bytesOf(value);
+        }
+
+        return (int) Math.min(bytes, Integer.MAX_VALUE);
+    }
+
+    private static long startOfDayAfter(final LocalDate createdOn) {
+        return createdOn.plusDays(1).atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static long bytesOf(final String value) {
+        return value == null ? 0 : STRING_BYTES + value.length();
+    }
+
+    public static final class Builder {
+        private final Map<String, Integer> entries = new HashMap<>();
+        private int size;
+
+        private int[] owners;
+        private int[] languages;
+        private String[] names;
+        private String[] descriptions;
+        private String[] urls;
+        private int[] stars;
+        private long[] createdAt;
+        private int[] createdAtNanos;
+
+        private Builder(final int expectedSize) {
+            allocate(Math.max(expectedSize, 1));
+        }
+
+        /**
+         * @param repository --> next repository of the search, repositories must be added sorted by stars
+         * */
+        public Builder add(final RepositoryModel repository) {
+            if(size == names.length) {
+                allocate(size * 2);
+            }
+
+            owners[size] = entryOf(entries, repository.getOwner());
+            languages[size] = entryOf(entries, repository.getLanguage());
+            names[size] = repository.getName();
+            descriptions[size] = repository.getDescription();
+            urls[size] = repository.getUrl();
+            stars[size] = repository.getStars() == null ? NO_STARS : repository.getStars();
+            createdAt[size] = repository.getCreatedAt() == null ? NO_CREATED_AT : repository.getCreatedAt().toEpochSecond(ZoneOffset.UTC);
+            if(repository.getCreatedAt() != null && repository.getCreatedAt().getNano() != 0) {
+                if(createdAtNanos == null) {
+                    createdAtNanos = new int[names.length];
+                }
+                createdAtNanos[size] = repository.getCreatedAt().getNano();
+            }
+            size++;
+            return this;
+        }
+
+        /**
+         * @param requestedSize --> same meaning of {@link RepositorySearchResult#RepositorySearchResult(List, int)}
+         * */
+        public RepositorySearchResult build(final int requestedSize) {
+            return new RepositorySearchResult(this, requestedSize);
+        }
+
+        private void allocate(final int capacity) {
+            owners = owners == null ? new int[capacity] : Arrays.copyOf(owners, capacity);
+            languages = languages == null ? new int[capacity] : Arrays.copyOf(languages, capacity);
+            names = names == null ? new String[capacity] : Arrays.copyOf(names, capacity);
+            descriptions = descriptions == null ? new String[capacity] : Arrays.copyOf(descriptions, capacity);
+            urls = urls == null ? new String[capacity] : Arrays.copyOf(urls, capacity);
+            stars = stars == null ? new int[capacity] : Arrays.copyOf(stars, capacity);
+            createdAt = createdAt == null ? new long[capacity] : Arrays.copyOf(createdAt, capacity);
+            createdAtNanos = createdAtNanos == null ? null : Arrays.copyOf(createdAtNanos, capacity);
+        }
+    }
+
+    /**
+     * View over the repositories at the given positions, or over the first ones when there are no positions.
+     * */
+    private final class Slice extends AbstractList<RepositoryModel> implements RandomAccess {
+        private final int[] positions;
+        private final int size;
+
+        private Slice(final int[] positions, final int size) {
+            this.positions = positions;
+            this.size = size;
+        }
+
+        @Override
+        public RepositoryModel get(final int index) {
+            if(index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+
+            return materialize(positions == null ? index : positions[index]);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.assoni.gateway.repositories.logic.prewarm;
+
+import com.assoni.gateway.repositories.dto.RepositorySearchRequestDTO;
+import com.assoni.gateway.repositories.logic.GitHubRepositoryProvider;
+import com.assoni.gateway.repositories.logic.api.GitHubRateLimitGovernor;
+import com.assoni.gateway.repositories.logic.model.RepositorySearchKey;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the most requested searches warm so users almost never wait for github on them.
+ *
+ *  startup --> the searches of cache.repositories.prewarm.startupLanguages are fetched before the application reports itself as
+ *              ready(runners are called before the readiness probe accepts traffic), bounded by startupTimeout, with the size
+ *              users get when they do not send one({@link RepositorySearchRequestDTO#DEFAULT_SIZE})
+ *  interval --> the top searches of {@link RepositorySearchPopularity} missing in the cache are fetched again, each one after a
+ *               random jitter so replicas do not hit github at the same time, and the popularity is decayed
+ *
+ * Warm up calls are background calls for {@link GitHubRateLimitGovernor}, they are shed instead of consuming the budget reserved
+ * to users, and a failure only skips the search until the next interval.
+ *
+ * Metrics:
+ *  repository_cache_prewarm_metric{status=warmed|cached|failure} --> searches handled by the warm up
+ * */
+@Slf4j
+@Component
+@ConditionalOnProperty(value = "cache.repositories.prewarm.enabled", havingValue = "true")
+public class RepositoryPrewarmScheduler implements ApplicationRunner {
+
+    private final GitHubRepositoryProvider gitHubRepositoryProvider;
+    private final RepositorySearchPopularity repositorySearchPopularity;
+    private final List<String> startupLanguages;
+    private final Duration startupTimeout;
+    private final long jitterMillis;
+    private final int concurrency;
+
+    private final Counter warmedCounter;
+    private final Counter cachedCounter;
+    private final Counter failureCounter;
+
+    @Autowired
+    public RepositoryPrewarmScheduler(final GitHubRepositoryProvider gitHubRepositoryProvider,
+                                      final RepositorySearchPopularity repositorySearchPopularity,
+                                      final MeterRegistry registry,
+                                      @Value("${cache.repositories.prewarm.startupLanguages}") final List<String> startupLanguages,
+                                      @Value("${cache.repositories.prewarm.startupTimeout}") final Long startupTimeout,
+                                      @Value("${cache.repositories.prewarm.jitter}") final Long jitterMillis,
+                                      @Value("${cache.repositories.prewarm.concurrency}") final Integer concurrency) {
+        this.gitHubRepositoryProvider = gitHubRepositoryProvider;
+        this.repositorySearchPopularity = repositorySearchPopularity;
+        this.startupLanguages = startupLanguages.stream().map(String::trim).filter(language -> !language.isEmpty()).collect(Collectors.toList());
+        this.startupTimeout = Duration.ofMillis(startupTimeout);
+        this.jitterMillis = jitterMillis;
+        this.concurrency = concurrency;
+
+        this.warmedCounter = Counter.builder("repository_cache_prewarm_metric").tag("status", "warmed").register(registry);
+        this.cachedCounter = Counter.builder("repository_cache_prewarm_metric").tag("status", "cached").register(registry);
+        this.failureCounter = Counter.builder("repository_cache_prewarm_metric").tag("status", "failure").register(registry);
+    }
+
+    @Override
+    public void run(final ApplicationArguments args) {
+        final List<RepositorySearchPopularity.PopularSearch> searches = startupLanguages.stream()
+                                                                                        .map(language -> new RepositorySearchPopularity.PopularSearch(new RepositorySearchKey(Optional.empty(), Optional.of(language)), RepositorySearchRequestDTO.DEFAULT_SIZE, 0))
+                                                                                        .collect(Collectors.toList());
+
+        log.info("Warming {} searches before accepting traffic", searches.size());
+        warm(searches, 0).timeout(startupTimeout, Mono.empty()).block();
+    }
+
+    @Scheduled(fixedDelayString = "${cache.repositories.prewarm.interval}", initialDelayString = "${cache.repositories.prewarm.interval}")
+    public void prewarm() {
+        warm(repositorySearchPopularity.top(), jitterMillis).block();
+        repositorySearchPopularity.decay();
+    }
+
+    /**
+     * @return Mono<Void> completed once every search was handled, failures are counted and ignored
+     * */
+    public Mono<Void> warm(final List<RepositorySearchPopularity.PopularSearch> searches, final long jitterMillis) {
+        return Flux.fromIterable(searches)
+                   .flatMap(search -> Mono.delay(Duration.ofMillis(jitterMillis > 0 ? ThreadLocalRandom.current().nextLong(jitterMillis + 1) : 0))
+                                          .then(gitHubRepositoryProvider.warmPublicRepositories(search.key(), search.size()))
+                                          .doOnNext(fetched -> (fetched ? warmedCounter : cachedCounter).increment())
+                                          .onErrorResume(failure -> {
+                                              failureCounter.increment();
+                                              log.warn("Fail while warming the search {}, trying again in the next interval", search.key(), failure);
+                                              return Mono.empty();
+                                          }), concurrency)
+                   .contextWrite(GitHubRateLimitGovernor::background)
+                   .then();
+    }
+}
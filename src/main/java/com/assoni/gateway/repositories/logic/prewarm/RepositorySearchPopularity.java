@@ -0,0 +1,141 @@
+package com.assoni.gateway.repositories.logic.prewarm;
+
+import com.assoni.gateway.repositories.logic.model.RepositorySearchKey;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Collectors;
+
+/**
+ * Tracks how often each search is requested with a fixed amount of memory, whatever the amount of distinct searches.
+ *
+ * Frequencies are estimated by a count-min sketch(depth rows of width counters, the estimate is the smallest counter of the key
+ * in every row, so it can only be overestimated by collisions) and the most frequent searches are kept aside with the biggest
+ * size requested for them, the topK of those are the searches warmed by {@link RepositoryPrewarmScheduler}.
+ *
+ * Recording runs on every search(response cache hits included) so it takes no lock: candidates live in a concurrent map bounded
+ * to 4 * topK, searches are only admitted while it has room or when they are more frequent than the least frequent search kept by
+ * the last trim. {@link #decay()}(called every prewarm interval) halves every frequency and trims the candidates to the topK.
+ *
+ * The size of a search is the biggest one requested during the current or the previous interval, so a single big request stops
+ * being warmed after two intervals, and searches not requested during a whole interval leave the top.
+ * */
+@Component
+public class RepositorySearchPopularity {
+
+    private static final int DEPTH = 4;
+    private static final long[] SEEDS = {0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L};
+    private static final int CANDIDATES_PER_TOP = 4;
+
+    /**
+     * @param key       --> filter of the search
+     * @param size      --> biggest size requested for it
+     * @param frequency --> estimated amount of requests
+     * */
+    public record PopularSearch(RepositorySearchKey key, int size, long frequency) {
+    }
+
+    /**
+     * @param size         --> biggest size requested during the current interval
+     * @param previousSize --> biggest size requested during the previous interval
+     * @param frequency    --> estimated amount of requests
+     * */
+    private record Candidate(int size, int previousSize, long frequency) {
+
+        PopularSearch toSearch(final RepositorySearchKey key) {
+            return new PopularSearch(key, Math.max(size, previousSize), frequency);
+        }
+    }
+
+    private final int topK;
+    private final int maxCandidates;
+    private final int widthMask;
+    private final AtomicLongArray counters;
+    private final ConcurrentMap<RepositorySearchKey, Candidate> candidates;
+    private volatile long admission;
+
+    @Autowired
+    public RepositorySearchPopularity(@Value("${cache.repositories.prewarm.topK}") final Integer topK,
+                                      @Value("${cache.repositories.prewarm.sketchWidth}") final Integer sketchWidth) {
+        this.topK = topK;
+        this.maxCandidates = topK * CANDIDATES_PER_TOP;
+        final int width = Integer.highestOneBit(Math.max(sketchWidth - 1, 1)) << 1;
+        this.widthMask = width - 1;
+        this.counters = new AtomicLongArray(DEPTH * width);
+        this.candidates = new ConcurrentHashMap<>(maxCandidates * 2);
+    }
+
+    /**
+     * @param key  --> filter of the requested search
+     * @param size --> size requested
+     * */
+    public void record(final RepositorySearchKey key, final int size) {
+        final int hash = key.hashCode();
+        long estimate = Long.MAX_VALUE;
+        for(int row = 0; row < DEPTH; row++) {
+            estimate = Math.min(estimate, counters.incrementAndGet(indexOf(row, hash)));
+        }
+
+        final long frequency = estimate;
+        final Candidate current = candidates.computeIfPresent(key, (search, candidate) -> new Candidate(Math.max(size, candidate.size()), candidate.previousSize(), frequency));
+        if(current == null && frequency > admission && candidates.size() < maxCandidates) {
+            candidates.merge(key, new Candidate(size, 0, frequency), (candidate, admitted) -> new Candidate(Math.max(size, candidate.size()), candidate.previousSize(), frequency));
+        }
+    }
+
+    /**
+     * @return estimated amount of requests of the search
+     * */
+    public long estimate(final RepositorySearchKey key) {
+        final int hash = key.hashCode();
+        long estimate = Long.MAX_VALUE;
+        for(int row = 0; row < DEPTH; row++) {
+            estimate = Math.min(estimate, counters.get(indexOf(row, hash)));
+        }
+
+        return estimate;
+    }
+
+    /**
+     * @return the topK most requested searches, most frequent first
+     * */
+    public List<PopularSearch> top() {
+        return candidates.entrySet()
+                         .stream()
+                         .map(candidate -> candidate.getValue().toSearch(candidate.getKey()))
+                         .sorted(Comparator.comparingLong(PopularSearch::frequency).reversed())
+                         .limit(topK)
+                         .collect(Collectors.toList());
+    }
+
+    /**
+     * Halves every frequency, searches which end up without requests or were not requested during the interval leave the top and
+     * the candidates are trimmed to the topK.
+     * */
+    public void decay() {
+        for(int index = 0; index < counters.length(); index++) {
+            counters.updateAndGet(index, counter -> counter >> 1);
+        }
+
+        candidates.replaceAll((key, candidate) -> new Candidate(0, candidate.size(), candidate.frequency() >> 1));
+        candidates.values().removeIf(candidate -> candidate.frequency() == 0 || candidate.previousSize() == 0);
+
+        final List<PopularSearch> kept = top();
+        candidates.keySet().retainAll(kept.stream().map(PopularSearch::key).collect(Collectors.toSet()));
+        admission = kept.size() < topK ? 0 : kept.get(kept.size() - 1).frequency();
+    }
+
+    private int indexOf(final int row, final int hash) {
+        long mixed = (hash + SEEDS[row]) * 0xBF58476D1CE4E5B9L;
+        mixed ^= mixed >>> 31;
+        mixed *= 0x94D049BB133111EBL;
+        mixed ^= mixed >>> 29;
+        return row * (widthMask + 1) + (int) (mixed & widthMask);
+    }
+}
@@ -0,0 +1,278 @@
+package com.assoni.gateway.repositories.service;
+
+import com.assoni.gateway.repositories.dto.RepositoryDTO;
+import com.assoni.gateway.repositories.dto.RepositorySearchRequestDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the last successful response of each search so the fallback can still answer while the provider is down.
+ *
+ * Entries are bounded by the total amount of repositories kept(not by the amount of searches) and expire after a ttl counted
+ * from the moment github answered them. Every recorded search is appended as one json line to a local file, replayed in background
+ * (once the application is ready or on the first fallback, whichever comes first) so the store survives restarts. The file is
+ * compacted to the live entries when replayed and whenever the appended lines outgrow them.
+ *
+ * Every file access runs on the single writer thread, request threads(event loops included) never wait for the disk, searches
+ * are answered from what is already in memory while the file is still being replayed.
+ * */
+@Slf4j
+@Component
+public class LastKnownGoodRepositoryStore {
+
+    record StoredSearch(String key, long savedAt, List<RepositoryDTO> repositories) {
+    }
+
+    private final ObjectMapper objectMapper;
+    private final Path path;
+    private final long ttl;
+    private final long minRecordInterval;
+    private final int maxStreamedRepositories;
+    private final Clock clock;
+
+    private final Cache<String, StoredSearch> searches;
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "last-known-good-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final CompletableFuture<Void> loading = new CompletableFuture<>();
+    private final AtomicBoolean loadRequested = new AtomicBoolean();
+    private long appendedLines;
+
+    @Autowired
+    public LastKnownGoodRepositoryStore(final ObjectMapper objectMapper,
+                                        @Value("${fallback.store.path}") final String path,
+                                        @Value("${fallback.store.ttl}") final Long ttl,
+                                        @Value("${fallback.store.minRecordInterval}") final Long minRecordInterval,
+                                        @Value("${fallback.store.maxRepositories}") final Long maxRepositories,
+                                        @Value("${fallback.store.maxStreamedRepositories}") final Integer maxStreamedRepositories) {
+        this(objectMapper, Path.of(path), ttl, minRecordInterval, maxRepositories, maxStreamedRepositories, Clock.systemUTC());
+    }
+
+    public LastKnownGoodRepositoryStore(final ObjectMapper objectMapper, final Path path, final long ttl, final long minRecordInterval, final long maxRepositories,
+                                        final int maxStreamedRepositories, final Clock clock) {
+        this.objectMapper = objectMapper;
+        this.path = path;
+        this.ttl = ttl;
+        this.minRecordInterval = minRecordInterval;
+        this.maxStreamedRepositories = maxStreamedRepositories;
+        this.clock = clock;
+        this.searches = Caffeine.newBuilder()
+                                .maximumWeight(maxRepositories)
+                                .weigher((String key, StoredSearch search) -> search.repositories().size() + 1)
+                                .expireAfter(new Expiry<String, StoredSearch>() {
+                                    @Override
+                                    public long expireAfterCreate(final String key, final StoredSearch search, final long currentTime) {
+                                        return remainingNanos(search);
+                                    }
+
+                                    @Override
+                                    public long expireAfterUpdate(final String key, final StoredSearch search, final long currentTime, final long currentDuration) {
+                                        return remainingNanos(search);
+                                    }
+
+                                    @Override
+                                    public long expireAfterRead(final String key, final StoredSearch search, final long currentTime, final long currentDuration) {
+                                        return currentDuration;
+                                    }
+                                })
+                                .build();
+    }
+
+    /**
+     * Records the successful response of a search, searches recorded less than minRecordInterval ago are skipped so cache hits
+     * don't turn into disk writes.
+     *
+     * @param request      --> search that was answered
+     * @param repositories --> response given by the provider
+     * */
+    public void record(final RepositorySearchRequestDTO request, final List<RepositoryDTO> repositories) {
+        final String key = keyOf(request);
+        if(!isRecordDue(key)) {
+            return;
+        }
+
+        final StoredSearch search = new StoredSearch(key, clock.millis(), List.copyOf(repositories));
+        searches.put(key, search);
+        writer.execute(() -> append(search));
+    }
+
+    /**
+     * @param request --> search being streamed
+     *
+     * @return StreamedSearch collecting the repositories of the stream to be recorded once it completes
+     * */
+    public StreamedSearch streamed(final RepositorySearchRequestDTO request) {
+        return new StreamedSearch(request, isRecordDue(keyOf(request)));
+    }
+
+    /**
+     * Repositories of a streamed search, nothing is collected when the search was recorded less than minRecordInterval ago and the
+     * search is not recorded once it outgrows fallback.store.maxStreamedRepositories, so a stream never holds more repositories
+     * than that in memory. Elements of a stream are signaled serially, add/record need no synchronization.
+     * */
+    public final class StreamedSearch {
+        private final RepositorySearchRequestDTO request;
+        private List<RepositoryDTO> repositories;
+
+        private StreamedSearch(final RepositorySearchRequestDTO request, final boolean due) {
+            this.request = request;
+            this.repositories = due ? new ArrayList<>() : null;
+        }
+
+        public void add(final RepositoryDTO repository) {
+            if(repositories != null && repositories.size() >= maxStreamedRepositories) {
+                repositories = null;
+            }
+            if(repositories != null) {
+                repositories.add(repository);
+            }
+        }
+
+        public void record() {
+            if(repositories != null) {
+                LastKnownGoodRepositoryStore.this.record(request, repositories);
+            }
+        }
+    }
+
+    /**
+     * Last known good response of the search with every repository flagged as stale.
+     *
+     * @param request --> search to be answered
+     *
+     * @return Optional<List<RepositoryDTO>> empty when the search was never answered or already expired
+     * */
+    public Optional<List<RepositoryDTO>> find(final RepositorySearchRequestDTO request) {
+        load();
+
+        return Optional.ofNullable(searches.getIfPresent(keyOf(request)))
+                       .map(search -> search.repositories().stream().map(repository -> repository.toBuilder().stale(true).build()).collect(Collectors.toList()));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadInBackground() {
+        load();
+    }
+
+    /**
+     * Schedules the replay of the file on the writer thread, only the first call schedules it.
+     *
+     * @return CompletableFuture<Void> completed once the file was replayed
+     * */
+    public CompletableFuture<Void> load() {
+        if(loadRequested.compareAndSet(false, true)) {
+            writer.execute(this::replay);
+        }
+        return loading;
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException {
+        writer.shutdown();
+        writer.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    private boolean isRecordDue(final String key) {
+        final StoredSearch current = searches.getIfPresent(key);
+        return current == null || clock.millis() - current.savedAt() >= minRecordInterval;
+    }
+
+    private void replay() {
+        if(Files.exists(path)) {
+            try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                reader.lines().map(this::parse).flatMap(Optional::stream).forEach(search -> searches.asMap().merge(search.key(), search, (current, replayed) -> current.savedAt() >= replayed.savedAt() ? current : replayed));
+            } catch (IOException | UncheckedIOException e) {
+                log.warn("Fail while loading the last known good searches from {}, starting empty", path, e);
+            }
+        }
+        compact();
+        loading.complete(null);
+    }
+
+    private void append(final StoredSearch search) {
+        try {
+            Files.createDirectories(path.toAbsolutePath().getParent());
+            try (BufferedWriter output = Files.newBufferedWriter(path, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                output.write(objectMapper.writeValueAsString(search));
+                output.newLine();
+            }
+            appendedLines++;
+        } catch (IOException e) {
+            log.warn("Fail while persisting the last known good search {}", search.key(), e);
+        }
+
+        if(loading.isDone() && appendedLines > 2 * Math.max(searches.estimatedSize(), 1)) {
+            compact();
+        }
+    }
+
+    private void compact() {
+        try {
+            Files.createDirectories(path.toAbsolutePath().getParent());
+            final Path compacted = path.resolveSibling(path.getFileName() + ".compacting");
+            try (BufferedWriter output = Files.newBufferedWriter(compacted, StandardCharsets.UTF_8)) {
+                for(StoredSearch search : searches.asMap().values()) {
+                    output.write(objectMapper.writeValueAsString(search));
+                    output.newLine();
+                }
+            }
+            Files.move(compacted, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            appendedLines = searches.estimatedSize();
+        } catch (IOException e) {
+            log.warn("Fail while compacting the last known good searches at {}", path, e);
+        }
+    }
+
+    private Optional<StoredSearch> parse(final String line) {
+        try {
+            return Optional.of(objectMapper.readValue(line, StoredSearch.class)).filter(search -> remainingNanos(search) > 0);
+        } catch (IOException e) {
+            log.warn("Skipping corrupted line of the last known good searches at {}", path);
+            return Optional.empty();
+        }
+    }
+
+    private long remainingNanos(final StoredSearch search) {
+        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, search.savedAt() + ttl - clock.millis()));
+    }
+
+    static String keyOf(final RepositorySearchRequestDTO request) {
+        return String.join("|", valueOf(request.getCreatedOn()), valueOf(request.getLanguage()).toLowerCase(), valueOf(request.getSize()));
+    }
+
+    private static String valueOf(final Optional<?> value) {
+        return value == null ? "" : value.map(Object::toString).orElse("");
+    }
+}
@@ -0,0 +1,109 @@
+package com.assoni.gateway.repositories.service;
+
+import com.assoni.gateway.repositories.controller.RepositoryResponseCache;
+import com.assoni.gateway.repositories.dto.RepositoryBatchResultDTO;
+import com.assoni.gateway.repositories.dto.RepositoryDTO;
+import com.assoni.gateway.repositories.dto.RepositorySearchRequestDTO;
+import com.assoni.gateway.repositories.logic.api.GitHubRateLimitException;
+import com.assoni.gateway.repositories.logic.concurrency.RepositoryOverloadException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Resolves many searches in one call, used by dashboards that would otherwise send one request per language.
+ *
+ * Identical searches of the batch(same key of {@link RepositoryResponseCache#keyOf}, the language is not case sensitive) are
+ * resolved once, every unique search goes through {@link RepositoryService} so it keeps the
+ * cache, the circuit breaker and the last known good fallback of a single search. Cache hits complete right away and the misses are
+ * fetched concurrently(batch.repositories.concurrency at a time), paced by the github rate limit governor like any other call.
+ *
+ * Results are emitted as each search completes, one per position of the batch, a search that fails is answered with an error
+ * code({@link RepositoryBatchResultDTO#OVERLOADED} or {@link RepositoryBatchResultDTO#UNAVAILABLE}) without failing the other ones.
+ * */
+@Slf4j
+@Component
+public class RepositoryBatchService {
+
+    private final RepositoryService repositoryService;
+    private final int maxSearches;
+    private final int concurrency;
+
+    @Autowired
+    public RepositoryBatchService(final RepositoryService repositoryService,
+                                  @Value("${batch.repositories.maxSearches}") final Integer maxSearches,
+                                  @Value("${batch.repositories.concurrency}") final Integer concurrency) {
+        this.repositoryService = repositoryService;
+        this.maxSearches = maxSearches;
+        this.concurrency = concurrency;
+    }
+
+    /**
+     * @param searches --> searches of the batch, a search without size uses {@link RepositorySearchRequestDTO#DEFAULT_SIZE}
+     *
+     * @return Flux<RepositoryBatchResultDTO> one result per search of the batch, in the order they complete
+     * */
+    public Flux<RepositoryBatchResultDTO> findAllPublicRepositories(final List<RepositorySearchRequestDTO> searches) {
+        if(searches.size() > maxSearches) {
+            return Flux.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "A batch accepts at most " + maxSearches + " searches"));
+        }
+
+        final Map<RepositoryResponseCache.ResponseKey, RepositorySearchRequestDTO> unique = new LinkedHashMap<>();
+        final Map<RepositoryResponseCache.ResponseKey, List<Integer>> positions = new LinkedHashMap<>();
+        for(int index = 0; index < searches.size(); index++) {
+            final RepositorySearchRequestDTO search = normalize(searches.get(index));
+            final RepositoryResponseCache.ResponseKey key = RepositoryResponseCache.keyOf(search);
+
+            unique.putIfAbsent(key, search);
+            positions.computeIfAbsent(key, ignored -> new ArrayList<>()).add(index);
+        }
+
+        return Flux.fromIterable(unique.entrySet())
+                   .flatMap(entry -> resolve(entry.getValue(), positions.get(entry.getKey())), concurrency);
+    }
+
+    private Flux<RepositoryBatchResultDTO> resolve(final RepositorySearchRequestDTO search, final List<Integer> indexes) {
+        return repositoryService.findAllPublicRepositoriesReactive(search)
+                                .defaultIfEmpty(List.of())
+                                .map(repositories -> results(search, indexes, repositories, null))
+                                .onErrorResume(failure -> {
+                                    log.error("Fail while resolving the search at positions {} of a batch", indexes, failure);
+                                    return Mono.just(results(search, indexes, List.of(), errorOf(failure)));
+                                })
+                                .flatMapIterable(results -> results);
+    }
+
+    private static List<RepositoryBatchResultDTO> results(final RepositorySearchRequestDTO search, final List<Integer> indexes, final List<RepositoryDTO> repositories, final String error) {
+        return indexes.stream()
+                      .map(index -> RepositoryBatchResultDTO.builder().index(index).search(search).repositories(repositories).error(error).build())
+                      .collect(Collectors.toList());
+    }
+
+    private static String errorOf(final Throwable failure) {
+        return failure instanceof RepositoryOverloadException || failure instanceof GitHubRateLimitException ? RepositoryBatchResultDTO.OVERLOADED : RepositoryBatchResultDTO.UNAVAILABLE;
+    }
+
+    private static RepositorySearchRequestDTO normalize(final RepositorySearchRequestDTO search) {
+        if(search == null) {
+            return RepositorySearchRequestDTO.builder().size(Optional.of(RepositorySearchRequestDTO.DEFAULT_SIZE)).build();
+        }
+
+        return RepositorySearchRequestDTO.builder()
+                                         .createdOn(search.getCreatedOn() == null ? Optional.empty() : search.getCreatedOn())
+                                         .language(search.getLanguage() == null ? Optional.empty() : search.getLanguage())
+                                         .size(search.getSize() == null || search.getSize().isEmpty() ? Optional.of(RepositorySearchRequestDTO.DEFAULT_SIZE) : search.getSize())
+                                         .build();
+    }
+}
@@ -0,0 +1,172 @@
+package com.assoni.gateway.repositories.service;
+
+import com.assoni.gateway.repositories.dto.RepositorySearchRequestDTO;
+import com.assoni.gateway.repositories.logic.concurrency.RepositoryOverloadException;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Isolates the searches per {@link SearchClass}, each class has its own bulkhead(semaphore, so it bounds blocking and reactive
+ * calls alike) and circuit breaker, a class of pathological searches fills or opens only its own and never starves the others.
+ *
+ * Bulkheads and breakers are named after the class and configured by resilience4j.bulkhead.instances.<name> and
+ * resilience4j.circuitbreaker.instances.<name>, breakers also open on the rate of slow calls so they trip before the calls
+ * pile up until the client timeout.
+ *
+ * A call rejected by a full bulkhead fails as {@link RepositoryOverloadException}, same as the ones shed by the concurrency
+ * limiter, which the breakers ignore.
+ *
+ * Metrics:
+ *  repository_fallback_metric{status=failure,search=filtered|large|unfiltered} --> searches answered by the fallback
+ * */
+@Component
+public class RepositorySearchIsolation {
+
+    public enum SearchClass {
+        /**
+         * searches by language and/or createdOn up to largeSize repositories
+         * */
+        FILTERED("findAllPublicRepositoriesFallBack"),
+        /**
+         * searches above largeSize repositories, fetched from github as many pages
+         * */
+        LARGE("findLargePublicRepositoriesFallBack"),
+        /**
+         * searches without language and createdOn, github is searched by name(q=a) which is its slowest query
+         * */
+        UNFILTERED("findUnfilteredPublicRepositoriesFallBack");
+
+        private final String instanceName;
+
+        SearchClass(final String instanceName) {
+            this.instanceName = instanceName;
+        }
+
+        public String getInstanceName() {
+            return instanceName;
+        }
+    }
+
+    private final int largeSize;
+    private final Duration retryAfter;
+
+    private final Map<SearchClass, CircuitBreaker> circuitBreakers = new EnumMap<>(SearchClass.class);
+    private final Map<SearchClass, Bulkhead> bulkheads = new EnumMap<>(SearchClass.class);
+    private final Map<SearchClass, Counter> fallbackCounters = new EnumMap<>(SearchClass.class);
+
+    @Autowired
+    public RepositorySearchIsolation(final CircuitBreakerRegistry circuitBreakerRegistry,
+                                     final BulkheadRegistry bulkheadRegistry,
+                                     final MeterRegistry registry,
+                                     @Value("${resilience.repositories.largeSize}") final Integer largeSize,
+                                     @Value("${provider.limiter.retryAfter}") final Long retryAfterMillis) {
+        this.largeSize = largeSize;
+        this.retryAfter = Duration.ofMillis(retryAfterMillis);
+
+        for(SearchClass searchClass : SearchClass.values()) {
+            circuitBreakers.put(searchClass, circuitBreakerRegistry.circuitBreaker(searchClass.getInstanceName()));
+            bulkheads.put(searchClass, bulkheadRegistry.bulkhead(searchClass.getInstanceName()));
+            fallbackCounters.put(searchClass, Counter.builder("repository_fallback_metric").tag("status", "failure").tag("search", searchClass.name().toLowerCase()).register(registry));
+        }
+    }
+
+    /**
+     * @return class of the search, unfiltered searches are unfiltered whatever their size
+     * */
+    public SearchClass classify(final RepositorySearchRequestDTO request) {
+        if(request.getLanguage().isEmpty() && request.getCreatedOn().isEmpty()) {
+            return SearchClass.UNFILTERED;
+        }
+
+        return request.getSize().orElse(RepositorySearchRequestDTO.DEFAULT_SIZE) > largeSize ? SearchClass.LARGE : SearchClass.FILTERED;
+    }
+
+    /**
+     * @param request  --> search being executed, selects the bulkhead and breaker
+     * @param call     --> call to the provider
+     * @param fallback --> answer used when the call fails, is rejected or the breaker is open
+     * */
+    public <T> T execute(final RepositorySearchRequestDTO request, final Supplier<T> call, final Function<Exception, T> fallback) {
+        final SearchClass searchClass = classify(request);
+        final Bulkhead bulkhead = bulkheads.get(searchClass);
+
+        try {
+            return circuitBreakers.get(searchClass).executeSupplier(() -> {
+                try {
+                    return bulkhead.executeSupplier(call);
+                } catch (BulkheadFullException full) {
+                    throw overload(full);
+                }
+            });
+        } catch (Exception failure) {
+            fallbackCounters.get(searchClass).increment();
+            return fallback.apply(failure);
+        }
+    }
+
+    /**
+     * Reactive version of {@link #execute(RepositorySearchRequestDTO, Supplier, Function)}, the bulkhead permit is held until the
+     * mono terminates.
+     * */
+    public <T> Mono<T> execute(final RepositorySearchRequestDTO request, final Mono<T> call, final Function<Exception, Mono<T>> fallback) {
+        final SearchClass searchClass = classify(request);
+
+        return call.transformDeferred(BulkheadOperator.of(bulkheads.get(searchClass)))
+                   .onErrorMap(BulkheadFullException.class, this::overload)
+                   .transformDeferred(CircuitBreakerOperator.of(circuitBreakers.get(searchClass)))
+                   .onErrorResume(Exception.class, failure -> {
+                       fallbackCounters.get(searchClass).increment();
+                       return fallback.apply(failure);
+                   });
+    }
+
+    /**
+     * Streaming version of {@link #execute(RepositorySearchRequestDTO, Supplier, Function)}, the bulkhead permit is held until the
+     * flux terminates.
+     *
+     * The fallback only answers failures happening before the first element, a failure in the middle of the stream is propagated
+     * so the client never receives the fresh elements already sent followed by the whole fallback.
+     * */
+    public <T> Flux<T> execute(final RepositorySearchRequestDTO request, final Flux<T> call, final Function<Exception, Flux<T>> fallback) {
+        final SearchClass searchClass = classify(request);
+
+        return Flux.defer(() -> {
+            final AtomicBoolean emitted = new AtomicBoolean();
+            return call.doOnNext(element -> emitted.set(true))
+                       .transformDeferred(BulkheadOperator.of(bulkheads.get(searchClass)))
+                       .onErrorMap(BulkheadFullException.class, this::overload)
+                       .transformDeferred(CircuitBreakerOperator.of(circuitBreakers.get(searchClass)))
+                       .onErrorResume(Exception.class, failure -> {
+                           if(emitted.get()) {
+                               return Flux.error(failure);
+                           }
+
+                           fallbackCounters.get(searchClass).increment();
+                           return fallback.apply(failure);
+                       });
+        });
+    }
+
+    private RepositoryOverloadException overload(final BulkheadFullException full) {
+        return new RepositoryOverloadException(full.getMessage(), retryAfter);
+    }
+}
@@ -2,6 +2,8 @@ package com.assoni.gateway.repositories.service;
 
 import com.assoni.gateway.repositories.dto.RepositoryDTO;
 import com.assoni.gateway.repositories.dto.RepositorySearchRequestDTO;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.util.List;
 
@@ -9,4 +11,8 @@ public interface RepositoryService {
 
     List<RepositoryDTO> findAllPublicRepositories(final RepositorySearchRequestDTO request);
 
+    Mono<List<RepositoryDTO>> findAllPublicRepositoriesReactive(final RepositorySearchRequestDTO request);
+
+    Flux<RepositoryDTO> streamPublicRepositories(final RepositorySearchRequestDTO request);
+
 }
@@ -3,11 +3,17 @@ package com.assoni.gateway.repositories.service;
 import com.assoni.gateway.repositories.dto.RepositoryDTO;
 import com.assoni.gateway.repositories.dto.RepositorySearchRequestDTO;
 import com.assoni.gateway.repositories.logic.RepositoryProvider;
-import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
-import io.micrometer.core.annotation.Counted;
+import com.assoni.gateway.repositories.logic.api.GitHubRateLimitException;
+import com.assoni.gateway.repositories.logic.concurrency.RepositoryOverloadException;
+import com.assoni.gateway.repositories.logic.metrics.RepositoryLatencyMetrics;
+import com.assoni.gateway.repositories.logic.metrics.RepositoryLatencyMetrics.CacheOutcome;
+import com.assoni.gateway.repositories.logic.metrics.RepositoryLatencyMetrics.Stage;
+import com.assoni.gateway.repositories.logic.model.RepositoryModel;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -19,39 +25,121 @@ import java.util.stream.Collectors;
 public class RepositoryServiceImpl implements RepositoryService {
 
     private final RepositoryProvider repositoryProvider;
+    private final LastKnownGoodRepositoryStore lastKnownGoodRepositoryStore;
+    private final RepositoryLatencyMetrics latencyMetrics;
+    private final RepositorySearchIsolation searchIsolation;
 
     /**
      * Retrieves the most favorite repositories sorted by amount of starts
      * 
      * This uses a provider as main source of information in case of failure(service down and so on) fallback to {@link #findAllLocalRepositories(RepositorySearchRequestDTO, Exception)}
      *
+     * The call is protected by the bulkhead and circuit breaker of the class of the search, see {@link RepositorySearchIsolation}
+     *
      * @param request --> request with data to filter
      *
      * @return List<RepositoryDTO>
      * */
-    @CircuitBreaker(name = "findAllPublicRepositoriesFallBack", fallbackMethod = "findAllLocalRepositories")
     public List<RepositoryDTO> findAllPublicRepositories(final RepositorySearchRequestDTO request) {
-        return repositoryProvider.findAllPublicRepositories(request.getCreatedOn(), request.getLanguage(), request.getSize())
-                                 .stream().map(model -> RepositoryDTO.builder().name(model.getName()).language(model.getLanguage()).owner(model.getOwner()).description(model.getDescription()).url(model.getUrl()).createdAt(model.getCreatedAt()).stars(model.getStars()).build())
-                                 .collect(Collectors.toList());
+        return searchIsolation.execute(request, () -> {
+            final List<RepositoryModel> models = repositoryProvider.findAllPublicRepositories(request.getCreatedOn(), request.getLanguage(), request.getSize());
+            final List<RepositoryDTO> repositories = mapDTOsBasedOnModels(request, models);
+            lastKnownGoodRepositoryStore.record(request, repositories);
+
+            return repositories;
+        }, failure -> findAllLocalRepositories(request, failure));
+    }
+
+    /**
+     * Reactive version of {@link #findAllPublicRepositories(RepositorySearchRequestDTO)}, protected by the same bulkhead and circuit
+     * breaker and falling back to {@link #findAllLocalRepositoriesReactive(RepositorySearchRequestDTO, Exception)}
+     *
+     * @param request --> request with data to filter
+     *
+     * @return Mono<List<RepositoryDTO>>
+     * */
+    public Mono<List<RepositoryDTO>> findAllPublicRepositoriesReactive(final RepositorySearchRequestDTO request) {
+        return searchIsolation.execute(request, Mono.defer(() -> repositoryProvider.findAllPublicRepositoriesReactive(request.getCreatedOn(), request.getLanguage(), request.getSize()))
+                                                    .map(models -> mapDTOsBasedOnModels(request, models))
+                                                    .doOnNext(repositories -> lastKnownGoodRepositoryStore.record(request, repositories)),
+                                       failure -> findAllLocalRepositoriesReactive(request, failure));
     }
 
     /**
-     * Fallback the search when there is an issue in the external api,
+     * Streaming version of {@link #findAllPublicRepositories(RepositorySearchRequestDTO)}, repositories are emitted as soon as the
+     * provider maps them, protected by the same bulkhead and circuit breaker and falling back to {@link #streamLocalRepositories(RepositorySearchRequestDTO, Exception)}
+     * only when the provider fails before the first repository, a failure after it ends the stream with the error. Only streams up to
+     * fallback.store.maxStreamedRepositories are recorded as last known good, see {@link LastKnownGoodRepositoryStore.StreamedSearch}.
+     *
+     * @param request --> request with data to filter
+     *
+     * @return Flux<RepositoryDTO>
+     * */
+    public Flux<RepositoryDTO> streamPublicRepositories(final RepositorySearchRequestDTO request) {
+        return searchIsolation.execute(request, Flux.defer(() -> {
+            final LastKnownGoodRepositoryStore.StreamedSearch streamed = lastKnownGoodRepositoryStore.streamed(request);
+            return repositoryProvider.streamPublicRepositories(request.getCreatedOn(), request.getLanguage(), request.getSize())
+                                     .map(model -> mapDTOBasedOnModel(model))
+                                     .doOnNext(streamed::add)
+                                     .doOnComplete(streamed::record);
+        }), failure -> streamLocalRepositories(request, failure));
+    }
+
+    /**
+     * Fallback the search when there is an issue in the external api, answers with the last known good response of the search
+     * flagged as stale(see {@link LastKnownGoodRepositoryStore}) or an empty list when the search was never answered.
+     *
+     * A call shed by the concurrency limiter or the bulkhead({@link RepositoryOverloadException}) or by the github rate limit
+     * governor({@link GitHubRateLimitException}) for a search never answered is failed instead,
+     * so the client gets 503 with Retry-After rather than an empty list it could mistake for a real answer.
      *
      * TODO:
-     *  Talk with the team and business what would be a nice fallback solution in case of provider return error(because is down or payment issue)
-     * proposals:
-     *  1. fetch the favorite repository from other source for example gitlab.
-     *  2. keep a trace of the most 5000 common searches in a 1h cache and use this cache as fallback, so even if the api is down we can return the most favorite searches.
+     *  Talk with the team and business about fetching the favorite repository from other source for example gitlab when the search is not in the store.
      *
      * TODO:
-     *  Generate metric+alerts based on repository_fallback_metric
+     *  Generate metric+alerts based on repository_fallback_metric(counted per class of search by {@link RepositorySearchIsolation})
      * */
-    @Counted(value = "repository_fallback_metric", extraTags = {"status", "failure"})
     public List<RepositoryDTO> findAllLocalRepositories(final RepositorySearchRequestDTO request, final Exception failureError) {
         log.error("Fail while retrieving the favorite repositories from provide, using fallback solution as alternative", failureError);
 
-        return new ArrayList<>();
+        return findLastKnownGood(request, failureError);
+    }
+
+    /**
+     * Reactive version of {@link #findAllLocalRepositories(RepositorySearchRequestDTO, Exception)}
+     * */
+    public Mono<List<RepositoryDTO>> findAllLocalRepositoriesReactive(final RepositorySearchRequestDTO request, final Exception failureError) {
+        log.error("Fail while retrieving the favorite repositories from provide, using fallback solution as alternative", failureError);
+
+        return Mono.fromSupplier(() -> findLastKnownGood(request, failureError));
+    }
+
+    /**
+     * Streaming version of {@link #findAllLocalRepositories(RepositorySearchRequestDTO, Exception)}
+     * */
+    public Flux<RepositoryDTO> streamLocalRepositories(final RepositorySearchRequestDTO request, final Exception failureError) {
+        log.error("Fail while retrieving the favorite repositories from provide, using fallback solution as alternative", failureError);
+
+        return Flux.defer(() -> Flux.fromIterable(findLastKnownGood(request, failureError)));
+    }
+
+    private List<RepositoryDTO> findLastKnownGood(final RepositorySearchRequestDTO request, final Exception failureError) {
+        return latencyMetrics.record(Stage.FALLBACK, CacheOutcome.NONE, request.getLanguage(), () -> lastKnownGoodRepositoryStore.find(request).orElseGet(() -> {
+            if(failureError instanceof RepositoryOverloadException) {
+                throw (RepositoryOverloadException) failureError;
+            }
+            if(failureError instanceof GitHubRateLimitException) {
+                throw (GitHubRateLimitException) failureError;
+            }
+            return new ArrayList<>();
+        }));
+    }
+
+    private List<RepositoryDTO> mapDTOsBasedOnModels(final RepositorySearchRequestDTO request, final List<RepositoryModel> models) {
+        return latencyMetrics.record(Stage.MAPPING, CacheOutcome.NONE, request.getLanguage(), () -> models.stream().map(model -> mapDTOBasedOnModel(model)).collect(Collectors.toList()));
+    }
+
+    private RepositoryDTO mapDTOBasedOnModel(final RepositoryModel model) {
+        return RepositoryDTO.builder().name(model.getName()).language(model.getLanguage()).owner(model.getOwner()).description(model.getDescription()).url(model.getUrl()).createdAt(model.getCreatedAt()).stars(model.getStars()).build();
     }
 }
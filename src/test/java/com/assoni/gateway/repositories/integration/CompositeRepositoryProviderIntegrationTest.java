@@ -0,0 +1,152 @@
+package com.assoni.gateway.repositories.integration;
+
+import com.assoni.gateway.repositories.logic.CompositeRepositoryProvider;
+import com.assoni.gateway.repositories.logic.GitHubRepositoryPager;
+import com.assoni.gateway.repositories.logic.GitHubRepositoryProvider;
+import com.assoni.gateway.repositories.logic.RepositoryProvider;
+import com.assoni.gateway.repositories.logic.RepositorySearchIndex;
+import com.assoni.gateway.repositories.logic.api.GitHubClient;
+import com.assoni.gateway.repositories.logic.api.GitHubResponseValidators;
+import com.assoni.gateway.repositories.logic.concurrency.AdaptiveConcurrencyLimiter;
+import com.assoni.gateway.repositories.logic.concurrency.RequestCoalescer;
+import com.assoni.gateway.repositories.logic.metrics.RepositoryLatencyMetrics;
+import com.assoni.gateway.repositories.logic.model.RepositoryModel;
+import com.assoni.gateway.repositories.logic.prewarm.RepositorySearchPopularity;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class CompositeRepositoryProviderIntegrationTest {
+
+    /**
+     * Local servers answering the github search api with a fixed body after a delay, status 503 means a broken backend.
+     * */
+    static class CompositeRepositoryProviderIntegrationTestHelper {
+
+        public static HttpServer createStubServer(final int status, final long delay, final String... repositories) throws IOException {
+            final String items = List.of(repositories).stream().map(repository -> {
+                                                                final String[] fields = repository.split(":");
+                                                                return "{\"name\":\"" + fields[0] + "\",\"owner\":{\"login\":\"pivotal\"},\"stargazers_count\":" + fields[1] + "}";
+                                                            }).collect(Collectors.joining(","));
+            final byte[] body = ("{\"total_count\":" + repositories.length + ",\"incomplete_results\":false,\"items\":[" + items + "]}").getBytes(StandardCharsets.UTF_8);
+
+            final HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.createContext("/", exchange -> {
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(status, body.length);
+                try (OutputStream output = exchange.getResponseBody()) {
+                    output.write(body);
+                }
+            });
+            server.start();
+            return server;
+        }
+
+        public static RepositoryProvider createStubProvider(final List<HttpServer> servers, final int status, final long delay, final String... repositories) throws IOException {
+            final HttpServer server = createStubServer(status, delay, repositories);
+            servers.add(server);
+            return createProvider(server);
+        }
+
+        public static RepositoryProvider createProvider(final HttpServer server) {
+            final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+            final RepositoryLatencyMetrics latencyMetrics = new RepositoryLatencyMetrics(registry, List.of("java"));
+            final GitHubClient gitHubClient = new GitHubClient(WebClient.create("http://localhost:" + server.getAddress().getPort() + "/"), latencyMetrics,
+                                                         new GitHubResponseValidators(registry, "maximumSize=100"));
+            final GitHubRepositoryPager pager = new GitHubRepositoryPager(gitHubClient, registry, 100, 1000, 4, "maximumSize=100");
+
+            return new GitHubRepositoryProvider(pager, new RequestCoalescer(registry), new ConcurrentMapCacheManager("repositories_cache"), new RepositorySearchIndex(registry, "maximumWeight=1000000"),
+                                                new RepositorySearchPopularity(10, 64), latencyMetrics, new AdaptiveConcurrencyLimiter(registry, 20, 2, 100, 2000L, 0.9, 1000L));
+        }
+    }
+
+    private final List<HttpServer> servers = new ArrayList<>();
+
+    @AfterEach
+    void stopServers() {
+        servers.forEach(server -> server.stop(0));
+    }
+
+    private RepositoryProvider stub(final int status, final long delay, final String... repositories) throws IOException {
+        return CompositeRepositoryProviderIntegrationTestHelper.createStubProvider(servers, status, delay, repositories);
+    }
+
+    @Test
+    void shouldMergeAndDeduplicateTheResultsOfEveryProviderInParallel() throws IOException {
+        final CompositeRepositoryProvider provider = new CompositeRepositoryProvider(List.of(stub(200, 0, "spring:10", "guava:7"), stub(200, 0, "spring:12", "kotlin:9")),
+                                                                                     CompositeRepositoryProvider.Mode.PARALLEL, Duration.ofMillis(100), Duration.ofSeconds(2));
+
+        final List<RepositoryModel> result = provider.findAllPublicRepositories(Optional.empty(), Optional.of(UUID.randomUUID().toString()), Optional.of(10));
+
+        assertThat(result).extracting(RepositoryModel::getName).containsExactly("spring", "kotlin", "guava");
+        assertThat(result.get(0).getStars()).isEqualTo(12);
+    }
+
+    @Test
+    void shouldLeaveFailingAndSlowProvidersOutOfTheParallelMerge() throws IOException {
+        final CompositeRepositoryProvider provider = new CompositeRepositoryProvider(List.of(stub(503, 0, "spring:10"), stub(200, 1500, "guava:7"), stub(200, 0, "kotlin:9")),
+                                                                                     CompositeRepositoryProvider.Mode.PARALLEL, Duration.ofMillis(100), Duration.ofMillis(500));
+
+        final List<RepositoryModel> result = provider.findAllPublicRepositoriesReactive(Optional.empty(), Optional.of(UUID.randomUUID().toString()), Optional.of(10)).block();
+
+        assertThat(result).extracting(RepositoryModel::getName).containsExactly("kotlin");
+    }
+
+    @Test
+    void shouldFailWhenEveryProviderFailsInParallel() throws IOException {
+        final CompositeRepositoryProvider provider = new CompositeRepositoryProvider(List.of(stub(503, 0, "spring:10"), stub(503, 0, "kotlin:9")),
+                                                                                     CompositeRepositoryProvider.Mode.PARALLEL, Duration.ofMillis(100), Duration.ofSeconds(2));
+
+        assertThatThrownBy(() -> provider.findAllPublicRepositories(Optional.empty(), Optional.of(UUID.randomUUID().toString()), Optional.of(10))).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void shouldAnswerWithTheSecondaryWhenThePrimaryIsSlowerThanTheHedgeDelay() throws IOException {
+        final CompositeRepositoryProvider provider = new CompositeRepositoryProvider(List.of(stub(200, 1500, "spring:10"), stub(200, 0, "kotlin:9")),
+                                                                                     CompositeRepositoryProvider.Mode.HEDGED, Duration.ofMillis(100), Duration.ofSeconds(2));
+
+        final long start = System.nanoTime();
+        final List<RepositoryModel> result = provider.streamPublicRepositories(Optional.empty(), Optional.of(UUID.randomUUID().toString()), Optional.of(10)).collectList().block();
+
+        assertThat(result).extracting(RepositoryModel::getName).containsExactly("kotlin");
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(1500));
+    }
+
+    @Test
+    void shouldAnswerWithThePrimaryWhenItIsFasterThanTheHedgeDelay() throws IOException {
+        final CompositeRepositoryProvider provider = new CompositeRepositoryProvider(List.of(stub(200, 0, "spring:10"), stub(200, 0, "kotlin:9")),
+                                                                                     CompositeRepositoryProvider.Mode.HEDGED, Duration.ofMillis(500), Duration.ofSeconds(2));
+
+        assertThat(provider.findAllPublicRepositories(Optional.empty(), Optional.of(UUID.randomUUID().toString()), Optional.of(10))).extracting(RepositoryModel::getName).containsExactly("spring");
+    }
+
+    @Test
+    void shouldHedgeAFailingPrimary() throws IOException {
+        final CompositeRepositoryProvider provider = new CompositeRepositoryProvider(List.of(stub(503, 0, "spring:10"), stub(200, 0, "kotlin:9")),
+                                                                                     CompositeRepositoryProvider.Mode.HEDGED, Duration.ofMillis(100), Duration.ofSeconds(2));
+
+        assertThat(provider.findAllPublicRepositoriesReactive(Optional.empty(), Optional.of(UUID.randomUUID().toString()), Optional.of(10)).block()).extracting(RepositoryModel::getName).containsExactly("kotlin");
+    }
+}
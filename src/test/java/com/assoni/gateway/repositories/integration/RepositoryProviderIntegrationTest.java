@@ -1,10 +1,19 @@
 package com.assoni.gateway.repositories.integration;
 
+import com.assoni.gateway.repositories.logic.GitHubRepositoryPager;
 import com.assoni.gateway.repositories.logic.GitHubRepositoryProvider;
 import com.assoni.gateway.repositories.logic.RepositoryProvider;
+import com.assoni.gateway.repositories.logic.RepositorySearchIndex;
 import com.assoni.gateway.repositories.logic.api.GitHubClient;
-import com.assoni.gateway.repositories.logic.api.GitHubResponse;
+import com.assoni.gateway.repositories.logic.concurrency.AdaptiveConcurrencyLimiter;
+import com.assoni.gateway.repositories.logic.concurrency.RequestCoalescer;
+import com.assoni.gateway.repositories.logic.metrics.RepositoryLatencyMetrics;
 import com.assoni.gateway.repositories.logic.model.RepositoryModel;
+import com.assoni.gateway.repositories.logic.model.RepositorySearchKey;
+import com.assoni.gateway.repositories.logic.model.RepositorySearchResult;
+import com.assoni.gateway.repositories.logic.prewarm.RepositorySearchPopularity;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -17,6 +26,7 @@ import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import reactor.core.publisher.Flux;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -26,7 +36,13 @@ import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
-@SpringBootTest(classes = {RepositoryProvider.class, GitHubRepositoryProvider.class, RepositoryProviderIntegrationTest.LocalConfiguration.class})
+@SpringBootTest(classes = {RepositoryProvider.class, GitHubRepositoryProvider.class, GitHubRepositoryPager.class, RequestCoalescer.class, RepositorySearchIndex.class, RepositorySearchPopularity.class,
+                           RepositoryLatencyMetrics.class, AdaptiveConcurrencyLimiter.class, RepositoryProviderIntegrationTest.LocalConfiguration.class},
+                properties = {"client.github.maxPageSize=100", "client.github.maxResults=1000", "client.github.pageConcurrency=4", "cache.repositories.pages.spec=maximumSize=100",
+                              "cache.repositories.index.spec=maximumWeight=10000000",
+                              "cache.repositories.prewarm.topK=10", "cache.repositories.prewarm.sketchWidth=64", "metrics.repositories.languages=java",
+                              "provider.limiter.initialLimit=20", "provider.limiter.minLimit=2", "provider.limiter.maxLimit=100", "provider.limiter.maxLatency=2000",
+                              "provider.limiter.backoffRatio=0.9", "provider.limiter.retryAfter=1000"})
 public class RepositoryProviderIntegrationTest {
 
     @Configuration
@@ -38,32 +54,33 @@ public class RepositoryProviderIntegrationTest {
         CacheManager cacheManager() {
             return new ConcurrentMapCacheManager("repositories_cache");
         }
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
     }
 
     static class RepositoryProviderIntegrationTestHelper {
 
-        public static GitHubResponse createFakeGitHubResponse() {
-            final GitHubResponse.GitHubRepository spring = new GitHubResponse.GitHubRepository();
-            spring.setCreated_at(LocalDateTime.now());
-            spring.setLanguage("java");
-            spring.setName("Spring");
-            spring.setDescription("spring framework");
-            spring.setStargazers_count(5);
-            spring.setUrl("NOP");
-            spring.setOwner(new GitHubResponse.Owner());
-            spring.getOwner().setLogin("pivotal");
-
-            GitHubResponse fakeResponse = new GitHubResponse();
-            fakeResponse.setItems(List.of(spring));
-
-            return fakeResponse;
+        public static Flux<RepositoryModel> createFakeGitHubResponse() {
+            return Flux.just(RepositoryModel.builder()
+                                            .createdAt(LocalDateTime.now())
+                                            .language("java")
+                                            .name("Spring")
+                                            .description("spring framework")
+                                            .stars(5)
+                                            .url("NOP")
+                                            .owner("pivotal")
+                                            .build());
         }
 
-        public static GitHubResponse createFakeEmptyGitHubResponse() {
-            GitHubResponse fakeResponse = new GitHubResponse();
-            fakeResponse.setItems(List.of());
+        public static Flux<RepositoryModel> createFakeGitHubResponse(final int amount) {
+            return Flux.range(0, amount).map(index -> RepositoryModel.builder().name("Spring-" + index).language("java").owner("pivotal").stars(amount - index).build());
+        }
 
-            return fakeResponse;
+        public static Flux<RepositoryModel> createFakeEmptyGitHubResponse() {
+            return Flux.empty();
         }
     }
 
@@ -78,7 +95,7 @@ public class RepositoryProviderIntegrationTest {
 
     @Test
     void shouldBeAbleToMapFieldsFromTheClientToTheModel() {
-        Mockito.when(gitHubClient.findAllPublicRepositories(Mockito.any(), Mockito.any(), Mockito.any())).thenReturn(RepositoryProviderIntegrationTestHelper.createFakeGitHubResponse());
+        Mockito.when(gitHubClient.streamPublicRepositories(Mockito.any(), Mockito.any(), Mockito.any())).thenReturn(RepositoryProviderIntegrationTestHelper.createFakeGitHubResponse());
 
         final List<RepositoryModel> result = repositoryProvider.findAllPublicRepositories(Optional.of(LocalDate.now()), Optional.of(UUID.randomUUID().toString()), Optional.empty());
         assertThat(result).isNotEmpty();
@@ -96,7 +113,7 @@ public class RepositoryProviderIntegrationTest {
 
     @Test
     void shouldNotFailWhenTheResponseFromTheServerIsEmpty() {
-        Mockito.when(gitHubClient.findAllPublicRepositories(Mockito.any(), Mockito.any(), Mockito.any())).thenReturn(RepositoryProviderIntegrationTestHelper.createFakeEmptyGitHubResponse());
+        Mockito.when(gitHubClient.streamPublicRepositories(Mockito.any(), Mockito.any(), Mockito.any())).thenReturn(RepositoryProviderIntegrationTestHelper.createFakeEmptyGitHubResponse());
 
         final List<RepositoryModel> result = repositoryProvider.findAllPublicRepositories(Optional.of(LocalDate.now()), Optional.empty(), Optional.empty());
         assertThat(result).isEmpty();
@@ -104,32 +121,100 @@ public class RepositoryProviderIntegrationTest {
 
     @Test
     void shouldBeAbleToCacheServiceResponseWhenTheDateIsBeingSent() {
-        Mockito.when(gitHubClient.findAllPublicRepositories(Mockito.any(), Mockito.any(), Mockito.any())).thenReturn(RepositoryProviderIntegrationTestHelper.createFakeGitHubResponse());
+        Mockito.when(gitHubClient.streamPublicRepositories(Mockito.any(), Mockito.any(), Mockito.any())).thenReturn(RepositoryProviderIntegrationTestHelper.createFakeGitHubResponse());
 
         final LocalDate executionTime = LocalDate.now();
         repositoryProvider.findAllPublicRepositories(Optional.of(executionTime), Optional.empty(), Optional.empty());
 
         final Cache currentCache = cacheManager.getCache("repositories_cache");
-        assertThat(currentCache.evictIfPresent(List.of(Optional.of(executionTime), Optional.empty(), Optional.empty()))).isTrue();
+        assertThat(currentCache.evictIfPresent(new RepositorySearchKey(Optional.of(executionTime), Optional.empty()))).isTrue();
     }
 
     @Test
     void shouldBeAbleToCacheServiceResponseWhenTheLanguageIsBeingSent() {
-        Mockito.when(gitHubClient.findAllPublicRepositories(Mockito.any(), Mockito.any(), Mockito.any())).thenReturn(RepositoryProviderIntegrationTestHelper.createFakeGitHubResponse());
+        Mockito.when(gitHubClient.streamPublicRepositories(Mockito.any(), Mockito.any(), Mockito.any())).thenReturn(RepositoryProviderIntegrationTestHelper.createFakeGitHubResponse());
 
         repositoryProvider.findAllPublicRepositories(Optional.empty(), Optional.of("java"), Optional.empty());
 
         final Cache currentCache = cacheManager.getCache("repositories_cache");
-        assertThat(currentCache.evictIfPresent(List.of(Optional.empty(), Optional.of("java"), Optional.empty()))).isTrue();
+        assertThat(currentCache.evictIfPresent(new RepositorySearchKey(Optional.empty(), Optional.of("java")))).isTrue();
     }
 
     @Test
     void shouldBeAbleToCacheServiceResponseWhenTheSizeIsBeingSent() {
-        Mockito.when(gitHubClient.findAllPublicRepositories(Mockito.any(), Mockito.any(), Mockito.any())).thenReturn(RepositoryProviderIntegrationTestHelper.createFakeGitHubResponse());
+        Mockito.when(gitHubClient.streamPublicRepositories(Mockito.any(), Mockito.any(), Mockito.anyInt(), Mockito.anyInt())).thenReturn(RepositoryProviderIntegrationTestHelper.createFakeGitHubResponse());
 
         repositoryProvider.findAllPublicRepositories(Optional.empty(), Optional.empty(), Optional.of(500));
 
         final Cache currentCache = cacheManager.getCache("repositories_cache");
-        assertThat(currentCache.evictIfPresent(List.of(Optional.empty(), Optional.empty(), Optional.of(500)))).isTrue();
+        assertThat(currentCache.get(new RepositorySearchKey(Optional.empty(), Optional.empty()), RepositorySearchResult.class).requestedSize()).isEqualTo(500);
+        assertThat(currentCache.evictIfPresent(new RepositorySearchKey(Optional.empty(), Optional.empty()))).isTrue();
+    }
+
+    @Test
+    void shouldBeAbleToAnswerSmallerSizesOfTheSameFilterFromTheCache() {
+        Mockito.when(gitHubClient.streamPublicRepositories(Mockito.any(), Mockito.any(), Mockito.any())).thenReturn(RepositoryProviderIntegrationTestHelper.createFakeGitHubResponse(50));
+        final Optional<String> language = Optional.of(UUID.randomUUID().toString());
+
+        repositoryProvider.findAllPublicRepositories(Optional.empty(), language, Optional.of(50));
+        final List<RepositoryModel> result = repositoryProvider.findAllPublicRepositories(Optional.empty(), language, Optional.of(10));
+
+        assertThat(result).hasSize(10);
+        assertThat(result.get(0).getName()).isEqualTo("Spring-0");
+        Mockito.verify(gitHubClient, Mockito.times(1)).streamPublicRepositories(Mockito.any(), Mockito.eq(language), Mockito.any());
+    }
+
+    @Test
+    void shouldFetchAgainWhenABiggerSizeOfTheSameFilterIsRequested() {
+        final Optional<String> language = Optional.of(UUID.randomUUID().toString());
+        Mockito.when(gitHubClient.streamPublicRepositories(Mockito.any(), Mockito.eq(language), Mockito.eq(Optional.of(10)))).thenReturn(RepositoryProviderIntegrationTestHelper.createFakeGitHubResponse(10));
+        Mockito.when(gitHubClient.streamPublicRepositories(Mockito.any(), Mockito.eq(language), Mockito.eq(Optional.of(50)))).thenReturn(RepositoryProviderIntegrationTestHelper.createFakeGitHubResponse(50));
+
+        repositoryProvider.findAllPublicRepositories(Optional.empty(), language, Optional.of(10));
+        assertThat(repositoryProvider.findAllPublicRepositories(Optional.empty(), language, Optional.of(50))).hasSize(50);
+        assertThat(repositoryProvider.findAllPublicRepositories(Optional.empty(), language, Optional.of(20))).hasSize(20);
+
+        Mockito.verify(gitHubClient, Mockito.times(2)).streamPublicRepositories(Mockito.any(), Mockito.eq(language), Mockito.any());
+    }
+
+    @Test
+    void shouldNotFetchAgainWhenTheSearchHasLessResultsThanTheCachedSize() {
+        Mockito.when(gitHubClient.streamPublicRepositories(Mockito.any(), Mockito.any(), Mockito.any())).thenReturn(RepositoryProviderIntegrationTestHelper.createFakeGitHubResponse(5));
+        final Optional<String> language = Optional.of(UUID.randomUUID().toString());
+
+        repositoryProvider.findAllPublicRepositories(Optional.empty(), language, Optional.of(50));
+        assertThat(repositoryProvider.findAllPublicRepositories(Optional.empty(), language, Optional.of(80))).hasSize(5);
+
+        Mockito.verify(gitHubClient, Mockito.times(1)).streamPublicRepositories(Mockito.any(), Mockito.eq(language), Mockito.any());
+    }
+
+    @Test
+    void shouldRecordTheSizeGitHubServesWhenABiggerSizeIsRequested() {
+        final Optional<String> language = Optional.of(UUID.randomUUID().toString());
+        Mockito.when(gitHubClient.streamPublicRepositories(Mockito.any(), Mockito.eq(language), Mockito.anyInt(), Mockito.anyInt()))
+               .thenAnswer(invocation -> RepositoryProviderIntegrationTestHelper.createFakeGitHubResponse(invocation.getArgument(3, Integer.class)));
+
+        assertThat(repositoryProvider.findAllPublicRepositories(Optional.empty(), language, Optional.of(2000))).hasSize(1000);
+
+        final RepositorySearchResult cached = cacheManager.getCache("repositories_cache").get(new RepositorySearchKey(Optional.empty(), language), RepositorySearchResult.class);
+        assertThat(cached.requestedSize()).isEqualTo(1000);
+        assertThat(cached.isComplete()).isFalse();
+
+        assertThat(repositoryProvider.findAllPublicRepositories(Optional.empty(), language, Optional.of(2000))).hasSize(1000);
+        Mockito.verify(gitHubClient, Mockito.times(10)).streamPublicRepositories(Mockito.any(), Mockito.eq(language), Mockito.anyInt(), Mockito.anyInt());
+    }
+
+    @Test
+    void shouldAnswerALaterCreationDateOfAnIndexedLanguageWithoutCallingGitHub() {
+        final Optional<String> language = Optional.of(UUID.randomUUID().toString());
+        final LocalDate createdOn = LocalDate.of(2022, 1, 1);
+        Mockito.when(gitHubClient.streamPublicRepositories(Mockito.any(), Mockito.eq(language), Mockito.any()))
+               .thenReturn(Flux.range(0, 20).map(index -> RepositoryModel.builder().name("Spring-" + index).stars(20 - index).createdAt(createdOn.plusDays(index + 1).atStartOfDay()).build()));
+
+        repositoryProvider.findAllPublicRepositories(Optional.of(createdOn), language, Optional.of(50));
+        final List<RepositoryModel> result = repositoryProvider.findAllPublicRepositories(Optional.of(createdOn.plusDays(10)), language, Optional.of(5));
+
+        assertThat(result).extracting(RepositoryModel::getName).containsExactly("Spring-10", "Spring-11", "Spring-12", "Spring-13", "Spring-14");
+        Mockito.verify(gitHubClient, Mockito.times(1)).streamPublicRepositories(Mockito.any(), Mockito.eq(language), Mockito.any());
     }
 }
@@ -10,13 +10,16 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import reactor.core.publisher.Mono;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
-@SpringBootTest
+@SpringBootTest(properties = {"fallback.store.path=${java.io.tmpdir}/repository-api-gateway-test/${random.uuid}.jsonl", "cache.repositories.prewarm.enabled=false", "client.github.pool.warmupConnections=0"})
 public class RepositoryServiceIntegrationTest {
 
     static class RepositoryServiceIntegrationTestHelper {
@@ -64,7 +67,39 @@ public class RepositoryServiceIntegrationTest {
     void shouldBeAbleToFallBackToAnEmptyListInCaseOfError() {
         Mockito.when(repositoryProvider.findAllPublicRepositories(Mockito.any(), Mockito.any(), Mockito.any())).thenThrow(new RuntimeException("This exploded"));
 
-        final List<RepositoryDTO> dtos = service.findAllPublicRepositories(RepositorySearchRequestDTO.builder().build());
+        final List<RepositoryDTO> dtos = service.findAllPublicRepositories(RepositorySearchRequestDTO.builder().language(Optional.of(UUID.randomUUID().toString())).build());
+        assertThat(dtos).isEmpty();
+    }
+
+    @Test
+    void shouldBeAbleToFallBackToTheLastKnownGoodResponseFlaggedAsStale() {
+        final RepositorySearchRequestDTO request = RepositorySearchRequestDTO.builder().language(Optional.of(UUID.randomUUID().toString())).build();
+
+        Mockito.when(repositoryProvider.findAllPublicRepositories(Mockito.any(), Mockito.any(), Mockito.any())).thenReturn(RepositoryServiceIntegrationTestHelper.createMockList());
+        assertThat(service.findAllPublicRepositories(request)).allSatisfy(dto -> assertThat(dto.getStale()).isNull());
+
+        Mockito.when(repositoryProvider.findAllPublicRepositories(Mockito.any(), Mockito.any(), Mockito.any())).thenThrow(new RuntimeException("This exploded"));
+        final List<RepositoryDTO> dtos = service.findAllPublicRepositories(request);
+        assertThat(dtos).hasSize(1);
+        assertThat(dtos.get(0).getName()).isEqualTo("gateway-api");
+        assertThat(dtos.get(0).getStale()).isTrue();
+    }
+
+    @Test
+    void shouldBeAbleToReturnListOfRepositoriesDTOInCaseOfSuccessOnTheReactivePath() {
+        Mockito.when(repositoryProvider.findAllPublicRepositoriesReactive(Mockito.any(), Mockito.any(), Mockito.any())).thenReturn(Mono.just(RepositoryServiceIntegrationTestHelper.createMockList()));
+
+        final List<RepositoryDTO> dtos = service.findAllPublicRepositoriesReactive(RepositorySearchRequestDTO.builder().build()).block();
+        assertThat(dtos).hasSize(1);
+        assertThat(dtos.get(0).getName()).isEqualTo("gateway-api");
+        assertThat(dtos.get(0).getStars()).isEqualTo(5000);
+    }
+
+    @Test
+    void shouldBeAbleToFallBackToAnEmptyListInCaseOfErrorOnTheReactivePath() {
+        Mockito.when(repositoryProvider.findAllPublicRepositoriesReactive(Mockito.any(), Mockito.any(), Mockito.any())).thenReturn(Mono.error(new RuntimeException("This exploded")));
+
+        final List<RepositoryDTO> dtos = service.findAllPublicRepositoriesReactive(RepositorySearchRequestDTO.builder().language(Optional.of(UUID.randomUUID().toString())).build()).block();
         assertThat(dtos).isEmpty();
     }
 }
@@ -0,0 +1,93 @@
+package com.assoni.gateway.repositories.unit;
+
+import com.assoni.gateway.repositories.logic.concurrency.AdaptiveConcurrencyLimiter;
+import com.assoni.gateway.repositories.logic.concurrency.RepositoryOverloadException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class AdaptiveConcurrencyLimiterUnitTest {
+
+    static class AdaptiveConcurrencyLimiterUnitTestHelper {
+
+        public static AdaptiveConcurrencyLimiter createLimiter(final SimpleMeterRegistry registry, final int initialLimit, final long maxLatency) {
+            return new AdaptiveConcurrencyLimiter(registry, initialLimit, 1, 10, maxLatency, 0.5, 1000L);
+        }
+    }
+
+    @Test
+    void shouldShedCallsAboveTheLimitWithoutSubscribingThem() {
+        final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        final AdaptiveConcurrencyLimiter limiter = AdaptiveConcurrencyLimiterUnitTestHelper.createLimiter(registry, 2, 5000);
+        final Sinks.One<String> pending = Sinks.one();
+        final AtomicInteger subscriptions = new AtomicInteger();
+
+        limiter.limit(pending.asMono()).subscribe();
+        limiter.limit(pending.asMono()).subscribe();
+
+        assertThatThrownBy(() -> limiter.limit(Mono.fromCallable(subscriptions::incrementAndGet)).block())
+            .isInstanceOf(RepositoryOverloadException.class)
+            .satisfies(failure -> assertThat(((RepositoryOverloadException) failure).getRetryAfter()).isEqualTo(Duration.ofSeconds(1)));
+        assertThat(subscriptions).hasValue(0);
+        assertThat(registry.get("repository_concurrency_inflight").gauge().value()).isEqualTo(2);
+        assertThat(registry.get("repository_concurrency_shed_metric").counter().count()).isEqualTo(1);
+
+        pending.tryEmitValue("done");
+        assertThat(registry.get("repository_concurrency_inflight").gauge().value()).isZero();
+        assertThat(limiter.limit(Mono.just("accepted")).block()).isEqualTo("accepted");
+    }
+
+    @Test
+    void shouldGrowTheLimitWhileTheCallsAreFastAndUseIt() {
+        final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        final AdaptiveConcurrencyLimiter limiter = AdaptiveConcurrencyLimiterUnitTestHelper.createLimiter(registry, 1, 5000);
+
+        for(int call = 0; call < 20; call++) {
+            limiter.limit(() -> "fast");
+        }
+
+        assertThat(limiter.getLimit()).isGreaterThan(1);
+        assertThat(registry.get("repository_concurrency_limit").gauge().value()).isEqualTo(limiter.getLimit());
+    }
+
+    @Test
+    void shouldBackOffWhenTheCallsFail() {
+        final AdaptiveConcurrencyLimiter limiter = AdaptiveConcurrencyLimiterUnitTestHelper.createLimiter(new SimpleMeterRegistry(), 8, 5000);
+
+        assertThatThrownBy(() -> limiter.limit(Flux.error(new IllegalStateException("github down"))).blockLast()).isInstanceOf(IllegalStateException.class);
+        assertThat(limiter.getLimit()).isEqualTo(4);
+
+        assertThatThrownBy(() -> limiter.limit(() -> { throw new IllegalStateException("github down"); })).isInstanceOf(IllegalStateException.class);
+        assertThat(limiter.getLimit()).isEqualTo(2);
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    void shouldBackOffWhenTheCallsAreSlowerThanTheMaxLatency() {
+        final AdaptiveConcurrencyLimiter limiter = AdaptiveConcurrencyLimiterUnitTestHelper.createLimiter(new SimpleMeterRegistry(), 8, 10);
+
+        limiter.limit(Mono.delay(Duration.ofMillis(50))).block();
+
+        assertThat(limiter.getLimit()).isEqualTo(4);
+    }
+
+    @Test
+    void shouldNeverGoBelowTheMinLimit() {
+        final AdaptiveConcurrencyLimiter limiter = AdaptiveConcurrencyLimiterUnitTestHelper.createLimiter(new SimpleMeterRegistry(), 2, 5000);
+
+        for(int call = 0; call < 5; call++) {
+            limiter.limit(Mono.error(new IllegalStateException("github down"))).onErrorResume(failure -> Mono.empty()).block();
+        }
+
+        assertThat(limiter.getLimit()).isEqualTo(1);
+        assertThat(limiter.limit(Mono.just("accepted")).block()).isEqualTo("accepted");
+    }
+}
@@ -1,20 +1,89 @@
 package com.assoni.gateway.repositories.unit;
 
 import com.assoni.gateway.repositories.logic.api.GitHubClient;
+import com.assoni.gateway.repositories.logic.api.GitHubNotModifiedException;
+import com.assoni.gateway.repositories.logic.api.GitHubResponseValidators;
+import com.assoni.gateway.repositories.logic.metrics.RepositoryLatencyMetrics;
+import com.assoni.gateway.repositories.logic.model.RepositoryModel;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.web.reactive.function.client.WebClient;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 public class GitHubClientUnitTest {
 
+    static class GitHubClientUnitTestHelper {
+        public static final String ETAG = "\"a1b2c3\"";
+        public static final String BODY = "{\"total_count\":1,\"items\":[{\"name\":\"spring\",\"language\":\"java\",\"stargazers_count\":10,\"owner\":{\"login\":\"pivotal\"}}]}";
+
+        /**
+         * Github answering 304 when If-None-Match holds the current ETag, every If-None-Match received is kept in the list.
+         * */
+        public static HttpServer createServer(final List<String> ifNoneMatches) throws IOException {
+            final HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.createContext("/repositories", exchange -> {
+                final String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+                ifNoneMatches.add(String.valueOf(ifNoneMatch));
+                exchange.getResponseHeaders().add("ETag", ETAG);
+
+                if(ETAG.equals(ifNoneMatch)) {
+                    exchange.sendResponseHeaders(304, -1);
+                } else {
+                    final byte[] body = BODY.getBytes(StandardCharsets.UTF_8);
+                    exchange.getResponseHeaders().add("Content-Type", "application/json");
+                    exchange.sendResponseHeaders(200, body.length);
+                    try (OutputStream output = exchange.getResponseBody()) {
+                        output.write(body);
+                    }
+                }
+                exchange.close();
+            });
+            server.start();
+            return server;
+        }
+    }
+
+    @Test
+    void shouldRevalidateTheSearchWithTheETagOfTheLastResponse() throws IOException {
+        final List<String> ifNoneMatches = new CopyOnWriteArrayList<>();
+        final HttpServer server = GitHubClientUnitTestHelper.createServer(ifNoneMatches);
+        try {
+            final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+            final GitHubClient client = new GitHubClient(WebClient.create("http://localhost:" + server.getAddress().getPort() + "/"),
+                                                         new RepositoryLatencyMetrics(registry, List.of("java")),
+                                                         new GitHubResponseValidators(registry, "maximumSize=100"));
+
+            final List<RepositoryModel> fetched = client.streamPublicRepositories(Optional.empty(), Optional.of("java"), Optional.of(30)).collectList().block();
+            final List<RepositoryModel> unconditional = client.streamPublicRepositories(Optional.empty(), Optional.of("java"), Optional.of(30)).collectList().block();
+
+            assertThat(fetched).extracting(RepositoryModel::getName).containsExactly("spring");
+            assertThat(unconditional).extracting(RepositoryModel::getName).containsExactly("spring");
+            assertThatThrownBy(() -> client.streamPublicRepositories(Optional.empty(), Optional.of("java"), Optional.of(30)).contextWrite(GitHubClient::revalidate).collectList().block())
+                .isInstanceOf(GitHubNotModifiedException.class);
+
+            assertThat(ifNoneMatches).containsExactly("null", "null", GitHubClientUnitTestHelper.ETAG);
+            assertThat(registry.get("repository_github_conditional_metric").tag("result", "not_modified").counter().count()).isEqualTo(1);
+        } finally {
+            server.stop(0);
+        }
+    }
+
     @Test
     void shouldBeAbleToCreateQueryWhenCreatedOnAndLanguageWereNotSent() {
-        final StringBuilder builder = new GitHubClient(Mockito.mock(WebClient.class)).createFiltersForQuery(Optional.empty(), Optional.empty());
+        final StringBuilder builder = new GitHubClient(Mockito.mock(WebClient.class), Mockito.mock(RepositoryLatencyMetrics.class), Mockito.mock(GitHubResponseValidators.class)).createFiltersForQuery(Optional.empty(), Optional.empty());
 
         assertThat(builder.toString()).isEqualTo("a");
     }
@@ -22,14 +91,14 @@ public class GitHubClientUnitTest {
     @Test
     void shouldBeAbleToCreateQueryWhenOnlyTheCreatedOnWasSent() {
         final LocalDate date = LocalDate.now();
-        final StringBuilder builder = new GitHubClient(Mockito.mock(WebClient.class)).createFiltersForQuery(Optional.of(date), Optional.empty());
+        final StringBuilder builder = new GitHubClient(Mockito.mock(WebClient.class), Mockito.mock(RepositoryLatencyMetrics.class), Mockito.mock(GitHubResponseValidators.class)).createFiltersForQuery(Optional.of(date), Optional.empty());
 
         assertThat(builder.toString()).isEqualTo("created:>"+date.toString());
     }
 
     @Test
     void shouldBeAbleToCreateQueryWhenOnlyTheLanguageWasSent() {
-        final StringBuilder builder = new GitHubClient(Mockito.mock(WebClient.class)).createFiltersForQuery(Optional.empty(), Optional.of("JAVA"));
+        final StringBuilder builder = new GitHubClient(Mockito.mock(WebClient.class), Mockito.mock(RepositoryLatencyMetrics.class), Mockito.mock(GitHubResponseValidators.class)).createFiltersForQuery(Optional.empty(), Optional.of("JAVA"));
 
         assertThat(builder.toString()).isEqualTo("language:JAVA");
     }
@@ -37,7 +106,7 @@ public class GitHubClientUnitTest {
     @Test
     void shouldBeAbleToCreateQueryWhenBothLanguageAndCreatedOnWereSent() {
         final LocalDate date = LocalDate.now();
-        final StringBuilder builder = new GitHubClient(Mockito.mock(WebClient.class)).createFiltersForQuery(Optional.of(date), Optional.of("JAVA"));
+        final StringBuilder builder = new GitHubClient(Mockito.mock(WebClient.class), Mockito.mock(RepositoryLatencyMetrics.class), Mockito.mock(GitHubResponseValidators.class)).createFiltersForQuery(Optional.of(date), Optional.of("JAVA"));
 
         assertThat(builder.toString()).isEqualTo("created:>"+date.toString()+"+language:JAVA");
     }
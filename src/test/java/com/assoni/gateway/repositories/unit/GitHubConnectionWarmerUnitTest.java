@@ -0,0 +1,77 @@
+package com.assoni.gateway.repositories.unit;
+
+import com.assoni.gateway.repositories.logic.api.GitHubConnectionWarmer;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class GitHubConnectionWarmerUnitTest {
+
+    static class GitHubConnectionWarmerUnitTestHelper {
+
+        public static HttpServer createServer(final AtomicInteger heads) throws IOException {
+            final HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.createContext("/", exchange -> {
+                if("HEAD".equals(exchange.getRequestMethod())) {
+                    heads.incrementAndGet();
+                }
+                exchange.sendResponseHeaders(404, -1);
+                exchange.close();
+            });
+            server.start();
+            return server;
+        }
+    }
+
+    private HttpServer server;
+    private ConnectionProvider connectionProvider;
+
+    @AfterEach
+    void stop() {
+        if(server != null) {
+            server.stop(0);
+        }
+        if(connectionProvider != null) {
+            connectionProvider.dispose();
+        }
+    }
+
+    @Test
+    void shouldOpenTheConfiguredAmountOfConnections() throws IOException {
+        final AtomicInteger heads = new AtomicInteger();
+        server = GitHubConnectionWarmerUnitTestHelper.createServer(heads);
+        connectionProvider = ConnectionProvider.create("github-test", 10);
+
+        final GitHubConnectionWarmer warmer = new GitHubConnectionWarmer(HttpClient.create(connectionProvider), "http://localhost:" + server.getAddress().getPort() + "/", 3, 5000L);
+
+        assertThat(warmer.warm().block()).isEqualTo(3);
+        assertThat(heads).hasValue(3);
+    }
+
+    @Test
+    void shouldIgnoreFailuresWhileWarming() {
+        connectionProvider = ConnectionProvider.create("github-test", 10);
+
+        final GitHubConnectionWarmer warmer = new GitHubConnectionWarmer(HttpClient.create(connectionProvider), "http://localhost:1/", 2, 5000L);
+
+        assertThat(warmer.warm().block()).isZero();
+    }
+
+    @Test
+    void shouldOnlyOpenOneConnectionWhenTheCallsAreMultiplexed() {
+        connectionProvider = ConnectionProvider.create("github-test", 10);
+
+        assertThat(new GitHubConnectionWarmer(HttpClient.create(connectionProvider).protocol(HttpProtocol.H2, HttpProtocol.HTTP11), "https://api.github.com/", 4, 5000L).getConnections()).isEqualTo(1);
+        assertThat(new GitHubConnectionWarmer(HttpClient.create(connectionProvider).protocol(HttpProtocol.H2, HttpProtocol.HTTP11), "http://localhost:1/", 4, 5000L).getConnections()).isEqualTo(4);
+        assertThat(new GitHubConnectionWarmer(HttpClient.create(connectionProvider), "https://api.github.com/", 4, 5000L).getConnections()).isEqualTo(4);
+    }
+}
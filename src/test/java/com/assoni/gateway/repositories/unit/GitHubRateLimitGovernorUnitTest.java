@@ -0,0 +1,88 @@
+package com.assoni.gateway.repositories.unit;
+
+import com.assoni.gateway.repositories.logic.api.GitHubRateLimitException;
+import com.assoni.gateway.repositories.logic.api.GitHubRateLimitGovernor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class GitHubRateLimitGovernorUnitTest {
+    private static final Instant NOW = Instant.parse("2022-06-01T10:00:00Z");
+
+    private static GitHubRateLimitGovernor createGovernor(final SimpleMeterRegistry registry, final long limit, final int burst, final long maxWait) {
+        return new GitHubRateLimitGovernor(registry, Clock.fixed(NOW, ZoneOffset.UTC), limit, 60_000, burst, 0.2, maxWait);
+    }
+
+    private static HttpHeaders rateLimitHeaders(final long limit, final long remaining, final Instant reset) {
+        final HttpHeaders headers = new HttpHeaders();
+        headers.add("X-RateLimit-Limit", String.valueOf(limit));
+        headers.add("X-RateLimit-Remaining", String.valueOf(remaining));
+        headers.add("X-RateLimit-Reset", String.valueOf(reset.getEpochSecond()));
+        return headers;
+    }
+
+    @Test
+    void shouldLetCallsGoWhileThereAreTokens() {
+        final GitHubRateLimitGovernor governor = createGovernor(new SimpleMeterRegistry(), 30, 2, 0);
+
+        governor.acquire(GitHubRateLimitGovernor.Priority.INTERACTIVE).block();
+        governor.acquire(GitHubRateLimitGovernor.Priority.INTERACTIVE).block();
+
+        assertThatThrownBy(() -> governor.acquire(GitHubRateLimitGovernor.Priority.INTERACTIVE).block()).isInstanceOf(GitHubRateLimitException.class);
+    }
+
+    @Test
+    void shouldTrackTheBudgetReportedByGitHub() {
+        final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        final GitHubRateLimitGovernor governor = createGovernor(registry, 30, 5, 0);
+
+        governor.update(rateLimitHeaders(30, 12, NOW.plusSeconds(40)));
+
+        assertThat(registry.get("repository_github_rate_limit_remaining").gauge().value()).isEqualTo(12);
+        assertThat(registry.get("repository_github_rate_limit_limit").gauge().value()).isEqualTo(30);
+        assertThat(registry.get("repository_github_rate_limit_reset_seconds").gauge().value()).isEqualTo(40);
+    }
+
+    @Test
+    void shouldShedBackgroundCallsWhenTheBudgetIsBelowTheReserve() {
+        final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        final GitHubRateLimitGovernor governor = createGovernor(registry, 30, 5, 0);
+        governor.update(rateLimitHeaders(30, 5, NOW.plusSeconds(40)));
+
+        assertThatThrownBy(() -> governor.acquire(GitHubRateLimitGovernor.Priority.BACKGROUND).block()).isInstanceOf(GitHubRateLimitException.class);
+        governor.acquire(GitHubRateLimitGovernor.Priority.INTERACTIVE).block();
+
+        assertThat(registry.get("repository_github_rate_limit_shed_metric").tag("priority", "background").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldTellWhenTheShedCallsCanBeRetried() {
+        final GitHubRateLimitGovernor governor = createGovernor(new SimpleMeterRegistry(), 30, 1, 0);
+        governor.acquire(GitHubRateLimitGovernor.Priority.INTERACTIVE).block();
+
+        assertThatThrownBy(() -> governor.acquire(GitHubRateLimitGovernor.Priority.INTERACTIVE).block())
+            .isInstanceOf(GitHubRateLimitException.class)
+            .satisfies(failure -> assertThat(((GitHubRateLimitException) failure).getRetryAfter()).isEqualTo(Duration.ofSeconds(2)));
+
+        governor.update(rateLimitHeaders(30, 5, NOW.plusSeconds(40)));
+        assertThatThrownBy(() -> governor.acquire(GitHubRateLimitGovernor.Priority.BACKGROUND).block())
+            .isInstanceOf(GitHubRateLimitException.class)
+            .satisfies(failure -> assertThat(((GitHubRateLimitException) failure).getRetryAfter()).isEqualTo(Duration.ofSeconds(40)));
+    }
+
+    @Test
+    void shouldNeverHoldMoreTokensThanTheRemainingBudget() {
+        final GitHubRateLimitGovernor governor = createGovernor(new SimpleMeterRegistry(), 30, 5, 0);
+        governor.update(rateLimitHeaders(30, 0, NOW.plusSeconds(40)));
+
+        assertThatThrownBy(() -> governor.acquire(GitHubRateLimitGovernor.Priority.INTERACTIVE).block()).isInstanceOf(GitHubRateLimitException.class);
+    }
+}
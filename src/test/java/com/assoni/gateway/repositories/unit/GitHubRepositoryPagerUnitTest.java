@@ -0,0 +1,120 @@
+package com.assoni.gateway.repositories.unit;
+
+import com.assoni.gateway.repositories.logic.GitHubRepositoryPager;
+import com.assoni.gateway.repositories.logic.api.GitHubClient;
+import com.assoni.gateway.repositories.logic.api.GitHubNotModifiedException;
+import com.assoni.gateway.repositories.logic.api.GitHubRateLimitGovernor;
+import com.assoni.gateway.repositories.logic.api.GitHubRateLimitGovernor.Priority;
+import com.assoni.gateway.repositories.logic.model.RepositoryModel;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class GitHubRepositoryPagerUnitTest {
+
+    static class GitHubRepositoryPagerUnitTestHelper {
+
+        public static Flux<RepositoryModel> createFakePage(final int page, final int perPage) {
+            return Flux.fromStream(IntStream.range(0, perPage).mapToObj(index -> RepositoryModel.builder().name("repository-" + ((page - 1) * perPage + index)).stars(100_000 - ((page - 1) * perPage + index)).build()));
+        }
+
+        public static GitHubClient createClientServingPages() {
+            final GitHubClient gitHubClient = Mockito.mock(GitHubClient.class);
+            Mockito.when(gitHubClient.streamPublicRepositories(Mockito.any(), Mockito.any(), Mockito.anyInt(), Mockito.anyInt()))
+                   .thenAnswer(invocation -> createFakePage(invocation.getArgument(2), invocation.getArgument(3)));
+            return gitHubClient;
+        }
+    }
+
+    @Test
+    void shouldFetchSizesThatFitInOnePageWithASingleCall() {
+        final GitHubClient gitHubClient = GitHubRepositoryPagerUnitTestHelper.createClientServingPages();
+        Mockito.when(gitHubClient.streamPublicRepositories(Mockito.any(), Mockito.any(), Mockito.any())).thenReturn(GitHubRepositoryPagerUnitTestHelper.createFakePage(1, 50));
+        final GitHubRepositoryPager pager = new GitHubRepositoryPager(gitHubClient, new SimpleMeterRegistry(), 100, 1000, 4, "maximumSize=100");
+
+        assertThat(pager.streamPublicRepositories(Optional.empty(), Optional.of("java"), Optional.of(50)).collectList().block()).hasSize(50);
+        Mockito.verify(gitHubClient, Mockito.never()).streamPublicRepositories(Mockito.any(), Mockito.any(), Mockito.anyInt(), Mockito.anyInt());
+    }
+
+    @Test
+    void shouldSplitBigSizesInPagesKeepingTheStarOrder() {
+        final GitHubClient gitHubClient = GitHubRepositoryPagerUnitTestHelper.createClientServingPages();
+        final GitHubRepositoryPager pager = new GitHubRepositoryPager(gitHubClient, new SimpleMeterRegistry(), 100, 1000, 4, "maximumSize=100");
+
+        final List<RepositoryModel> result = pager.streamPublicRepositories(Optional.empty(), Optional.of("java"), Optional.of(250)).collectList().block();
+
+        assertThat(result).hasSize(250);
+        assertThat(result).extracting(RepositoryModel::getStars).isSortedAccordingTo((first, second) -> second - first);
+        Mockito.verify(gitHubClient, Mockito.times(3)).streamPublicRepositories(Mockito.any(), Mockito.any(), Mockito.anyInt(), Mockito.eq(100));
+    }
+
+    @Test
+    void shouldReuseCachedPagesForOverlappingSizes() {
+        final GitHubClient gitHubClient = GitHubRepositoryPagerUnitTestHelper.createClientServingPages();
+        final GitHubRepositoryPager pager = new GitHubRepositoryPager(gitHubClient, new SimpleMeterRegistry(), 100, 1000, 4, "maximumSize=100");
+
+        pager.streamPublicRepositories(Optional.empty(), Optional.of("java"), Optional.of(300)).collectList().block();
+        pager.streamPublicRepositories(Optional.empty(), Optional.of("java"), Optional.of(150)).collectList().block();
+
+        Mockito.verify(gitHubClient, Mockito.times(3)).streamPublicRepositories(Mockito.any(), Mockito.any(), Mockito.anyInt(), Mockito.anyInt());
+    }
+
+    @Test
+    void shouldNotAskForMoreThanTheResultsGitHubServes() {
+        final GitHubClient gitHubClient = GitHubRepositoryPagerUnitTestHelper.createClientServingPages();
+        final GitHubRepositoryPager pager = new GitHubRepositoryPager(gitHubClient, new SimpleMeterRegistry(), 100, 1000, 4, "maximumSize=100");
+
+        assertThat(pager.streamPublicRepositories(Optional.empty(), Optional.of("java"), Optional.of(5000)).collectList().block()).hasSize(1000);
+        Mockito.verify(gitHubClient, Mockito.times(10)).streamPublicRepositories(Mockito.any(), Mockito.any(), Mockito.anyInt(), Mockito.anyInt());
+    }
+
+    @Test
+    void shouldFetchThePagesWithThePriorityOfTheCaller() {
+        final GitHubClient gitHubClient = Mockito.mock(GitHubClient.class);
+        final List<Priority> priorities = new CopyOnWriteArrayList<>();
+        Mockito.when(gitHubClient.streamPublicRepositories(Mockito.any(), Mockito.any(), Mockito.anyInt(), Mockito.anyInt()))
+               .thenAnswer(invocation -> Flux.deferContextual(context -> {
+                   priorities.add(context.getOrDefault(Priority.class, Priority.INTERACTIVE));
+                   return GitHubRepositoryPagerUnitTestHelper.createFakePage(invocation.getArgument(2), invocation.getArgument(3));
+               }));
+        final GitHubRepositoryPager pager = new GitHubRepositoryPager(gitHubClient, new SimpleMeterRegistry(), 100, 1000, 4, "maximumSize=100");
+
+        pager.streamPublicRepositories(Optional.empty(), Optional.of("java"), Optional.of(250)).contextWrite(GitHubRateLimitGovernor::background).collectList().block();
+
+        assertThat(priorities).hasSize(3).containsOnly(Priority.BACKGROUND);
+    }
+
+    @Test
+    void shouldFetchThePagesAgainWhenTheSearchIsRefreshedOrWarmed() {
+        final GitHubClient gitHubClient = GitHubRepositoryPagerUnitTestHelper.createClientServingPages();
+        final GitHubRepositoryPager pager = new GitHubRepositoryPager(gitHubClient, new SimpleMeterRegistry(), 100, 1000, 4, "maximumSize=100");
+
+        pager.streamPublicRepositories(Optional.empty(), Optional.of("java"), Optional.of(200)).collectList().block();
+        pager.streamPublicRepositories(Optional.empty(), Optional.of("java"), Optional.of(200)).contextWrite(GitHubClient::revalidate).collectList().block();
+        pager.streamPublicRepositories(Optional.empty(), Optional.of("java"), Optional.of(200)).contextWrite(GitHubRateLimitGovernor::background).collectList().block();
+        pager.streamPublicRepositories(Optional.empty(), Optional.of("java"), Optional.of(200)).collectList().block();
+
+        Mockito.verify(gitHubClient, Mockito.times(6)).streamPublicRepositories(Mockito.any(), Mockito.any(), Mockito.anyInt(), Mockito.anyInt());
+    }
+
+    @Test
+    void shouldAnswerTheCachedPageWhenGitHubDidNotModifyIt() {
+        final GitHubClient gitHubClient = GitHubRepositoryPagerUnitTestHelper.createClientServingPages();
+        final GitHubRepositoryPager pager = new GitHubRepositoryPager(gitHubClient, new SimpleMeterRegistry(), 100, 1000, 4, "maximumSize=100");
+        final List<RepositoryModel> cached = pager.streamPublicRepositories(Optional.empty(), Optional.of("java"), Optional.of(200)).collectList().block();
+
+        Mockito.when(gitHubClient.streamPublicRepositories(Mockito.any(), Mockito.any(), Mockito.eq(1), Mockito.anyInt())).thenReturn(Flux.error(new GitHubNotModifiedException("not modified")));
+
+        assertThat(pager.streamPublicRepositories(Optional.empty(), Optional.of("java"), Optional.of(200)).contextWrite(GitHubClient::revalidate).collectList().block())
+            .extracting(RepositoryModel::getName)
+            .containsExactlyElementsOf(cached.stream().map(RepositoryModel::getName).toList());
+    }
+}
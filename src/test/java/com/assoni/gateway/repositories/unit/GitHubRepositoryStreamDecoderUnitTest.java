@@ -0,0 +1,112 @@
+package com.assoni.gateway.repositories.unit;
+
+import com.assoni.gateway.repositories.logic.api.GitHubRepositoryStreamDecoder;
+import com.assoni.gateway.repositories.logic.model.RepositoryModel;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.codec.DecodingException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class GitHubRepositoryStreamDecoderUnitTest {
+
+    static class GitHubRepositoryStreamDecoderUnitTestHelper {
+
+        public static byte[] createFakeGitHubResponse() {
+            return """
+                {
+                  "total_count": 2,
+                  "incomplete_results": false,
+                  "items": [
+                    {
+                      "id": 1,
+                      "name": "Spring",
+                      "owner": { "login": "pivotal", "id": 3, "plan": { "login": "ignored" } },
+                      "url": "NOP",
+                      "description": "spring framework",
+                      "topics": ["java", { "name": "ignored" }],
+                      "license": { "name": "Apache" },
+                      "created_at": "2011-01-26T19:01:12Z",
+                      "stargazers_count": 5,
+                      "language": "java"
+                    },
+                    {
+                      "name": "GoLand",
+                      "owner": { "login": "google" },
+                      "description": null,
+                      "stargazers_count": 3,
+                      "language": null,
+                      "created_at": "2012-01-26T19:01:12Z"
+                    }
+                  ]
+                }
+                """.getBytes(StandardCharsets.UTF_8);
+        }
+
+        public static List<RepositoryModel> decodeInChunksOf(final byte[] body, final int chunkSize) {
+            final GitHubRepositoryStreamDecoder decoder = new GitHubRepositoryStreamDecoder();
+            final List<RepositoryModel> repositories = new ArrayList<>();
+
+            for(int offset = 0; offset < body.length; offset += chunkSize) {
+                repositories.addAll(decoder.decode(body, offset, Math.min(chunkSize, body.length - offset)));
+            }
+            repositories.addAll(decoder.complete());
+
+            return repositories;
+        }
+    }
+
+    @Test
+    void shouldBeAbleToMapFieldsFromTheResponseToTheModel() {
+        final List<RepositoryModel> result = GitHubRepositoryStreamDecoderUnitTestHelper.decodeInChunksOf(GitHubRepositoryStreamDecoderUnitTestHelper.createFakeGitHubResponse(), 4096);
+
+        assertThat(result).hasSize(2);
+        assertThat(result.get(0)).satisfies(con -> {
+            assertThat(con.getOwner()).isEqualTo("pivotal");
+            assertThat(con.getName()).isEqualTo("Spring");
+            assertThat(con.getStars()).isEqualTo(5);
+            assertThat(con.getCreatedAt()).isEqualTo(LocalDateTime.of(2011, 1, 26, 19, 1, 12));
+            assertThat(con.getLanguage()).isEqualTo("java");
+            assertThat(con.getDescription()).isEqualTo("spring framework");
+            assertThat(con.getUrl()).isEqualTo("NOP");
+        });
+        assertThat(result.get(1)).satisfies(con -> {
+            assertThat(con.getOwner()).isEqualTo("google");
+            assertThat(con.getLanguage()).isNull();
+            assertThat(con.getDescription()).isNull();
+        });
+    }
+
+    @Test
+    void shouldDecodeTheSameRepositoriesNoMatterHowTheBodyIsSplit() {
+        final byte[] body = GitHubRepositoryStreamDecoderUnitTestHelper.createFakeGitHubResponse();
+
+        for(int chunkSize : new int[] {1, 3, 7, 64}) {
+            assertThat(GitHubRepositoryStreamDecoderUnitTestHelper.decodeInChunksOf(body, chunkSize)).extracting(RepositoryModel::getName).containsExactly("Spring", "GoLand");
+        }
+    }
+
+    @Test
+    void shouldEmitEachRepositoryAsSoonAsItIsComplete() {
+        final byte[] body = GitHubRepositoryStreamDecoderUnitTestHelper.createFakeGitHubResponse();
+        final int endOfFirstRepository = new String(body, StandardCharsets.UTF_8).indexOf("\"language\": \"java\"") + 30;
+
+        final GitHubRepositoryStreamDecoder decoder = new GitHubRepositoryStreamDecoder();
+        assertThat(decoder.decode(body, 0, endOfFirstRepository)).extracting(RepositoryModel::getName).containsExactly("Spring");
+    }
+
+    @Test
+    void shouldFailWhenTheResponseIsTruncated() {
+        final byte[] body = GitHubRepositoryStreamDecoderUnitTestHelper.createFakeGitHubResponse();
+
+        final GitHubRepositoryStreamDecoder decoder = new GitHubRepositoryStreamDecoder();
+        decoder.decode(body, 0, body.length / 2);
+
+        assertThatThrownBy(decoder::complete).isInstanceOf(DecodingException.class);
+    }
+}
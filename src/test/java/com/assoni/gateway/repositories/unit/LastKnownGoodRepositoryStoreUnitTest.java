@@ -0,0 +1,126 @@
+package com.assoni.gateway.repositories.unit;
+
+import com.assoni.gateway.repositories.dto.RepositoryDTO;
+import com.assoni.gateway.repositories.dto.RepositorySearchRequestDTO;
+import com.assoni.gateway.repositories.service.LastKnownGoodRepositoryStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LastKnownGoodRepositoryStoreUnitTest {
+    private static final long ONE_HOUR = 3_600_000L;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules().disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @TempDir
+    Path folder;
+
+    private static RepositorySearchRequestDTO javaSearch() {
+        return RepositorySearchRequestDTO.builder().language(Optional.of("java")).createdOn(Optional.empty()).size(Optional.of(50)).build();
+    }
+
+    private static List<RepositoryDTO> springRepositories() {
+        return List.of(RepositoryDTO.builder().name("Spring").language("java").owner("pivotal").stars(600).createdAt(LocalDateTime.of(2020, 1, 10, 10, 0)).build());
+    }
+
+    @Test
+    @SneakyThrows
+    void shouldServeTheLastKnownGoodResponseAfterARestart() {
+        final Path file = folder.resolve("last-known-good.jsonl");
+        final Clock clock = Clock.fixed(Instant.parse("2022-06-01T10:00:00Z"), ZoneOffset.UTC);
+
+        final LastKnownGoodRepositoryStore store = new LastKnownGoodRepositoryStore(objectMapper, file, ONE_HOUR, 0, 1000, 100, clock);
+        store.record(javaSearch(), springRepositories());
+        store.close();
+        assertThat(Files.readAllLines(file)).hasSize(1);
+
+        final LastKnownGoodRepositoryStore restarted = new LastKnownGoodRepositoryStore(objectMapper, file, ONE_HOUR, 0, 1000, 100, clock);
+        restarted.load().get(5, TimeUnit.SECONDS);
+        assertThat(restarted.find(javaSearch())).isPresent().get().satisfies(repositories -> {
+            assertThat(repositories).hasSize(1);
+            assertThat(repositories.get(0).getName()).isEqualTo("Spring");
+            assertThat(repositories.get(0).getCreatedAt()).isEqualTo(LocalDateTime.of(2020, 1, 10, 10, 0));
+            assertThat(repositories.get(0).getStale()).isTrue();
+        });
+        restarted.close();
+    }
+
+    @Test
+    @SneakyThrows
+    void shouldNotServeSearchesOlderThanTheTtl() {
+        final Path file = folder.resolve("last-known-good.jsonl");
+
+        final LastKnownGoodRepositoryStore store = new LastKnownGoodRepositoryStore(objectMapper, file, ONE_HOUR, 0, 1000, 100, Clock.fixed(Instant.parse("2022-06-01T10:00:00Z"), ZoneOffset.UTC));
+        store.record(javaSearch(), springRepositories());
+        store.close();
+
+        final LastKnownGoodRepositoryStore restarted = new LastKnownGoodRepositoryStore(objectMapper, file, ONE_HOUR, 0, 1000, 100, Clock.fixed(Instant.parse("2022-06-01T12:00:00Z"), ZoneOffset.UTC));
+        restarted.load().get(5, TimeUnit.SECONDS);
+        assertThat(restarted.find(javaSearch())).isEmpty();
+        restarted.close();
+    }
+
+    @Test
+    @SneakyThrows
+    void shouldNotServeSearchesThatWereNeverAnswered() {
+        final LastKnownGoodRepositoryStore store = new LastKnownGoodRepositoryStore(objectMapper, folder.resolve("last-known-good.jsonl"), ONE_HOUR, 0, 1000, 100, Clock.systemUTC());
+
+        assertThat(store.find(javaSearch())).isEmpty();
+        store.close();
+    }
+
+    @Test
+    @SneakyThrows
+    void shouldAnswerFromMemoryWhileTheFileIsReplayed() {
+        final Path file = folder.resolve("last-known-good.jsonl");
+        final Clock clock = Clock.fixed(Instant.parse("2022-06-01T10:00:00Z"), ZoneOffset.UTC);
+        final RepositorySearchRequestDTO kotlinSearch = RepositorySearchRequestDTO.builder().language(Optional.of("kotlin")).createdOn(Optional.empty()).size(Optional.of(50)).build();
+
+        final LastKnownGoodRepositoryStore store = new LastKnownGoodRepositoryStore(objectMapper, file, ONE_HOUR, 0, 1000, 100, clock);
+        store.record(javaSearch(), springRepositories());
+        store.close();
+
+        final LastKnownGoodRepositoryStore restarted = new LastKnownGoodRepositoryStore(objectMapper, file, ONE_HOUR, 0, 1000, 100, clock);
+        restarted.record(kotlinSearch, springRepositories());
+        assertThat(restarted.find(kotlinSearch)).isPresent();
+
+        restarted.load().get(5, TimeUnit.SECONDS);
+        assertThat(restarted.find(javaSearch())).isPresent();
+        assertThat(restarted.find(kotlinSearch)).isPresent();
+        restarted.close();
+    }
+
+    @Test
+    @SneakyThrows
+    void shouldOnlyRecordTheStreamedSearchesUpToTheBound() {
+        final RepositorySearchRequestDTO kotlinSearch = RepositorySearchRequestDTO.builder().language(Optional.of("kotlin")).createdOn(Optional.empty()).size(Optional.of(50)).build();
+        final LastKnownGoodRepositoryStore store = new LastKnownGoodRepositoryStore(objectMapper, folder.resolve("last-known-good.jsonl"), ONE_HOUR, 0, 1000, 2, Clock.systemUTC());
+
+        final LastKnownGoodRepositoryStore.StreamedSearch small = store.streamed(javaSearch());
+        springRepositories().forEach(small::add);
+        small.record();
+
+        final LastKnownGoodRepositoryStore.StreamedSearch big = store.streamed(kotlinSearch);
+        IntStream.range(0, 3).forEach(index -> big.add(RepositoryDTO.builder().name("Kotlin-" + index).build()));
+        big.record();
+
+        assertThat(store.find(javaSearch())).isPresent().get().satisfies(repositories -> assertThat(repositories).hasSize(1));
+        assertThat(store.find(kotlinSearch)).isEmpty();
+        store.close();
+    }
+}
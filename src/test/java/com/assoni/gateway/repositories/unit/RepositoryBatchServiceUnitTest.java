@@ -0,0 +1,100 @@
+package com.assoni.gateway.repositories.unit;
+
+import com.assoni.gateway.repositories.dto.RepositoryBatchResultDTO;
+import com.assoni.gateway.repositories.dto.RepositoryDTO;
+import com.assoni.gateway.repositories.dto.RepositorySearchRequestDTO;
+import com.assoni.gateway.repositories.logic.concurrency.RepositoryOverloadException;
+import com.assoni.gateway.repositories.service.RepositoryBatchService;
+import com.assoni.gateway.repositories.service.RepositoryService;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class RepositoryBatchServiceUnitTest {
+
+    static class RepositoryBatchServiceUnitTestHelper {
+
+        public static RepositorySearchRequestDTO search(final String language) {
+            return RepositorySearchRequestDTO.builder().language(Optional.of(language)).build();
+        }
+
+        public static RepositoryService createService() {
+            final RepositoryService service = Mockito.mock(RepositoryService.class);
+            Mockito.when(service.findAllPublicRepositoriesReactive(Mockito.any())).thenAnswer(invocation -> {
+                final RepositorySearchRequestDTO search = invocation.getArgument(0, RepositorySearchRequestDTO.class);
+                if(search.getLanguage().equals(Optional.of("cobol"))) {
+                    return Mono.error(new IllegalStateException("no fallback"));
+                }
+                if(search.getLanguage().equals(Optional.of("fortran"))) {
+                    return Mono.error(new RepositoryOverloadException("shed", Duration.ofSeconds(1)));
+                }
+                return Mono.just(List.of(RepositoryDTO.builder().name(search.getLanguage().get() + "-" + search.getSize().get()).build()));
+            });
+            return service;
+        }
+    }
+
+    @Test
+    void shouldResolveIdenticalSearchesOnceAndAnswerEveryPosition() {
+        final RepositoryService service = RepositoryBatchServiceUnitTestHelper.createService();
+        final RepositoryBatchService batchService = new RepositoryBatchService(service, 10, 4);
+
+        final List<RepositoryBatchResultDTO> results = batchService.findAllPublicRepositories(List.of(RepositoryBatchServiceUnitTestHelper.search("java"),
+                                                                                                      RepositoryBatchServiceUnitTestHelper.search("kotlin"),
+                                                                                                      RepositoryBatchServiceUnitTestHelper.search("java")))
+                                                                   .collectSortedList(Comparator.comparingInt(RepositoryBatchResultDTO::getIndex))
+                                                                   .block();
+
+        assertThat(results).extracting(RepositoryBatchResultDTO::getIndex).containsExactly(0, 1, 2);
+        assertThat(results).extracting(result -> result.getRepositories().get(0).getName()).containsExactly("java-50", "kotlin-50", "java-50");
+        Mockito.verify(service, Mockito.times(2)).findAllPublicRepositoriesReactive(Mockito.any());
+    }
+
+    @Test
+    void shouldResolveSearchesOnlyDifferingByTheCaseOfTheLanguageOnce() {
+        final RepositoryService service = RepositoryBatchServiceUnitTestHelper.createService();
+        final RepositoryBatchService batchService = new RepositoryBatchService(service, 10, 4);
+
+        final List<RepositoryBatchResultDTO> results = batchService.findAllPublicRepositories(List.of(RepositoryBatchServiceUnitTestHelper.search("java"),
+                                                                                                      RepositoryBatchServiceUnitTestHelper.search("Java")))
+                                                                   .collectList()
+                                                                   .block();
+
+        assertThat(results).hasSize(2);
+        Mockito.verify(service, Mockito.times(1)).findAllPublicRepositoriesReactive(Mockito.any());
+    }
+
+    @Test
+    void shouldAnswerAFailedSearchWithoutFailingTheBatch() {
+        final RepositoryBatchService batchService = new RepositoryBatchService(RepositoryBatchServiceUnitTestHelper.createService(), 10, 4);
+
+        final List<RepositoryBatchResultDTO> results = batchService.findAllPublicRepositories(List.of(RepositoryBatchServiceUnitTestHelper.search("cobol"),
+                                                                                                      RepositoryBatchServiceUnitTestHelper.search("java"),
+                                                                                                      RepositoryBatchServiceUnitTestHelper.search("fortran")))
+                                                                   .collectSortedList(Comparator.comparingInt(RepositoryBatchResultDTO::getIndex))
+                                                                   .block();
+
+        assertThat(results.get(0).getError()).isEqualTo(RepositoryBatchResultDTO.UNAVAILABLE);
+        assertThat(results.get(2).getError()).isEqualTo(RepositoryBatchResultDTO.OVERLOADED);
+        assertThat(results.get(0).getRepositories()).isEmpty();
+        assertThat(results.get(1).getError()).isNull();
+        assertThat(results.get(1).getRepositories()).hasSize(1);
+    }
+
+    @Test
+    void shouldRefuseBatchesBiggerThanTheLimit() {
+        final RepositoryBatchService batchService = new RepositoryBatchService(RepositoryBatchServiceUnitTestHelper.createService(), 1, 4);
+
+        assertThatThrownBy(() -> batchService.findAllPublicRepositories(List.of(RepositoryBatchServiceUnitTestHelper.search("java"), RepositoryBatchServiceUnitTestHelper.search("go"))).blockLast())
+            .isInstanceOf(ResponseStatusException.class);
+    }
+}
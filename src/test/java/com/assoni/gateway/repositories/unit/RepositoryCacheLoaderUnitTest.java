@@ -0,0 +1,59 @@
+package com.assoni.gateway.repositories.unit;
+
+import com.assoni.gateway.repositories.logic.GitHubRepositoryProvider;
+import com.assoni.gateway.repositories.logic.RepositoryCacheLoader;
+import com.assoni.gateway.repositories.logic.model.RepositoryModel;
+import com.assoni.gateway.repositories.logic.model.RepositorySearchKey;
+import com.assoni.gateway.repositories.logic.model.RepositorySearchResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.ObjectProvider;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RepositoryCacheLoaderUnitTest {
+
+    @SuppressWarnings("unchecked")
+    private static ObjectProvider<GitHubRepositoryProvider> providerOf(final GitHubRepositoryProvider provider) {
+        final ObjectProvider<GitHubRepositoryProvider> objectProvider = Mockito.mock(ObjectProvider.class);
+        Mockito.when(objectProvider.getObject()).thenReturn(provider);
+        return objectProvider;
+    }
+
+    @Test
+    void shouldLeaveCacheMissesToTheCacheableMethod() {
+        final RepositoryCacheLoader loader = new RepositoryCacheLoader(providerOf(Mockito.mock(GitHubRepositoryProvider.class)), Mockito.mock(ObjectProvider.class), new SimpleMeterRegistry());
+
+        assertThat(loader.load(new RepositorySearchKey(Optional.empty(), Optional.of("java")))).isNull();
+    }
+
+    @Test
+    void shouldReloadTheEntryThroughTheProvider() {
+        final GitHubRepositoryProvider provider = Mockito.mock(GitHubRepositoryProvider.class);
+        final RepositorySearchResult fresh = new RepositorySearchResult(List.of(RepositoryModel.builder().name("Spring").build()), 50);
+        Mockito.when(provider.refreshPublicRepositories(Mockito.any(), Mockito.any())).thenReturn(Mono.just(fresh));
+
+        final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        final RepositoryCacheLoader loader = new RepositoryCacheLoader(providerOf(provider), Mockito.mock(ObjectProvider.class), registry);
+
+        assertThat(loader.asyncReload(new RepositorySearchKey(Optional.empty(), Optional.of("java")), new RepositorySearchResult(List.of(), 50), Runnable::run).join()).isSameAs(fresh);
+        assertThat(registry.get("repository_cache_refresh_metric").tag("status", "success").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldCountAndPropagateFailuresSoTheStaleValueIsKept() {
+        final GitHubRepositoryProvider provider = Mockito.mock(GitHubRepositoryProvider.class);
+        Mockito.when(provider.refreshPublicRepositories(Mockito.any(), Mockito.any())).thenReturn(Mono.error(new RuntimeException("This exploded")));
+
+        final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        final RepositoryCacheLoader loader = new RepositoryCacheLoader(providerOf(provider), Mockito.mock(ObjectProvider.class), registry);
+
+        assertThat(loader.asyncReload(new RepositorySearchKey(Optional.empty(), Optional.of("java")), new RepositorySearchResult(List.of(), 50), Runnable::run)).isCompletedExceptionally();
+        assertThat(registry.get("repository_cache_refresh_metric").tag("status", "failure").counter().count()).isEqualTo(1);
+    }
+}
@@ -1,27 +1,55 @@
 package com.assoni.gateway.repositories.unit;
 
 import com.assoni.gateway.repositories.controller.RepositoryController;
+import com.assoni.gateway.repositories.controller.RepositoryResponseCache;
+import com.assoni.gateway.repositories.controller.RepositoryResponseCompression;
+import com.assoni.gateway.repositories.dto.RepositoryBatchResultDTO;
 import com.assoni.gateway.repositories.dto.RepositoryDTO;
 import com.assoni.gateway.repositories.dto.RepositorySearchRequestDTO;
+import com.assoni.gateway.repositories.logic.api.GitHubRateLimitException;
+import com.assoni.gateway.repositories.logic.concurrency.RepositoryOverloadException;
+import com.assoni.gateway.repositories.service.RepositoryBatchService;
+import com.assoni.gateway.repositories.logic.prewarm.RepositorySearchPopularity;
 import com.assoni.gateway.repositories.service.RepositoryService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import lombok.SneakyThrows;
+import org.hamcrest.Matchers;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.mockito.stubbing.Answer;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(RepositoryController.class)
@@ -49,12 +77,33 @@ public class RepositoryControllerUnitTest {
         }
     }
 
+    /**
+     * Responses expire as soon as they are cached, every test answers the same searches with its own repositories while the
+     * compressed variants are still built.
+     * */
+    @TestConfiguration
+    static class RepositoryControllerUnitTestConfiguration {
+
+        @Bean
+        RepositoryResponseCompression repositoryResponseCompression() {
+            return new RepositoryResponseCompression(new SimpleMeterRegistry(), List.of("gzip"), 0, 6, 6, 9);
+        }
+
+        @Bean
+        RepositoryResponseCache repositoryResponseCache(final ObjectMapper objectMapper, final RepositoryResponseCompression repositoryResponseCompression) {
+            return new RepositoryResponseCache(objectMapper, repositoryResponseCompression, new RepositorySearchPopularity(10, 64), new SimpleMeterRegistry(), true, "maximumWeight=1000000,expireAfterWrite=0s");
+        }
+    }
+
     @Autowired
     private MockMvc mockMvc;
 
     @MockBean
     private RepositoryService repositoryService;
 
+    @MockBean
+    private RepositoryBatchService repositoryBatchService;
+
     @Test
     @SneakyThrows
     void shouldBeAbleToReturnTheRepresentationOfTheJsonPerVersion1() {
@@ -73,6 +122,33 @@ public class RepositoryControllerUnitTest {
 
     }
 
+    @Test
+    @SneakyThrows
+    void shouldAnswerNotModifiedWhenTheClientHoldsTheCurrentETag() {
+        Mockito.when(repositoryService.findAllPublicRepositories(Mockito.any())).thenReturn(RepositoryControllerUnitTestHelper.createMockResponseForRepositories());
+
+        final String etag = this.mockMvc.perform(get("/v1/repositories?language=java"))
+                                        .andExpect(status().isOk())
+                                        .andExpect(header().exists(HttpHeaders.ETAG))
+                                        .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        this.mockMvc.perform(get("/v1/repositories?language=java").header(HttpHeaders.IF_NONE_MATCH, "\"other\", W/" + etag))
+                    .andDo(print())
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string(HttpHeaders.ETAG, etag))
+                    .andExpect(content().string(""));
+    }
+
+    @Test
+    @SneakyThrows
+    void shouldAnswerTheRepositoriesWhenTheETagChanged() {
+        Mockito.when(repositoryService.findAllPublicRepositories(Mockito.any())).thenReturn(RepositoryControllerUnitTestHelper.createMockResponseForRepositories());
+
+        this.mockMvc.perform(get("/v1/repositories?language=java").header(HttpHeaders.IF_NONE_MATCH, "\"outdated\""))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.[0].name").value("Spring"));
+    }
+
     @Test
     @SneakyThrows
     void shouldBeAcceptedTheSizeOfTheSearchAsQueryParam() {
@@ -105,4 +181,135 @@ public class RepositoryControllerUnitTest {
 
         assertThat(request.getLanguage()).isPresent().get().isEqualTo("java");
     }
+
+    @Test
+    @SneakyThrows
+    void shouldBeAbleToReturnTheRepresentationOfTheJsonOnTheReactiveEndpoint() {
+        Mockito.when(repositoryService.findAllPublicRepositoriesReactive(Mockito.any())).thenReturn(Mono.just(RepositoryControllerUnitTestHelper.createMockResponseForRepositories()));
+
+        final MvcResult result = this.mockMvc.perform(get("/v1/repositories/reactive?language=java"))
+                                             .andExpect(request().asyncStarted())
+                                             .andReturn();
+
+        this.mockMvc.perform(asyncDispatch(result))
+                    .andDo(print())
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.[0].name").value("Spring"))
+                    .andExpect(jsonPath("$.[1].name").value("GoLand"));
+    }
+
+    @Test
+    @SneakyThrows
+    void shouldBeAbleToStreamTheRepositoriesAsNdjson() {
+        Mockito.when(repositoryService.streamPublicRepositories(Mockito.any())).thenReturn(Flux.fromIterable(RepositoryControllerUnitTestHelper.createMockResponseForRepositories()));
+
+        final MvcResult result = this.mockMvc.perform(get("/v1/repositories?language=java").accept(MediaType.APPLICATION_NDJSON))
+                                             .andExpect(request().asyncStarted())
+                                             .andReturn();
+
+        this.mockMvc.perform(asyncDispatch(result))
+                    .andDo(print())
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                    .andExpect(content().string(Matchers.stringContainsInOrder("\"name\":\"Spring\"", "\n", "\"name\":\"GoLand\"")));
+
+        Mockito.verify(repositoryService, Mockito.never()).findAllPublicRepositories(Mockito.any());
+    }
+
+    @Test
+    @SneakyThrows
+    void shouldAnswerTheBatchInTheOrderOfTheSearches() {
+        final List<RepositoryDTO> repositories = RepositoryControllerUnitTestHelper.createMockResponseForRepositories();
+        Mockito.when(repositoryBatchService.findAllPublicRepositories(Mockito.any())).thenReturn(Flux.just(
+            RepositoryBatchResultDTO.builder().index(1).search(RepositorySearchRequestDTO.builder().language(Optional.of("go")).build()).repositories(repositories.subList(1, 2)).build(),
+            RepositoryBatchResultDTO.builder().index(0).search(RepositorySearchRequestDTO.builder().language(Optional.of("java")).build()).repositories(repositories.subList(0, 1)).build()));
+
+        final MvcResult result = this.mockMvc.perform(post("/v1/repositories:batch").contentType(MediaType.APPLICATION_JSON)
+                                                                                    .content("[{\"language\":\"java\"},{\"language\":\"go\",\"size\":10}]"))
+                                             .andExpect(request().asyncStarted())
+                                             .andReturn();
+
+        this.mockMvc.perform(asyncDispatch(result))
+                    .andDo(print())
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.[0].index").value(0))
+                    .andExpect(jsonPath("$.[0].search.language").value("java"))
+                    .andExpect(jsonPath("$.[0].repositories[0].name").value("Spring"))
+                    .andExpect(jsonPath("$.[1].index").value(1))
+                    .andExpect(jsonPath("$.[1].repositories[0].name").value("GoLand"));
+
+        final ArgumentCaptor<List<RepositorySearchRequestDTO>> searches = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(repositoryBatchService).findAllPublicRepositories(searches.capture());
+        assertThat(searches.getValue()).hasSize(2);
+        assertThat(searches.getValue().get(1).getLanguage()).contains("go");
+        assertThat(searches.getValue().get(1).getSize()).contains(10);
+        assertThat(searches.getValue().get(0).getSize()).isEmpty();
+    }
+
+    @Test
+    @SneakyThrows
+    void shouldAnswerServiceUnavailableWithRetryAfterWhenTheSearchIsShed() {
+        Mockito.when(repositoryService.findAllPublicRepositories(Mockito.any())).thenThrow(new RepositoryOverloadException("shed", Duration.ofSeconds(2)));
+
+        this.mockMvc.perform(get("/v1/repositories?language=java"))
+                    .andDo(print())
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string(HttpHeaders.RETRY_AFTER, "2"));
+    }
+
+    @Test
+    @SneakyThrows
+    void shouldAnswerServiceUnavailableWithRetryAfterWhenTheGitHubRateLimitIsExhausted() {
+        Mockito.when(repositoryService.findAllPublicRepositories(Mockito.any())).thenThrow(new GitHubRateLimitException("shed", Duration.ofMillis(1500)));
+
+        this.mockMvc.perform(get("/v1/repositories?language=java"))
+                    .andDo(print())
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string(HttpHeaders.RETRY_AFTER, "2"));
+    }
+
+    @Test
+    @SneakyThrows
+    void shouldAnswerThePreCompressedBodyWhenTheClientAcceptsGzip() {
+        Mockito.when(repositoryService.findAllPublicRepositories(Mockito.any())).thenReturn(RepositoryControllerUnitTestHelper.createMockResponseForRepositories());
+
+        final byte[] body = this.mockMvc.perform(get("/v1/repositories?language=java").header(HttpHeaders.ACCEPT_ENCODING, "br;q=1, gzip;q=0.8"))
+                                        .andExpect(status().isOk())
+                                        .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                                        .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                                        .andReturn().getResponse().getContentAsByteArray();
+
+        try (GZIPInputStream input = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            assertThat(new String(input.readAllBytes(), StandardCharsets.UTF_8)).contains("\"name\":\"Spring\"");
+        }
+
+        this.mockMvc.perform(get("/v1/repositories?language=java").header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0"))
+                    .andExpect(status().isOk())
+                    .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                    .andExpect(jsonPath("$.[0].name").value("Spring"));
+    }
+
+    @Test
+    @SneakyThrows
+    void shouldAnswerADifferentETagForEveryCodingAndRevalidateAnyOfThem() {
+        Mockito.when(repositoryService.findAllPublicRepositories(Mockito.any())).thenReturn(RepositoryControllerUnitTestHelper.createMockResponseForRepositories());
+
+        final String identity = this.mockMvc.perform(get("/v1/repositories?language=java"))
+                                            .andExpect(status().isOk())
+                                            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        final String gzip = this.mockMvc.perform(get("/v1/repositories?language=java").header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                                        .andExpect(status().isOk())
+                                        .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                                        .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        assertThat(gzip).isEqualTo(identity.substring(0, identity.length() - 1) + "-gzip\"");
+
+        this.mockMvc.perform(get("/v1/repositories?language=java").header(HttpHeaders.ACCEPT_ENCODING, "gzip").header(HttpHeaders.IF_NONE_MATCH, gzip))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string(HttpHeaders.ETAG, gzip))
+                    .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING));
+        this.mockMvc.perform(get("/v1/repositories?language=java").header(HttpHeaders.IF_NONE_MATCH, gzip))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string(HttpHeaders.ETAG, identity));
+    }
 }
@@ -0,0 +1,64 @@
+package com.assoni.gateway.repositories.unit;
+
+import com.assoni.gateway.repositories.logic.metrics.RepositoryLatencyMetrics;
+import com.assoni.gateway.repositories.logic.metrics.RepositoryLatencyMetrics.CacheOutcome;
+import com.assoni.gateway.repositories.logic.metrics.RepositoryLatencyMetrics.Stage;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RepositoryLatencyMetricsUnitTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final RepositoryLatencyMetrics metrics = new RepositoryLatencyMetrics(registry, List.of("Java", " kotlin "));
+
+    private Timer timerOf(final String stage, final String cache, final String language) {
+        return registry.find(RepositoryLatencyMetrics.LATENCY_METRIC).tag("stage", stage).tag("cache", cache).tag("language", language).timer();
+    }
+
+    @Test
+    void shouldLimitTheLanguagesTaggedToTheConfiguredOnes() {
+        assertThat(metrics.languageTag(Optional.of("JAVA"))).isEqualTo("java");
+        assertThat(metrics.languageTag(Optional.of("kotlin"))).isEqualTo("kotlin");
+        assertThat(metrics.languageTag(Optional.of("some-language-typed-by-an-user"))).isEqualTo("other");
+        assertThat(metrics.languageTag(Optional.empty())).isEqualTo("none");
+    }
+
+    @Test
+    void shouldTagTheStageByCacheOutcomeAndLanguage() {
+        final List<String> result = metrics.record(Stage.CACHE_LOOKUP, CacheOutcome.HIT, Optional.of("java"), () -> List.of("spring"));
+        metrics.record(Stage.CACHE_LOOKUP, CacheOutcome.MISS, Optional.of("cobol"), 1_000_000L);
+
+        assertThat(result).containsExactly("spring");
+        assertThat(timerOf("cache_lookup", "hit", "java").count()).isEqualTo(1);
+        assertThat(timerOf("cache_lookup", "miss", "other").count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldTimeReactiveStagesOnlyOnceTheyTerminate() {
+        final Mono<String> mono = metrics.record(Stage.UPSTREAM, CacheOutcome.MISS, Optional.of("java"), Mono.just("spring"));
+        final Flux<String> flux = metrics.record(Stage.UPSTREAM, CacheOutcome.MISS, Optional.of("kotlin"), Flux.just("ktor", "exposed"));
+
+        assertThat(timerOf("upstream", "miss", "java")).isNull();
+        assertThat(mono.block()).isEqualTo("spring");
+        assertThat(flux.collectList().block()).containsExactly("ktor", "exposed");
+
+        assertThat(timerOf("upstream", "miss", "java").count()).isEqualTo(1);
+        assertThat(timerOf("upstream", "miss", "kotlin").count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldTimeStagesThatFail() {
+        final Mono<String> failure = metrics.record(Stage.FALLBACK, CacheOutcome.NONE, Optional.empty(), Mono.error(new IllegalStateException("down")));
+
+        assertThat(failure.onErrorResume(error -> Mono.empty()).block()).isNull();
+        assertThat(timerOf("fallback", "none", "none").count()).isEqualTo(1);
+    }
+}
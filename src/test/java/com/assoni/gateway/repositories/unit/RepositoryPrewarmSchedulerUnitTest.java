@@ -0,0 +1,63 @@
+package com.assoni.gateway.repositories.unit;
+
+import com.assoni.gateway.repositories.dto.RepositorySearchRequestDTO;
+import com.assoni.gateway.repositories.logic.GitHubRepositoryProvider;
+import com.assoni.gateway.repositories.logic.model.RepositorySearchKey;
+import com.assoni.gateway.repositories.logic.prewarm.RepositoryPrewarmScheduler;
+import com.assoni.gateway.repositories.logic.prewarm.RepositorySearchPopularity;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RepositoryPrewarmSchedulerUnitTest {
+
+    static class RepositoryPrewarmSchedulerUnitTestHelper {
+
+        public static RepositorySearchKey createKey(final String language) {
+            return new RepositorySearchKey(Optional.empty(), Optional.of(language));
+        }
+    }
+
+    @Test
+    void shouldWarmTheStartupLanguagesBeforeAcceptingTraffic() {
+        final GitHubRepositoryProvider provider = Mockito.mock(GitHubRepositoryProvider.class);
+        Mockito.when(provider.warmPublicRepositories(Mockito.any(), Mockito.anyInt())).thenReturn(Mono.just(true));
+
+        final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        final RepositoryPrewarmScheduler scheduler = new RepositoryPrewarmScheduler(provider, new RepositorySearchPopularity(10, 64), registry, List.of("java", " kotlin", ""), 5000L, 0L, 2);
+
+        scheduler.run(null);
+
+        Mockito.verify(provider).warmPublicRepositories(RepositoryPrewarmSchedulerUnitTestHelper.createKey("java"), RepositorySearchRequestDTO.DEFAULT_SIZE);
+        Mockito.verify(provider).warmPublicRepositories(RepositoryPrewarmSchedulerUnitTestHelper.createKey("kotlin"), RepositorySearchRequestDTO.DEFAULT_SIZE);
+        assertThat(registry.get("repository_cache_prewarm_metric").tag("status", "warmed").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldWarmThePopularSearchesWithTheirBiggestSizeAndIgnoreFailures() {
+        final GitHubRepositoryProvider provider = Mockito.mock(GitHubRepositoryProvider.class);
+        Mockito.when(provider.warmPublicRepositories(Mockito.eq(RepositoryPrewarmSchedulerUnitTestHelper.createKey("java")), Mockito.anyInt())).thenReturn(Mono.error(new RuntimeException("This exploded")));
+        Mockito.when(provider.warmPublicRepositories(Mockito.eq(RepositoryPrewarmSchedulerUnitTestHelper.createKey("kotlin")), Mockito.anyInt())).thenReturn(Mono.just(false));
+
+        final RepositorySearchPopularity popularity = new RepositorySearchPopularity(10, 64);
+        popularity.record(RepositoryPrewarmSchedulerUnitTestHelper.createKey("java"), 30);
+        popularity.record(RepositoryPrewarmSchedulerUnitTestHelper.createKey("java"), 30);
+        popularity.record(RepositoryPrewarmSchedulerUnitTestHelper.createKey("kotlin"), 80);
+
+        final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        final RepositoryPrewarmScheduler scheduler = new RepositoryPrewarmScheduler(provider, popularity, registry, List.of(), 5000L, 10L, 2);
+
+        scheduler.prewarm();
+
+        Mockito.verify(provider).warmPublicRepositories(RepositoryPrewarmSchedulerUnitTestHelper.createKey("kotlin"), 80);
+        assertThat(registry.get("repository_cache_prewarm_metric").tag("status", "failure").counter().count()).isEqualTo(1);
+        assertThat(registry.get("repository_cache_prewarm_metric").tag("status", "cached").counter().count()).isEqualTo(1);
+        assertThat(popularity.estimate(RepositoryPrewarmSchedulerUnitTestHelper.createKey("java"))).isEqualTo(1);
+    }
+}
@@ -0,0 +1,126 @@
+package com.assoni.gateway.repositories.unit;
+
+import com.assoni.gateway.repositories.controller.RepositoryETag;
+import com.assoni.gateway.repositories.controller.RepositoryResponseCache;
+import com.assoni.gateway.repositories.controller.RepositoryResponseCache.SerializedResponse;
+import com.assoni.gateway.repositories.controller.RepositoryResponseCompression;
+import com.assoni.gateway.repositories.controller.RepositoryResponseCompression.Coding;
+import com.assoni.gateway.repositories.dto.RepositoryDTO;
+import com.assoni.gateway.repositories.dto.RepositorySearchRequestDTO;
+import com.assoni.gateway.repositories.logic.model.RepositorySearchKey;
+import com.assoni.gateway.repositories.logic.prewarm.RepositorySearchPopularity;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RepositoryResponseCacheUnitTest {
+
+    static class RepositoryResponseCacheUnitTestHelper {
+
+        public static RepositoryResponseCache createCache(final RepositorySearchPopularity popularity) {
+            final RepositoryResponseCompression compression = new RepositoryResponseCompression(new SimpleMeterRegistry(), List.of("gzip"), 0, 6, 6, 9);
+            return new RepositoryResponseCache(Jackson2ObjectMapperBuilder.json().build(), compression, popularity, new SimpleMeterRegistry(), true, "maximumWeight=1000000");
+        }
+
+        public static List<RepositoryDTO> repositories() {
+            return List.of(RepositoryDTO.builder().name("spring").language("Java").owner("pivotal").stars(600).createdAt(LocalDateTime.of(2020, 1, 1, 10, 0)).build());
+        }
+
+        public static RepositorySearchRequestDTO search(final String language, final Optional<Integer> size) {
+            return RepositorySearchRequestDTO.builder().language(Optional.of(language)).size(size).build();
+        }
+
+        public static String gunzip(final byte[] gzip) throws IOException {
+            try (GZIPInputStream input = new GZIPInputStream(new ByteArrayInputStream(gzip))) {
+                return new String(input.readAllBytes(), StandardCharsets.UTF_8);
+            }
+        }
+    }
+
+    @Test
+    void shouldAnswerTheSameSearchWithTheCachedBytes() throws IOException {
+        final RepositorySearchPopularity popularity = new RepositorySearchPopularity(10, 64);
+        final RepositoryResponseCache cache = RepositoryResponseCacheUnitTestHelper.createCache(popularity);
+        final AtomicInteger searches = new AtomicInteger();
+
+        final SerializedResponse first = cache.find(RepositoryResponseCacheUnitTestHelper.search("java", Optional.of(50)), Optional.empty(), () -> {
+            searches.incrementAndGet();
+            return RepositoryResponseCacheUnitTestHelper.repositories();
+        });
+        final SerializedResponse second = cache.find(RepositoryResponseCacheUnitTestHelper.search(" JAVA ", Optional.empty()), Optional.empty(), () -> {
+            searches.incrementAndGet();
+            return RepositoryResponseCacheUnitTestHelper.repositories();
+        });
+
+        assertThat(searches).hasValue(1);
+        assertThat(second).isSameAs(first);
+        assertThat(first.etag()).isEqualTo(RepositoryETag.of(RepositoryResponseCacheUnitTestHelper.repositories()));
+        assertThat(new String(first.json(), StandardCharsets.UTF_8)).contains("\"name\":\"spring\"");
+        assertThat(RepositoryResponseCacheUnitTestHelper.gunzip(first.variants().get(Coding.GZIP))).isEqualTo(new String(first.json(), StandardCharsets.UTF_8));
+        assertThat(popularity.top()).extracting(RepositorySearchPopularity.PopularSearch::key).contains(new RepositorySearchKey(Optional.empty(), Optional.of(" JAVA ")));
+    }
+
+    @Test
+    void shouldNotCacheStaleOrEmptyResponses() {
+        final RepositoryResponseCache cache = RepositoryResponseCacheUnitTestHelper.createCache(new RepositorySearchPopularity(10, 64));
+        final AtomicInteger searches = new AtomicInteger();
+        final List<RepositoryDTO> stale = List.of(RepositoryResponseCacheUnitTestHelper.repositories().get(0).toBuilder().stale(true).build());
+
+        cache.find(RepositoryResponseCacheUnitTestHelper.search("java", Optional.empty()), Optional.empty(), () -> { searches.incrementAndGet(); return stale; });
+        cache.find(RepositoryResponseCacheUnitTestHelper.search("java", Optional.empty()), Optional.empty(), () -> { searches.incrementAndGet(); return stale; });
+        cache.find(RepositoryResponseCacheUnitTestHelper.search("go", Optional.empty()), Optional.empty(), () -> { searches.incrementAndGet(); return List.of(); });
+        final SerializedResponse empty = cache.find(RepositoryResponseCacheUnitTestHelper.search("go", Optional.empty()), Optional.empty(), () -> { searches.incrementAndGet(); return List.of(); });
+
+        assertThat(searches).hasValue(4);
+        assertThat(empty.variants()).isEmpty();
+        assertThat(new String(empty.json(), StandardCharsets.UTF_8)).isEqualTo("[]");
+    }
+
+    @Test
+    void shouldShareTheCachedBytesWithTheReactivePath() {
+        final RepositoryResponseCache cache = RepositoryResponseCacheUnitTestHelper.createCache(new RepositorySearchPopularity(10, 64));
+        final AtomicInteger searches = new AtomicInteger();
+
+        final SerializedResponse first = cache.findReactive(RepositoryResponseCacheUnitTestHelper.search("java", Optional.empty()), Optional.empty(),
+                                                            () -> Mono.fromSupplier(() -> { searches.incrementAndGet(); return RepositoryResponseCacheUnitTestHelper.repositories(); })).block();
+        final SerializedResponse second = cache.find(RepositoryResponseCacheUnitTestHelper.search("java", Optional.of(50)), Optional.empty(), () -> { searches.incrementAndGet(); return List.of(); });
+
+        assertThat(searches).hasValue(1);
+        assertThat(second).isSameAs(first);
+    }
+
+    @Test
+    void shouldAnswerAClientHoldingTheRepositoriesWithoutSerializingThem() {
+        final RepositoryResponseCache cache = RepositoryResponseCacheUnitTestHelper.createCache(new RepositorySearchPopularity(10, 64));
+        final AtomicInteger searches = new AtomicInteger();
+        final Optional<String> ifNoneMatch = Optional.of(RepositoryETag.of(RepositoryResponseCacheUnitTestHelper.repositories()));
+
+        final SerializedResponse notModified = cache.find(RepositoryResponseCacheUnitTestHelper.search("java", Optional.empty()), ifNoneMatch, () -> {
+            searches.incrementAndGet();
+            return RepositoryResponseCacheUnitTestHelper.repositories();
+        });
+        final SerializedResponse fresh = cache.find(RepositoryResponseCacheUnitTestHelper.search("java", Optional.empty()), Optional.empty(), () -> {
+            searches.incrementAndGet();
+            return RepositoryResponseCacheUnitTestHelper.repositories();
+        });
+
+        assertThat(searches).hasValue(2);
+        assertThat(notModified.etag()).isEqualTo(ifNoneMatch.get());
+        assertThat(notModified.json()).isEmpty();
+        assertThat(notModified.variants()).containsOnlyKeys(Coding.GZIP);
+        assertThat(notModified.variants().get(Coding.GZIP)).isEmpty();
+        assertThat(new String(fresh.json(), StandardCharsets.UTF_8)).contains("\"name\":\"spring\"");
+    }
+}
@@ -0,0 +1,86 @@
+package com.assoni.gateway.repositories.unit;
+
+import com.assoni.gateway.repositories.controller.RepositoryResponseCompression;
+import com.assoni.gateway.repositories.controller.RepositoryResponseCompression.Coding;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RepositoryResponseCompressionUnitTest {
+
+    static class RepositoryResponseCompressionUnitTestHelper {
+
+        public static RepositoryResponseCompression createCompression(final SimpleMeterRegistry registry, final List<String> encodings, final int minSize) {
+            return new RepositoryResponseCompression(registry, encodings, minSize, 6, 6, 9);
+        }
+
+        public static byte[] body() {
+            return "[{\"name\":\"spring\",\"language\":\"Java\"},{\"name\":\"spring-boot\",\"language\":\"Java\"}]".repeat(20).getBytes(StandardCharsets.UTF_8);
+        }
+
+        public static byte[] gunzip(final byte[] gzip) throws IOException {
+            try (GZIPInputStream input = new GZIPInputStream(new ByteArrayInputStream(gzip))) {
+                return input.readAllBytes();
+            }
+        }
+    }
+
+    @Test
+    void shouldCompressEveryAvailableEncodingOnce() throws IOException {
+        final RepositoryResponseCompression compression = RepositoryResponseCompressionUnitTestHelper.createCompression(new SimpleMeterRegistry(), List.of("gzip", "deflate", "gzip"), 0);
+        final byte[] body = RepositoryResponseCompressionUnitTestHelper.body();
+
+        final Map<Coding, byte[]> variants = compression.compress(body);
+
+        assertThat(variants).containsOnlyKeys(Coding.GZIP);
+        assertThat(variants.get(Coding.GZIP).length).isLessThan(body.length);
+        assertThat(RepositoryResponseCompressionUnitTestHelper.gunzip(variants.get(Coding.GZIP))).isEqualTo(body);
+    }
+
+    @Test
+    void shouldNotCompressBodiesBelowTheMinSize() {
+        final RepositoryResponseCompression compression = RepositoryResponseCompressionUnitTestHelper.createCompression(new SimpleMeterRegistry(), List.of("gzip"), 1024);
+
+        assertThat(compression.compress("[]".getBytes(StandardCharsets.UTF_8))).isEmpty();
+        assertThat(compression.compress(RepositoryResponseCompressionUnitTestHelper.body())).containsOnlyKeys(Coding.GZIP);
+    }
+
+    @Test
+    void shouldNegotiateTheEncodingWithTheQualityOfAcceptEncoding() {
+        final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        final RepositoryResponseCompression compression = RepositoryResponseCompressionUnitTestHelper.createCompression(registry, List.of("gzip"), 0);
+        final Map<Coding, byte[]> variants = compression.compress(RepositoryResponseCompressionUnitTestHelper.body());
+
+        assertThat(compression.negotiate(Optional.of("br;q=1, gzip;q=0.8"), variants)).contains(Coding.GZIP);
+        assertThat(compression.negotiate(Optional.of("GZIP"), variants)).contains(Coding.GZIP);
+        assertThat(compression.negotiate(Optional.of("*"), variants)).contains(Coding.GZIP);
+        assertThat(compression.negotiate(Optional.of("gzip;q=0, *"), variants)).isEmpty();
+        assertThat(compression.negotiate(Optional.of("br, identity"), variants)).isEmpty();
+        assertThat(compression.negotiate(Optional.empty(), variants)).isEmpty();
+        assertThat(compression.negotiate(Optional.of("gzip"), Map.of())).isEmpty();
+
+        assertThat(registry.get("repository_response_encoding_metric").tag("encoding", "gzip").counter().count()).isEqualTo(3);
+        assertThat(registry.get("repository_response_encoding_metric").tag("encoding", "identity").counter().count()).isEqualTo(4);
+    }
+
+    @Test
+    void shouldPreferTheServerOrderWhenQualitiesTie() {
+        final RepositoryResponseCompression compression = RepositoryResponseCompressionUnitTestHelper.createCompression(new SimpleMeterRegistry(), List.of("zstd", "gzip"), 0);
+        final Map<Coding, byte[]> variants = compression.compress(RepositoryResponseCompressionUnitTestHelper.body());
+        Assumptions.assumeTrue(variants.containsKey(Coding.ZSTD), "zstd is not available on this platform");
+
+        assertThat(compression.negotiate(Optional.of("gzip, zstd"), variants)).contains(Coding.ZSTD);
+        assertThat(compression.negotiate(Optional.of("gzip, zstd;q=0.5"), variants)).contains(Coding.GZIP);
+        assertThat(compression.negotiate(Optional.of("gzip;q=0.5, *"), variants)).contains(Coding.ZSTD);
+    }
+}
@@ -0,0 +1,78 @@
+package com.assoni.gateway.repositories.unit;
+
+import com.assoni.gateway.repositories.logic.RepositorySearchIndex;
+import com.assoni.gateway.repositories.logic.model.RepositoryModel;
+import com.assoni.gateway.repositories.logic.model.RepositorySearchKey;
+import com.assoni.gateway.repositories.logic.model.RepositorySearchResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RepositorySearchIndexUnitTest {
+
+    static class RepositorySearchIndexUnitTestHelper {
+
+        public static final LocalDate START = LocalDate.of(2022, 1, 1);
+
+        /**
+         * repository-N has 100 - N stars and was created N + 1 days after START
+         * */
+        public static RepositorySearchResult createFakeResult(final int amount, final int requestedSize) {
+            return new RepositorySearchResult(IntStream.range(0, amount)
+                                                       .mapToObj(index -> RepositoryModel.builder().name("repository-" + index).language("java").stars(100 - index).createdAt(START.plusDays(index + 1).atTime(10, 0)).build())
+                                                       .collect(Collectors.toList()), requestedSize);
+        }
+    }
+
+    private final Optional<String> java = Optional.of("java");
+
+    @Test
+    void shouldAnswerALaterDateFromTheClosestIndexedDate() {
+        final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        final RepositorySearchIndex index = new RepositorySearchIndex(registry, "maximumWeight=10000000");
+        index.add(new RepositorySearchKey(Optional.of(RepositorySearchIndexUnitTestHelper.START), java), RepositorySearchIndexUnitTestHelper.createFakeResult(50, 50));
+
+        final Optional<List<RepositoryModel>> result = index.find(new RepositorySearchKey(Optional.of(RepositorySearchIndexUnitTestHelper.START.plusDays(30)), java), 10);
+
+        assertThat(result).isPresent();
+        assertThat(result.get()).extracting(RepositoryModel::getName).containsExactly("repository-30", "repository-31", "repository-32", "repository-33", "repository-34",
+                                                                                     "repository-35", "repository-36", "repository-37", "repository-38", "repository-39");
+        assertThat(registry.get("repository_index_metric").tag("result", "hit").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldNotAnswerWhenAnIncompleteSupersetHasLessRepositoriesThanRequested() {
+        final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        final RepositorySearchIndex index = new RepositorySearchIndex(registry, "maximumWeight=10000000");
+        index.add(new RepositorySearchKey(Optional.of(RepositorySearchIndexUnitTestHelper.START), java), RepositorySearchIndexUnitTestHelper.createFakeResult(50, 50));
+
+        assertThat(index.find(new RepositorySearchKey(Optional.of(RepositorySearchIndexUnitTestHelper.START.plusDays(45)), java), 10)).isEmpty();
+        assertThat(registry.get("repository_index_metric").tag("result", "miss").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldAnswerAnySizeFromACompleteSuperset() {
+        final RepositorySearchIndex index = new RepositorySearchIndex(new SimpleMeterRegistry(), "maximumWeight=10000000");
+        index.add(new RepositorySearchKey(Optional.empty(), java), RepositorySearchIndexUnitTestHelper.createFakeResult(20, 100));
+
+        assertThat(index.find(new RepositorySearchKey(Optional.of(RepositorySearchIndexUnitTestHelper.START.plusDays(15)), java), 100)).hasValueSatisfying(result -> assertThat(result).hasSize(5));
+    }
+
+    @Test
+    void shouldOnlyAnswerFromTheSameLanguageAndEarlierDates() {
+        final RepositorySearchIndex index = new RepositorySearchIndex(new SimpleMeterRegistry(), "maximumWeight=10000000");
+        index.add(new RepositorySearchKey(Optional.of(RepositorySearchIndexUnitTestHelper.START.plusDays(10)), java), RepositorySearchIndexUnitTestHelper.createFakeResult(20, 100));
+        index.add(new RepositorySearchKey(Optional.empty(), Optional.empty()), RepositorySearchIndexUnitTestHelper.createFakeResult(20, 100));
+
+        assertThat(index.find(new RepositorySearchKey(Optional.of(RepositorySearchIndexUnitTestHelper.START.plusDays(5)), java), 5)).isEmpty();
+        assertThat(index.find(new RepositorySearchKey(Optional.of(RepositorySearchIndexUnitTestHelper.START.plusDays(15)), Optional.of("kotlin")), 5)).isEmpty();
+        assertThat(index.find(new RepositorySearchKey(Optional.of(RepositorySearchIndexUnitTestHelper.START.plusDays(15)), Optional.empty()), 5)).isEmpty();
+    }
+}
@@ -0,0 +1,143 @@
+package com.assoni.gateway.repositories.unit;
+
+import com.assoni.gateway.repositories.dto.RepositorySearchRequestDTO;
+import com.assoni.gateway.repositories.logic.api.GitHubRateLimitException;
+import com.assoni.gateway.repositories.logic.concurrency.RepositoryOverloadException;
+import com.assoni.gateway.repositories.service.RepositorySearchIsolation;
+import com.assoni.gateway.repositories.service.RepositorySearchIsolation.SearchClass;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class RepositorySearchIsolationUnitTest {
+
+    static class RepositorySearchIsolationUnitTestHelper {
+
+        public static CircuitBreakerRegistry createCircuitBreakerRegistry() {
+            return CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                                                                 .slidingWindowSize(4)
+                                                                 .minimumNumberOfCalls(4)
+                                                                 .slowCallDurationThreshold(Duration.ofMillis(10))
+                                                                 .slowCallRateThreshold(50)
+                                                                 .ignoreExceptions(RepositoryOverloadException.class, GitHubRateLimitException.class)
+                                                                 .build());
+        }
+
+        public static RepositorySearchIsolation createIsolation(final CircuitBreakerRegistry circuitBreakerRegistry, final SimpleMeterRegistry registry) {
+            final BulkheadRegistry bulkheadRegistry = BulkheadRegistry.of(BulkheadConfig.custom().maxConcurrentCalls(1).maxWaitDuration(Duration.ZERO).build());
+            return new RepositorySearchIsolation(circuitBreakerRegistry, bulkheadRegistry, registry, 100, 2000L);
+        }
+
+        public static RepositorySearchRequestDTO search(final Optional<String> language, final Optional<LocalDate> createdOn, final Optional<Integer> size) {
+            return RepositorySearchRequestDTO.builder().language(language).createdOn(createdOn).size(size).build();
+        }
+    }
+
+    @Test
+    void shouldClassifyTheSearches() {
+        final RepositorySearchIsolation isolation = RepositorySearchIsolationUnitTestHelper.createIsolation(CircuitBreakerRegistry.ofDefaults(), new SimpleMeterRegistry());
+
+        assertThat(isolation.classify(RepositorySearchIsolationUnitTestHelper.search(Optional.of("java"), Optional.empty(), Optional.of(50)))).isEqualTo(SearchClass.FILTERED);
+        assertThat(isolation.classify(RepositorySearchIsolationUnitTestHelper.search(Optional.empty(), Optional.of(LocalDate.of(2022, 1, 1)), Optional.empty()))).isEqualTo(SearchClass.FILTERED);
+        assertThat(isolation.classify(RepositorySearchIsolationUnitTestHelper.search(Optional.of("java"), Optional.empty(), Optional.of(500)))).isEqualTo(SearchClass.LARGE);
+        assertThat(isolation.classify(RepositorySearchIsolationUnitTestHelper.search(Optional.empty(), Optional.empty(), Optional.of(10)))).isEqualTo(SearchClass.UNFILTERED);
+        assertThat(isolation.classify(RepositorySearchIsolationUnitTestHelper.search(Optional.empty(), Optional.empty(), Optional.of(500)))).isEqualTo(SearchClass.UNFILTERED);
+    }
+
+    @Test
+    void shouldShedSearchesAboveTheBulkheadOfTheirClassOnly() {
+        final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        final RepositorySearchIsolation isolation = RepositorySearchIsolationUnitTestHelper.createIsolation(CircuitBreakerRegistry.ofDefaults(), registry);
+        final RepositorySearchRequestDTO unfiltered = RepositorySearchIsolationUnitTestHelper.search(Optional.empty(), Optional.empty(), Optional.empty());
+        final Sinks.One<String> pending = Sinks.one();
+        final AtomicReference<Exception> failure = new AtomicReference<>();
+
+        isolation.execute(unfiltered, pending.asMono(), error -> Mono.just("fallback")).subscribe();
+
+        assertThat(isolation.execute(unfiltered, Mono.just("fresh"), error -> {
+            failure.set(error);
+            return Mono.just("fallback");
+        }).block()).isEqualTo("fallback");
+        assertThat(failure.get()).isInstanceOf(RepositoryOverloadException.class);
+        assertThat(((RepositoryOverloadException) failure.get()).getRetryAfter()).isEqualTo(Duration.ofSeconds(2));
+        assertThat(registry.get("repository_fallback_metric").tag("search", "unfiltered").counter().count()).isEqualTo(1);
+
+        final RepositorySearchRequestDTO filtered = RepositorySearchIsolationUnitTestHelper.search(Optional.of("java"), Optional.empty(), Optional.empty());
+        assertThat(isolation.execute(filtered, () -> "fresh", error -> "fallback")).isEqualTo("fresh");
+
+        pending.tryEmitValue("done");
+        assertThat(isolation.execute(unfiltered, Flux.just("fresh"), error -> Flux.just("fallback")).blockLast()).isEqualTo("fresh");
+    }
+
+    @Test
+    void shouldOpenTheBreakerOfTheClassWhenItsSearchesAreSlow() {
+        final CircuitBreakerRegistry circuitBreakerRegistry = RepositorySearchIsolationUnitTestHelper.createCircuitBreakerRegistry();
+        final RepositorySearchIsolation isolation = RepositorySearchIsolationUnitTestHelper.createIsolation(circuitBreakerRegistry, new SimpleMeterRegistry());
+        final RepositorySearchRequestDTO large = RepositorySearchIsolationUnitTestHelper.search(Optional.of("java"), Optional.empty(), Optional.of(1000));
+        final AtomicReference<Exception> failure = new AtomicReference<>();
+
+        for(int call = 0; call < 4; call++) {
+            assertThat(isolation.execute(large, Mono.just("slow").delayElement(Duration.ofMillis(30)), error -> Mono.just("fallback")).block()).isEqualTo("slow");
+        }
+
+        assertThat(circuitBreakerRegistry.circuitBreaker(SearchClass.LARGE.getInstanceName()).getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(isolation.execute(large, () -> "fresh", error -> {
+            failure.set(error);
+            return "fallback";
+        })).isEqualTo("fallback");
+        assertThat(failure.get()).isInstanceOf(CallNotPermittedException.class);
+
+        final RepositorySearchRequestDTO filtered = RepositorySearchIsolationUnitTestHelper.search(Optional.of("java"), Optional.empty(), Optional.of(50));
+        assertThat(isolation.execute(filtered, () -> "fresh", error -> "fallback")).isEqualTo("fresh");
+        assertThat(circuitBreakerRegistry.circuitBreaker(SearchClass.FILTERED.getInstanceName()).getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void shouldOnlyFallBackWhenTheStreamFailsBeforeItsFirstElement() {
+        final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        final RepositorySearchIsolation isolation = RepositorySearchIsolationUnitTestHelper.createIsolation(CircuitBreakerRegistry.ofDefaults(), registry);
+        final RepositorySearchRequestDTO filtered = RepositorySearchIsolationUnitTestHelper.search(Optional.of("java"), Optional.empty(), Optional.empty());
+
+        assertThat(isolation.execute(filtered, Flux.<String>error(new IllegalStateException("down")), error -> Flux.just("stale")).collectList().block()).containsExactly("stale");
+
+        final List<String> received = new ArrayList<>();
+        final Flux<String> failingMidStream = Flux.concat(Flux.just("fresh-1", "fresh-2"), Flux.<String>error(new IllegalStateException("connection reset")));
+        assertThatThrownBy(() -> isolation.execute(filtered, failingMidStream, error -> Flux.just("stale")).doOnNext(received::add).blockLast()).hasMessageContaining("connection reset");
+
+        assertThat(received).containsExactly("fresh-1", "fresh-2");
+        assertThat(registry.get("repository_fallback_metric").tag("search", "filtered").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldNotCountShedSearchesAsFailuresOfTheBreaker() {
+        final CircuitBreakerRegistry circuitBreakerRegistry = RepositorySearchIsolationUnitTestHelper.createCircuitBreakerRegistry();
+        final RepositorySearchIsolation isolation = RepositorySearchIsolationUnitTestHelper.createIsolation(circuitBreakerRegistry, new SimpleMeterRegistry());
+        final RepositorySearchRequestDTO filtered = RepositorySearchIsolationUnitTestHelper.search(Optional.of("java"), Optional.empty(), Optional.empty());
+
+        for(int call = 0; call < 4; call++) {
+            isolation.execute(filtered, () -> {
+                throw new RepositoryOverloadException("shed", Duration.ofSeconds(1));
+            }, error -> "fallback");
+        }
+
+        assertThat(circuitBreakerRegistry.circuitBreaker(SearchClass.FILTERED.getInstanceName()).getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+}
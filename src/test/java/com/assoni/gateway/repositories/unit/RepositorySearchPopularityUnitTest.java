@@ -0,0 +1,83 @@
+package com.assoni.gateway.repositories.unit;
+
+import com.assoni.gateway.repositories.logic.model.RepositorySearchKey;
+import com.assoni.gateway.repositories.logic.prewarm.RepositorySearchPopularity;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RepositorySearchPopularityUnitTest {
+
+    static class RepositorySearchPopularityUnitTestHelper {
+
+        public static RepositorySearchKey createKey(final String language) {
+            return new RepositorySearchKey(Optional.empty(), Optional.of(language));
+        }
+    }
+
+    @Test
+    void shouldKeepOnlyTheMostRequestedSearchesSortedByFrequency() {
+        final RepositorySearchPopularity popularity = new RepositorySearchPopularity(2, 1024);
+
+        IntStream.range(0, 10).forEach(index -> popularity.record(RepositorySearchPopularityUnitTestHelper.createKey("java"), 30));
+        IntStream.range(0, 5).forEach(index -> popularity.record(RepositorySearchPopularityUnitTestHelper.createKey("kotlin"), 30));
+        IntStream.range(0, 2).forEach(index -> popularity.record(RepositorySearchPopularityUnitTestHelper.createKey("go"), 30));
+        IntStream.range(0, 100).forEach(index -> popularity.record(RepositorySearchPopularityUnitTestHelper.createKey("language-" + index), 30));
+
+        assertThat(popularity.top()).extracting(RepositorySearchPopularity.PopularSearch::key).containsExactly(RepositorySearchPopularityUnitTestHelper.createKey("java"), RepositorySearchPopularityUnitTestHelper.createKey("kotlin"));
+        assertThat(popularity.estimate(RepositorySearchPopularityUnitTestHelper.createKey("java"))).isGreaterThanOrEqualTo(10);
+    }
+
+    @Test
+    void shouldRememberTheBiggestSizeRequestedForASearch() {
+        final RepositorySearchPopularity popularity = new RepositorySearchPopularity(5, 1024);
+
+        popularity.record(RepositorySearchPopularityUnitTestHelper.createKey("java"), 50);
+        popularity.record(RepositorySearchPopularityUnitTestHelper.createKey("java"), 10);
+
+        assertThat(popularity.top()).singleElement().satisfies(search -> assertThat(search.size()).isEqualTo(50));
+    }
+
+    @Test
+    void shouldLetSearchesWhichAreNoLongerRequestedLeaveTheTop() {
+        final RepositorySearchPopularity popularity = new RepositorySearchPopularity(5, 1024);
+        IntStream.range(0, 4).forEach(index -> popularity.record(RepositorySearchPopularityUnitTestHelper.createKey("java"), 30));
+        popularity.record(RepositorySearchPopularityUnitTestHelper.createKey("kotlin"), 30);
+
+        popularity.decay();
+
+        assertThat(popularity.top()).extracting(RepositorySearchPopularity.PopularSearch::key).containsExactly(RepositorySearchPopularityUnitTestHelper.createKey("java"));
+        assertThat(popularity.estimate(RepositorySearchPopularityUnitTestHelper.createKey("java"))).isEqualTo(2);
+    }
+
+    @Test
+    void shouldForgetABigSizeWhichIsNoLongerRequested() {
+        final RepositorySearchPopularity popularity = new RepositorySearchPopularity(5, 1024);
+        final RepositorySearchKey java = RepositorySearchPopularityUnitTestHelper.createKey("java");
+
+        popularity.record(java, 1000);
+        IntStream.range(0, 8).forEach(index -> popularity.record(java, 50));
+        popularity.decay();
+        assertThat(popularity.top()).singleElement().satisfies(search -> assertThat(search.size()).isEqualTo(1000));
+
+        IntStream.range(0, 8).forEach(index -> popularity.record(java, 50));
+        popularity.decay();
+        assertThat(popularity.top()).singleElement().satisfies(search -> assertThat(search.size()).isEqualTo(50));
+    }
+
+    @Test
+    void shouldKeepTheCandidatesBoundedAndTrimThemToTheTop() {
+        final RepositorySearchPopularity popularity = new RepositorySearchPopularity(2, 1024);
+
+        IntStream.range(0, 100).forEach(index -> popularity.record(RepositorySearchPopularityUnitTestHelper.createKey("language-" + index), 30));
+        IntStream.range(0, 3).forEach(index -> popularity.record(RepositorySearchPopularityUnitTestHelper.createKey("language-0"), 30));
+        popularity.decay();
+        IntStream.range(0, 10).forEach(index -> popularity.record(RepositorySearchPopularityUnitTestHelper.createKey("java"), 30));
+
+        assertThat(popularity.top()).extracting(RepositorySearchPopularity.PopularSearch::key)
+                                    .containsExactly(RepositorySearchPopularityUnitTestHelper.createKey("java"), RepositorySearchPopularityUnitTestHelper.createKey("language-0"));
+    }
+}
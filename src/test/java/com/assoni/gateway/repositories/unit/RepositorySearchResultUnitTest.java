@@ -0,0 +1,106 @@
+package com.assoni.gateway.repositories.unit;
+
+import com.assoni.gateway.repositories.logic.model.RepositoryModel;
+import com.assoni.gateway.repositories.logic.model.RepositorySearchResult;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class RepositorySearchResultUnitTest {
+
+    static class RepositorySearchResultUnitTestHelper {
+
+        public static List<RepositoryModel> createFakeRepositories(final int amount) {
+            return IntStream.range(0, amount).mapToObj(index -> RepositoryModel.builder()
+                                                                             .createdAt(LocalDateTime.of(2022, 1, 10, 12, 30, 15))
+                                                                             .language(new String("java"))
+                                                                             .name("Spring-" + index)
+                                                                             .description("spring framework")
+                                                                             .stars(amount - index)
+                                                                             .url("NOP")
+                                                                             .owner(new String("pivotal"))
+                                                                             .build())
+                            .collect(Collectors.toList());
+        }
+    }
+
+    @Test
+    void shouldMaterializeEveryFieldOfTheRepositories() {
+        final List<RepositoryModel> original = RepositorySearchResultUnitTestHelper.createFakeRepositories(3);
+        original.add(new RepositoryModel());
+
+        final RepositorySearchResult result = new RepositorySearchResult(original, 30);
+
+        assertThat(result.repositories()).usingRecursiveFieldByFieldElementComparator().containsExactlyElementsOf(original);
+    }
+
+    @Test
+    void shouldKeepTheNanosecondsOfTheCreationTime() {
+        final RepositoryModel precise = RepositoryModel.builder().name("precise").createdAt(LocalDateTime.of(2022, 1, 10, 12, 30, 15, 500)).build();
+        final List<RepositoryModel> original = List.of(RepositorySearchResultUnitTestHelper.createFakeRepositories(1).get(0), precise);
+
+        final RepositorySearchResult result = new RepositorySearchResult(original, 30);
+
+        assertThat(result.repositories()).extracting(RepositoryModel::getCreatedAt)
+                                         .containsExactly(LocalDateTime.of(2022, 1, 10, 12, 30, 15), LocalDateTime.of(2022, 1, 10, 12, 30, 15, 500));
+        assertThat(result.countCreatedAfter(LocalDate.of(2022, 1, 9))).isEqualTo(2);
+    }
+
+    @Test
+    void shouldBuildTheSameResultWhileTheRepositoriesArrive() {
+        final List<RepositoryModel> original = RepositorySearchResultUnitTestHelper.createFakeRepositories(70);
+        final RepositorySearchResult.Builder builder = RepositorySearchResult.builder(30);
+        original.forEach(builder::add);
+
+        final RepositorySearchResult result = builder.build(100);
+
+        assertThat(result.repositories()).usingRecursiveFieldByFieldElementComparator().containsExactlyElementsOf(original);
+        assertThat(result.requestedSize()).isEqualTo(100);
+        assertThat(result.estimatedBytes()).isEqualTo(new RepositorySearchResult(original, 100).estimatedBytes());
+    }
+
+    @Test
+    void shouldKeepEachOwnerAndLanguageOnceInsideTheResult() {
+        final RepositorySearchResult result = new RepositorySearchResult(List.of(RepositoryModel.builder().name("spring").owner(new String("pivotal")).language(new String("java")).build(),
+                                                                                 RepositoryModel.builder().name("guava").owner(new String("pivotal")).language(new String("java")).build()), 30);
+
+        assertThat(result.repositories().get(0).getOwner()).isSameAs(result.repositories().get(1).getOwner());
+        assertThat(result.repositories().get(0).getLanguage()).isSameAs(result.repositories().get(1).getLanguage());
+        assertThat(result.repositories().get(0).getOwner()).isNotSameAs("pivotal");
+    }
+
+    @Test
+    void shouldSliceTheFirstRepositoriesAsAReadOnlyView() {
+        final RepositorySearchResult result = new RepositorySearchResult(RepositorySearchResultUnitTestHelper.createFakeRepositories(50), 50);
+
+        final List<RepositoryModel> slice = result.slice(10);
+
+        assertThat(slice).hasSize(10).extracting(RepositoryModel::getName).startsWith("Spring-0").endsWith("Spring-9");
+        assertThat(result.slice(80)).hasSize(50);
+        assertThatThrownBy(() -> slice.add(new RepositoryModel())).isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> slice.get(10)).isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    @Test
+    void shouldKnowWhichSizesAreCovered() {
+        assertThat(new RepositorySearchResult(RepositorySearchResultUnitTestHelper.createFakeRepositories(50), 50).covers(30)).isTrue();
+        assertThat(new RepositorySearchResult(RepositorySearchResultUnitTestHelper.createFakeRepositories(50), 50).covers(80)).isFalse();
+        assertThat(new RepositorySearchResult(RepositorySearchResultUnitTestHelper.createFakeRepositories(5), 50).covers(80)).isTrue();
+    }
+
+    @Test
+    void shouldEstimateTheRetainedHeapBasedOnTheRepositories() {
+        final int small = new RepositorySearchResult(RepositorySearchResultUnitTestHelper.createFakeRepositories(10), 10).estimatedBytes();
+        final int big = new RepositorySearchResult(RepositorySearchResultUnitTestHelper.createFakeRepositories(100), 100).estimatedBytes();
+
+        assertThat(small).isPositive();
+        assertThat(big).isGreaterThan(small * 5);
+    }
+}
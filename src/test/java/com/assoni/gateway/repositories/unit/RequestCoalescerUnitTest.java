@@ -0,0 +1,109 @@
+package com.assoni.gateway.repositories.unit;
+
+import com.assoni.gateway.repositories.logic.concurrency.RequestCoalescer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class RequestCoalescerUnitTest {
+
+    @Test
+    @SneakyThrows
+    void shouldShareTheInFlightCallBetweenConcurrentCallersOfTheSameKey() {
+        final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        final RequestCoalescer coalescer = new RequestCoalescer(registry);
+        final AtomicInteger calls = new AtomicInteger();
+        final CountDownLatch leaderStarted = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        final CompletableFuture<List<String>> leader = CompletableFuture.supplyAsync(() -> coalescer.execute("java", () -> {
+            calls.incrementAndGet();
+            leaderStarted.countDown();
+            awaitQuietly(release);
+            return List.of("spring");
+        }));
+        leaderStarted.await(5, TimeUnit.SECONDS);
+
+        final CompletableFuture<List<String>> follower = CompletableFuture.supplyAsync(() -> coalescer.execute("java", () -> {
+            calls.incrementAndGet();
+            return List.of("other");
+        }));
+
+        while(registry.get("repository_upstream_request_metric").tag("role", "coalesced").counter().count() < 1) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+
+        assertThat(leader.get(5, TimeUnit.SECONDS)).containsExactly("spring");
+        assertThat(follower.get(5, TimeUnit.SECONDS)).containsExactly("spring");
+        assertThat(calls.get()).isEqualTo(1);
+        assertThat(registry.get("repository_upstream_request_metric").tag("role", "leader").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldReleaseTheKeyAfterTheCallCompletes() {
+        final RequestCoalescer coalescer = new RequestCoalescer(new SimpleMeterRegistry());
+
+        assertThat(coalescer.execute("java", () -> "first")).isEqualTo("first");
+        assertThat(coalescer.execute("java", () -> "second")).isEqualTo("second");
+    }
+
+    @Test
+    void shouldPropagateTheFailureOfTheLeader() {
+        final RequestCoalescer coalescer = new RequestCoalescer(new SimpleMeterRegistry());
+
+        assertThatThrownBy(() -> coalescer.execute("java", () -> { throw new IllegalStateException("This exploded"); })).isInstanceOf(IllegalStateException.class);
+        assertThat(coalescer.execute("java", () -> "recovered")).isEqualTo("recovered");
+    }
+
+    @Test
+    void shouldKeepTheSharedCallForTheFollowersWhenTheLeaderCancels() {
+        final RequestCoalescer coalescer = new RequestCoalescer(new SimpleMeterRegistry());
+        final Sinks.One<String> upstream = Sinks.one();
+        final AtomicInteger calls = new AtomicInteger();
+
+        final Disposable leader = coalescer.executeAsync("java", () -> {
+            calls.incrementAndGet();
+            return upstream.asMono();
+        }).subscribe();
+        final CompletableFuture<String> follower = coalescer.executeAsync("java", () -> {
+            calls.incrementAndGet();
+            return Mono.just("other");
+        }).toFuture();
+
+        leader.dispose();
+        upstream.tryEmitValue("spring");
+
+        assertThat(follower.join()).isEqualTo("spring");
+        assertThat(calls.get()).isEqualTo(1);
+        assertThat(coalescer.executeAsync("java", () -> Mono.just("second")).block()).isEqualTo("second");
+    }
+
+    @Test
+    void shouldRunTheSharedCallWithTheContextOfTheLeader() {
+        final RequestCoalescer coalescer = new RequestCoalescer(new SimpleMeterRegistry());
+
+        final String priority = coalescer.executeAsync("java", () -> Mono.deferContextual(context -> Mono.just(context.getOrDefault("priority", "interactive"))))
+                                         .contextWrite(context -> context.put("priority", "background"))
+                                         .block();
+
+        assertThat(priority).isEqualTo("background");
+    }
+
+    @SneakyThrows
+    private static void awaitQuietly(final CountDownLatch latch) {
+        latch.await(5, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,180 @@
+package com.assoni.gateway.repositories.unit;
+
+import com.assoni.gateway.repositories.logic.cache.InMemorySharedCacheStore;
+import com.assoni.gateway.repositories.logic.cache.RepositorySearchResultCodec;
+import com.assoni.gateway.repositories.logic.cache.SharedCacheStore;
+import com.assoni.gateway.repositories.logic.cache.TwoTierCache;
+import com.assoni.gateway.repositories.logic.cache.TwoTierCacheManager;
+import com.assoni.gateway.repositories.logic.model.RepositoryModel;
+import com.assoni.gateway.repositories.logic.model.RepositorySearchKey;
+import com.assoni.gateway.repositories.logic.model.RepositorySearchResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TwoTierCacheUnitTest {
+
+    static class TwoTierCacheUnitTestHelper {
+
+        public static RepositorySearchResult createFakeResult(final String name, final int stars) {
+            return new RepositorySearchResult(List.of(RepositoryModel.builder()
+                                                                     .createdAt(LocalDateTime.of(2022, 1, 10, 12, 30, 15, 500))
+                                                                     .language("java")
+                                                                     .name(name)
+                                                                     .description("spring framework")
+                                                                     .stars(stars)
+                                                                     .url("NOP")
+                                                                     .owner("pivotal")
+                                                                     .build(),
+                                                      RepositoryModel.builder().name("guava").owner("pivotal").language("java").build()), 30);
+        }
+
+        public static Clock createClock(final AtomicReference<Instant> now) {
+            return new Clock() {
+                @Override
+                public ZoneId getZone() {
+                    return ZoneOffset.UTC;
+                }
+
+                @Override
+                public Clock withZone(final ZoneId zone) {
+                    return this;
+                }
+
+                @Override
+                public Instant instant() {
+                    return now.get();
+                }
+            };
+        }
+
+        public static TwoTierCache createReplica(final SharedCacheStore sharedStore, final SimpleMeterRegistry registry) {
+            return createReplica(sharedStore, (key, result) -> {}, registry);
+        }
+
+        public static TwoTierCache createReplica(final SharedCacheStore sharedStore, final BiConsumer<RepositorySearchKey, RepositorySearchResult> sharedHitListener, final SimpleMeterRegistry registry) {
+            return (TwoTierCache) new TwoTierCacheManager(new ConcurrentMapCacheManager("repositories_cache"), Set.of("repositories_cache"), sharedStore, Duration.ofMinutes(5), sharedHitListener, registry)
+                .getCache("repositories_cache");
+        }
+    }
+
+    private final RepositorySearchKey key = new RepositorySearchKey(Optional.of(LocalDate.of(2022, 1, 1)), Optional.of("java"));
+
+    @Test
+    void shouldServeASearchFetchedByAnotherReplicaFromTheSharedStore() {
+        final SharedCacheStore sharedStore = new InMemorySharedCacheStore();
+        final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        final TwoTierCache first = TwoTierCacheUnitTestHelper.createReplica(sharedStore, registry);
+        final TwoTierCache second = TwoTierCacheUnitTestHelper.createReplica(sharedStore, new SimpleMeterRegistry());
+
+        first.put(key, TwoTierCacheUnitTestHelper.createFakeResult("spring", 5));
+
+        final RepositorySearchResult shared = second.get(key, RepositorySearchResult.class);
+        assertThat(shared.requestedSize()).isEqualTo(30);
+        assertThat(shared.repositories()).extracting(RepositoryModel::getName).containsExactly("spring", "guava");
+        assertThat(shared.repositories().get(0).getCreatedAt()).isEqualTo(LocalDateTime.of(2022, 1, 10, 12, 30, 15, 500));
+        assertThat(second.getLocal().get(key)).isNotNull();
+    }
+
+    @Test
+    void shouldHandTheSearchesReadFromTheSharedStoreToTheListener() {
+        final SharedCacheStore sharedStore = new InMemorySharedCacheStore();
+        final Map<RepositorySearchKey, RepositorySearchResult> indexed = new ConcurrentHashMap<>();
+        final TwoTierCache first = TwoTierCacheUnitTestHelper.createReplica(sharedStore, new SimpleMeterRegistry());
+        final TwoTierCache second = TwoTierCacheUnitTestHelper.createReplica(sharedStore, indexed::put, new SimpleMeterRegistry());
+
+        first.put(key, TwoTierCacheUnitTestHelper.createFakeResult("spring", 5));
+        assertThat(indexed).isEmpty();
+
+        second.get(key);
+        assertThat(indexed).containsOnlyKeys(key);
+        assertThat(indexed.get(key).repositories()).extracting(RepositoryModel::getName).containsExactly("spring", "guava");
+    }
+
+    @Test
+    void shouldDropTheLocalCopyOfTheOtherReplicasWhenASearchChanges() {
+        final SharedCacheStore sharedStore = new InMemorySharedCacheStore();
+        final TwoTierCache first = TwoTierCacheUnitTestHelper.createReplica(sharedStore, new SimpleMeterRegistry());
+        final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        final TwoTierCache second = TwoTierCacheUnitTestHelper.createReplica(sharedStore, registry);
+
+        second.put(key, TwoTierCacheUnitTestHelper.createFakeResult("spring", 5));
+        first.put(key, TwoTierCacheUnitTestHelper.createFakeResult("spring", 10));
+
+        assertThat(second.getLocal().get(key)).isNull();
+        assertThat(second.get(key, RepositorySearchResult.class).repositories().get(0).getStars()).isEqualTo(10);
+        assertThat(registry.get("repository_cache_invalidation_metric").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldRemoveExpiredEntriesOfTheEmbeddedStoreEvenWhenTheyAreNeverReadAgain() {
+        final AtomicReference<Instant> now = new AtomicReference<>(Instant.parse("2022-06-01T10:00:00Z"));
+        final InMemorySharedCacheStore sharedStore = new InMemorySharedCacheStore(TwoTierCacheUnitTestHelper.createClock(now));
+
+        for(int index = 0; index < 100; index++) {
+            sharedStore.put("repositories_cache::search-" + index, new byte[]{1}, Duration.ofMinutes(1));
+        }
+        now.set(now.get().plus(Duration.ofMinutes(2)));
+        sharedStore.put("repositories_cache::fresh", new byte[]{1}, Duration.ofMinutes(1));
+
+        assertThat(sharedStore.size()).isEqualTo(1);
+        assertThat(sharedStore.get("repositories_cache::search-0")).isEmpty();
+        assertThat(sharedStore.get("repositories_cache::fresh")).isPresent();
+    }
+
+    @Test
+    void shouldKeepWorkingLocallyWhenTheSharedStoreFails() {
+        final SharedCacheStore sharedStore = Mockito.mock(SharedCacheStore.class);
+        Mockito.when(sharedStore.get(Mockito.any())).thenThrow(new RuntimeException("This exploded"));
+        Mockito.doThrow(new RuntimeException("This exploded")).when(sharedStore).put(Mockito.any(), Mockito.any(), Mockito.any());
+
+        final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        final TwoTierCache cache = TwoTierCacheUnitTestHelper.createReplica(sharedStore, registry);
+
+        assertThat(cache.get(key)).isNull();
+        cache.put(key, TwoTierCacheUnitTestHelper.createFakeResult("spring", 5));
+
+        assertThat(cache.get(key, RepositorySearchResult.class)).isNotNull();
+        assertThat(registry.get("repository_cache_l2_metric").tag("result", "failure").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldEncodeAndDecodeEveryFieldOfTheRepositories() {
+        final RepositorySearchResultCodec codec = new RepositorySearchResultCodec();
+        final RepositorySearchResult original = TwoTierCacheUnitTestHelper.createFakeResult("spring", 5);
+
+        final RepositorySearchResult decoded = codec.decode(codec.encode(original));
+
+        assertThat(decoded.requestedSize()).isEqualTo(original.requestedSize());
+        assertThat(decoded.repositories()).usingRecursiveFieldByFieldElementComparator().containsExactlyElementsOf(original.repositories());
+        assertThat(codec.decodeKey(codec.encodeKey(key))).isEqualTo(key);
+        assertThat(codec.decodeKey(codec.encodeKey(new RepositorySearchKey(Optional.empty(), Optional.empty())))).isEqualTo(new RepositorySearchKey(Optional.empty(), Optional.empty()));
+    }
+
+    @Test
+    void shouldEncodeStringsBiggerThanTheLimitOfModifiedUtf8() {
+        final RepositorySearchResultCodec codec = new RepositorySearchResultCodec();
+        final String description = "a\u00e7\u00e3o-".repeat(20_000);
+        final RepositorySearchResult original = new RepositorySearchResult(List.of(RepositoryModel.builder().name("spring").description(description).build()), 30);
+
+        assertThat(codec.decode(codec.encode(original)).repositories().get(0).getDescription()).isEqualTo(description);
+    }
+}